@@ -0,0 +1,72 @@
+package br.com.alura.literalura.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Cache de segundo nível do Hibernate para os dados de referência (autores e tópicos): poucas
+ * linhas, quase só lidas e procuradas pelo nome a cada ingestão e listagem. Cada região tem um
+ * limite de entradas em memória; as entidades usam READ_WRITE, então inserções e alterações
+ * feitas pelo Hibernate atualizam o cache no commit.
+ */
+@Configuration
+public class CacheSegundoNivelConfig {
+
+    public static final String AUTORES = "autores";
+    public static final String AUTORES_POR_NOME = "autores-nome";
+    public static final String TOPICOS = "topicos";
+    public static final String TOPICOS_POR_NOME = "topicos-nome";
+    public static final String TOPICOS_DO_LIVRO = "livro-topicos";
+
+    // Consultas marcadas como cacheáveis e o registro de quando cada tabela mudou pela última vez
+    private static final String CONSULTAS = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    private static final String ALTERACOES_TABELAS = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager gerenciadorCacheSegundoNivel(
+            @Value("${literalura.cache.entidades.max-entradas:10000}") long maxEntidades,
+            @Value("${literalura.cache.consultas.max-entradas:1000}") long maxConsultas) {
+        ConfigurationBuilder configuracao = ConfigurationBuilder.newConfigurationBuilder();
+        for (String regiao : new String[]{AUTORES, AUTORES_POR_NOME, TOPICOS, TOPICOS_POR_NOME, TOPICOS_DO_LIVRO}) {
+            configuracao = configuracao.withCache(regiao, regiao(maxEntidades));
+        }
+        configuracao = configuracao.withCache(CONSULTAS, regiao(maxConsultas))
+                // Uma entrada por tabela; se alguma fosse descartada, uma consulta velha poderia ser servida
+                .withCache(ALTERACOES_TABELAS, regiao(maxConsultas));
+
+        EhcacheCachingProvider provedor = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        // URI próprio por contexto: testes que sobem vários contextos não compartilham regiões
+        return provedor.getCacheManager(URI.create("literalura:" + UUID.randomUUID()),
+                configuracao.build());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivel(CacheManager gerenciadorCacheSegundoNivel) {
+        return propriedades -> {
+            propriedades.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            propriedades.put(AvailableSettings.USE_QUERY_CACHE, true);
+            propriedades.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            propriedades.put("hibernate.javax.cache.cache_manager", gerenciadorCacheSegundoNivel);
+            // Região não declarada acima é erro de configuração, não um cache sem limite criado às escondidas
+            propriedades.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        };
+    }
+
+    private static CacheConfigurationBuilder<Object, Object> regiao(long maxEntradas) {
+        return CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                ResourcePoolsBuilder.heap(maxEntradas));
+    }
+}
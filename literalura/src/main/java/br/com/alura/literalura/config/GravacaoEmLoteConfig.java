@@ -0,0 +1,30 @@
+package br.com.alura.literalura.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Inserções e atualizações em lote (JDBC batch) na gravação do catálogo. Livro, Autor e Topico
+ * usam sequências com alocação em blocos: o Hibernate já sabe o id antes do INSERT (com IDENTITY
+ * ele precisava executar cada INSERT na hora para ler a chave, o que desliga o batch) e só vai à
+ * sequência uma vez a cada {@link #IDS_POR_ALOCACAO} ids.
+ */
+@Configuration
+public class GravacaoEmLoteConfig {
+
+    /** Ids reservados a cada chamada à sequência; igual ao incremento das sequências no banco. */
+    public static final int IDS_POR_ALOCACAO = 50;
+
+    @Bean
+    public HibernatePropertiesCustomizer gravacaoEmLote(@Value("${literalura.jdbc.tamanho-lote:50}") int tamanhoLote) {
+        return propriedades -> {
+            propriedades.put(AvailableSettings.STATEMENT_BATCH_SIZE, tamanhoLote);
+            // Agrupa os INSERTs/UPDATEs por tabela, senão cada troca de tabela fecha o lote em andamento
+            propriedades.put(AvailableSettings.ORDER_INSERTS, true);
+            propriedades.put(AvailableSettings.ORDER_UPDATES, true);
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package br.com.alura.literalura.config;
+
+import br.com.alura.literalura.metricas.ContadorInstrucoesJdbc;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.logging.LoggingMeterRegistry;
+import io.micrometer.core.instrument.logging.LoggingRegistryConfig;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Métricas da aplicação (Micrometer). Sem servidor web não há endpoint de scrape, então as
+ * métricas são publicadas periodicamente no log.
+ */
+@Configuration
+public class MetricasConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "literalura.metricas.log.habilitado", havingValue = "true", matchIfMissing = true)
+    public LoggingMeterRegistry registroMetricasEmLog(@Value("${literalura.metricas.log.intervalo:1m}") Duration intervalo) {
+        LoggingRegistryConfig configuracao = new LoggingRegistryConfig() {
+            @Override
+            public String get(String chave) {
+                return null;
+            }
+
+            @Override
+            public Duration step() {
+                return intervalo;
+            }
+        };
+        return LoggingMeterRegistry.builder(configuracao).clock(Clock.SYSTEM).build();
+    }
+
+    /** Registra no Hibernate o contador de instruções SQL por operação. */
+    @Bean
+    public HibernatePropertiesCustomizer contadorInstrucoesJdbc(ObjectProvider<MeterRegistry> registro) {
+        return propriedades -> registro.ifAvailable(r ->
+                propriedades.put(AvailableSettings.STATEMENT_INSPECTOR, new ContadorInstrucoesJdbc(r)));
+    }
+}
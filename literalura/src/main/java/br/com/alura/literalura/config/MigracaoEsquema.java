@@ -0,0 +1,145 @@
+package br.com.alura.literalura.config;
+
+import br.com.alura.literalura.model.Autor;
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ajustes de esquema que o {@code ddl-auto=update} do Hibernate não faz sozinho (índices funcionais,
+ * migração de dados). Roda logo depois de o Hibernate atualizar as tabelas e todos os comandos são
+ * idempotentes, podendo ser executados a cada inicialização.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class MigracaoEsquema {
+
+    // Cada tópico repetido (mesmo lower(nome) de um mais antigo) e o id do que fica no lugar dele
+    private static final String TOPICOS_REPETIDOS = """
+            SELECT id, manter FROM (SELECT id, MIN(id) OVER (PARTITION BY lower(nome)) AS manter FROM topicos) r
+            WHERE id <> manter""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MigracaoEsquema(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void aplicar() {
+        preencherChavesDosAutores();
+        if (!bancoPostgres(jdbcTemplate)) {
+            System.out.println("INFO: Migrações de esquema ignoradas (banco não é PostgreSQL).");
+            return;
+        }
+        for (String comando : comandosPostgres()) {
+            jdbcTemplate.execute(comando);
+        }
+    }
+
+    private List<String> comandosPostgres() {
+        List<String> comandos = new ArrayList<>(List.of(
+                // Tópicos que só diferem em maiúsculas viram um só, o mais antigo, antes do índice único abaixo
+                """
+                INSERT INTO livro_topico (livro_id, topico_id)
+                SELECT DISTINCT lt.livro_id, d.manter FROM livro_topico lt JOIN (%s) d ON d.id = lt.topico_id
+                WHERE NOT EXISTS (SELECT 1 FROM livro_topico x WHERE x.livro_id = lt.livro_id AND x.topico_id = d.manter)
+                """.formatted(TOPICOS_REPETIDOS),
+                "UPDATE traducoes_pendentes p SET topico_id = d.manter FROM (%s) d WHERE p.topico_id = d.id"
+                        .formatted(TOPICOS_REPETIDOS),
+                "DELETE FROM livro_topico lt USING (%s) d WHERE lt.topico_id = d.id".formatted(TOPICOS_REPETIDOS),
+                "DELETE FROM topicos t USING (%s) d WHERE t.id = d.id".formatted(TOPICOS_REPETIDOS),
+
+                // Busca de tópicos por nome normalizado e alvo do ON CONFLICT (ResolvedorTopicos)
+                "CREATE UNIQUE INDEX IF NOT EXISTS idx_topicos_nome_lower_unico ON topicos (lower(nome))",
+                "DROP INDEX IF EXISTS idx_topicos_nome_lower",
+
+                // Traduções: a chave única antiga indexava o texto inteiro; a nova é (hash_texto, idioma)
+                "UPDATE traducoes SET hash_texto = md5(texto) WHERE hash_texto IS NULL",
+                """
+                DO $$
+                DECLARE restricao record;
+                BEGIN
+                    FOR restricao IN SELECT conname FROM pg_constraint
+                            WHERE conrelid = 'traducoes'::regclass AND contype = 'u'
+                              AND pg_get_constraintdef(oid) = 'UNIQUE (texto, idioma)' LOOP
+                        EXECUTE format('ALTER TABLE traducoes DROP CONSTRAINT %I', restricao.conname);
+                    END LOOP;
+                END $$
+                """,
+
+                // Idiomas: da coluna livros.idioma ("en,fr") para a tabela normalizada livro_idioma
+                """
+                INSERT INTO livro_idioma (livro_id, idioma)
+                SELECT l.id, lower(trim(x.sigla))
+                FROM livros l CROSS JOIN LATERAL unnest(string_to_array(l.idioma, ',')) AS x(sigla)
+                WHERE l.idioma IS NOT NULL AND l.idioma <> 'Desconhecido' AND trim(x.sigla) <> ''
+                  AND NOT EXISTS (SELECT 1 FROM livro_idioma li WHERE li.livro_id = l.id)
+                ON CONFLICT DO NOTHING
+                """
+        ));
+        for (String tabela : List.of("livros", "autores", "topicos")) {
+            comandos.addAll(idsPorSequencia(tabela));
+        }
+        return comandos;
+    }
+
+    /**
+     * Tabelas criadas quando o id era IDENTITY passam a usar a sequência do Hibernate ({@code <tabela>_seq},
+     * já criada pelo ddl-auto), inclusive nos INSERTs por SQL direto. A sequência é adiantada para além do
+     * maior id existente, sem nunca voltar.
+     */
+    private static List<String> idsPorSequencia(String tabela) {
+        String sequencia = tabela + "_seq";
+        return List.of(
+                "ALTER TABLE " + tabela + " ALTER COLUMN id DROP IDENTITY IF EXISTS",
+                "ALTER TABLE " + tabela + " ALTER COLUMN id SET DEFAULT nextval('" + sequencia + "')",
+                "SELECT setval('" + sequencia + "', GREATEST((SELECT COALESCE(MAX(id), 0) FROM " + tabela + ") + "
+                        + GravacaoEmLoteConfig.IDS_POR_ALOCACAO + ", (SELECT last_value FROM " + sequencia + ")))"
+        );
+    }
+
+    /**
+     * Autores gravados antes da coluna {@code chave} recebem a chave normalizada do nome, calculada em Java
+     * para ser idêntica à da ingestão. Se dois nomes antigos derem a mesma chave, fica com ela o autor mais
+     * antigo; o outro continua sem chave (e com um aviso), pois a coluna é única.
+     */
+    private void preencherChavesDosAutores() {
+        List<Object[]> semChave = jdbcTemplate.query("SELECT id, nome FROM autores WHERE chave IS NULL ORDER BY id",
+                (linha, numero) -> new Object[]{linha.getLong("id"), linha.getString("nome")});
+        if (semChave.isEmpty()) return;
+
+        Set<String> usadas = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT chave FROM autores WHERE chave IS NOT NULL", String.class));
+        List<Object[]> atualizacoes = new ArrayList<>();
+        for (Object[] autor : semChave) {
+            String chave = Autor.chaveDoNome((String) autor[1]);
+            if (usadas.add(chave)) {
+                atualizacoes.add(new Object[]{chave, autor[0]});
+            } else {
+                System.err.println("AVISO: Autor " + autor[0] + " ('" + autor[1] + "') repete a chave de outro autor; ficou sem chave.");
+            }
+        }
+        jdbcTemplate.batchUpdate("UPDATE autores SET chave = ? WHERE id = ?", atualizacoes);
+        System.out.println("INFO: Chave normalizada preenchida em " + atualizacoes.size() + " autores.");
+    }
+
+    /** Indica se o banco da aplicação é o PostgreSQL, o único com as migrações e o SQL específico dele. */
+    public static boolean bancoPostgres(JdbcTemplate jdbcTemplate) {
+        try {
+            String produto = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    metaData -> metaData.getDatabaseProductName());
+            return "PostgreSQL".equalsIgnoreCase(produto);
+        } catch (Exception e) {
+            System.err.println("AVISO: Não foi possível identificar o banco de dados: " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.alura.literalura.metricas;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conta as instruções SQL geradas pelo Hibernate, por operação. Consultas feitas direto pelo
+ * JdbcTemplate (inserções em lote de tópicos, migrações) não passam por aqui.
+ */
+public class ContadorInstrucoesJdbc implements StatementInspector {
+
+    private final MeterRegistry registro;
+    private final Map<String, Counter> porOperacao = new ConcurrentHashMap<>();
+
+    public ContadorInstrucoesJdbc(MeterRegistry registro) {
+        this.registro = registro;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        String operacao = OperacaoAtual.registrarInstrucao();
+        porOperacao.computeIfAbsent(operacao, nome -> Counter.builder("literalura.jdbc.instrucoes")
+                        .description("Instruções SQL executadas pelo Hibernate")
+                        .tag("operacao", nome)
+                        .register(registro))
+                .increment();
+        return sql;
+    }
+}
@@ -0,0 +1,56 @@
+package br.com.alura.literalura.metricas;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mede o tempo de cada método público do {@code CatalogoService} e quantas instruções SQL ele
+ * executou. Fica por fora da transação, para incluir o flush e o commit na medição.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MedicaoOperacoesAspect {
+
+    private final MeterRegistry registro;
+
+    public MedicaoOperacoesAspect(MeterRegistry registro) {
+        this.registro = registro;
+    }
+
+    @Around("execution(public * br.com.alura.literalura.service.CatalogoService.*(..))")
+    public Object medir(ProceedingJoinPoint chamada) throws Throwable {
+        String metodo = chamada.getSignature().getName();
+        boolean externa = OperacaoAtual.iniciar(metodo);
+        Timer.Sample amostra = Timer.start(registro);
+        String resultado = "sucesso";
+        try {
+            return chamada.proceed();
+        } catch (Throwable e) {
+            resultado = "erro";
+            throw e;
+        } finally {
+            amostra.stop(Timer.builder("literalura.catalogo.operacao")
+                    .description("Duração dos métodos do CatalogoService")
+                    .tag("metodo", metodo)
+                    .tag("resultado", resultado)
+                    .publishPercentileHistogram()
+                    .register(registro));
+            if (externa) {
+                // Muitas instruções numa operação simples costuma ser sinal de N+1
+                DistributionSummary.builder("literalura.jdbc.instrucoes.por.operacao")
+                        .description("Instruções SQL por chamada ao CatalogoService")
+                        .tag("operacao", metodo)
+                        .register(registro)
+                        .record(OperacaoAtual.encerrar());
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package br.com.alura.literalura.metricas;
+
+/**
+ * Operação de negócio em andamento na thread atual e quantas instruções SQL ela já executou.
+ * Preenchida pelo {@link MedicaoOperacoesAspect} e lida pelo {@link ContadorInstrucoesJdbc}.
+ */
+public final class OperacaoAtual {
+
+    static final String NENHUMA = "nenhuma";
+
+    private static final class Medicao {
+        private final String nome;
+        private int instrucoes;
+
+        private Medicao(String nome) {
+            this.nome = nome;
+        }
+    }
+
+    private static final ThreadLocal<Medicao> ATUAL = new ThreadLocal<>();
+
+    private OperacaoAtual() {}
+
+    /** Inicia a medição; devolve {@code false} se a thread já está dentro de outra operação. */
+    static boolean iniciar(String nome) {
+        if (ATUAL.get() != null) return false;
+        ATUAL.set(new Medicao(nome));
+        return true;
+    }
+
+    /** Encerra a medição e devolve a quantidade de instruções executadas. */
+    static int encerrar() {
+        Medicao medicao = ATUAL.get();
+        ATUAL.remove();
+        return medicao != null ? medicao.instrucoes : 0;
+    }
+
+    /** Conta uma instrução na operação atual e devolve o nome dela. */
+    static String registrarInstrucao() {
+        Medicao medicao = ATUAL.get();
+        if (medicao == null) return NENHUMA;
+        medicao.instrucoes++;
+        return medicao.nome;
+    }
+
+    public static String nome() {
+        Medicao medicao = ATUAL.get();
+        return medicao != null ? medicao.nome : NENHUMA;
+    }
+}
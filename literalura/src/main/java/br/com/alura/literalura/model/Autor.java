@@ -1,33 +1,51 @@
 package br.com.alura.literalura.model;
 
+import br.com.alura.literalura.config.CacheSegundoNivelConfig;
+import br.com.alura.literalura.config.GravacaoEmLoteConfig;
 import br.com.alura.literalura.model.DTO.DadosAutor;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "autores")
-
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheSegundoNivelConfig.AUTORES)
+@NaturalIdCache(region = CacheSegundoNivelConfig.AUTORES_POR_NOME)
 public class Autor {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "autores_seq")
+    @SequenceGenerator(name = "autores_seq", sequenceName = "autores_seq", allocationSize = GravacaoEmLoteConfig.IDS_POR_ALOCACAO)
+    @ColumnDefault("nextval('autores_seq')")
     private Long id;
 
     @Column(unique = true, nullable = false)
     private String nome;
 
+    // Nome sem acentos, em minúsculas e com espaços colapsados: é por ela que a ingestão encontra o autor.
+    // Aceita nulo só para as linhas antigas, até a MigracaoEsquema preenchê-las
+    @NaturalId
+    @Column(unique = true)
+    private String chave;
+
     private Integer anoNascimento;
     private Integer anoFalecimento;
 
-    @OneToMany(mappedBy = "autor", fetch = FetchType.EAGER)
+    // Lazy: carregar os livros junto com cada autor anularia o cache de segundo nível
+    @OneToMany(mappedBy = "autor")
     private List<Livro> livros;
 
     public Autor() {}
 
     public Autor(DadosAutor dadosAutor) {
-        this.nome = dadosAutor.nome();
+        setNome(dadosAutor.nome());
         this.anoNascimento = dadosAutor.anoNascimento();
         this.anoFalecimento = dadosAutor.anoFalecimento();
     }
@@ -35,7 +53,11 @@ public class Autor {
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getNome() { return nome; }
-    public void setNome(String nome) { this.nome = nome; }
+    public void setNome(String nome) {
+        this.nome = nome;
+        this.chave = nome != null ? chaveDoNome(nome) : null;
+    }
+    public String getChave() { return chave; }
     public Integer getAnoNascimento() { return anoNascimento; }
     public void setAnoNascimento(Integer anoNascimento) { this.anoNascimento = anoNascimento; }
     public Integer getAnoFalecimento() { return anoFalecimento; }
@@ -43,13 +65,20 @@ public class Autor {
     public List<Livro> getLivros() { return livros; }
     public void setLivros(List<Livro> livros) { this.livros = livros; }
 
+    /** Chave de comparação de nomes de autor: "Shelley, Mary" e " shelley,  MARY" são o mesmo autor. */
+    public static String chaveDoNome(String nome) {
+        return TextoNormalizado.normalizar(nome);
+    }
 
     @Override
     public String toString() {
-        String livrosStr = livros.stream()
-                .map(Livro::getTitulo)
-                .reduce((t1, t2) -> t1 + ", " + t2)
-                .orElse("Nenhum livro registrado");
+        // Os livros são lazy: fora da sessão, só aparecem se já tiverem sido carregados
+        String livrosStr = livros == null || !Hibernate.isInitialized(livros)
+                ? "não carregados"
+                : livros.stream()
+                        .map(Livro::getTitulo)
+                        .reduce((t1, t2) -> t1 + ", " + t2)
+                        .orElse("Nenhum livro registrado");
         return String.format("""
                 Autor: %s
                 Ano de Nascimento: %s
@@ -0,0 +1,38 @@
+package br.com.alura.literalura.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "checkpoints")
+
+public class Checkpoint {
+
+    // Identifica o processo dono do checkpoint (ex: "ingestao-catalogo")
+    @Id
+    private String nome;
+
+    // Posição a partir da qual o processo deve continuar (URL, id, etc.)
+    @Column(length = 2048)
+    private String valor;
+
+    private Long processados;
+    private LocalDateTime atualizadoEm;
+
+    public Checkpoint() {}
+
+    public Checkpoint(String nome) {
+        this.nome = nome;
+        this.processados = 0L;
+    }
+
+    public String getNome() { return nome; }
+    public void setNome(String nome) { this.nome = nome; }
+    public String getValor() { return valor; }
+    public void setValor(String valor) { this.valor = valor; }
+    public Long getProcessados() { return processados; }
+    public void setProcessados(Long processados) { this.processados = processados; }
+    public LocalDateTime getAtualizadoEm() { return atualizadoEm; }
+    public void setAtualizadoEm(LocalDateTime atualizadoEm) { this.atualizadoEm = atualizadoEm; }
+}
@@ -0,0 +1,21 @@
+package br.com.alura.literalura.model.DTO;
+
+import java.util.List;
+
+/** Autor com os títulos dos seus livros, montado por projeção (sem carregar entidades). */
+public record AutorComLivrosDTO(
+        Long id,
+        String nome,
+        Integer anoNascimento,
+        Integer anoFalecimento,
+        List<String> livros) {
+
+    // Usado pelas projeções JPQL; os títulos são preenchidos depois, numa consulta por bloco de autores
+    public AutorComLivrosDTO(Long id, String nome, Integer anoNascimento, Integer anoFalecimento) {
+        this(id, nome, anoNascimento, anoFalecimento, List.of());
+    }
+
+    public AutorComLivrosDTO comLivros(List<String> livros) {
+        return new AutorComLivrosDTO(id, nome, anoNascimento, anoFalecimento, livros);
+    }
+}
@@ -0,0 +1,6 @@
+package br.com.alura.literalura.model.DTO;
+
+public record ContagemIdiomaDTO(
+        String idioma,
+        long totalLivros) {
+}
@@ -0,0 +1,16 @@
+package br.com.alura.literalura.model.DTO;
+
+import java.util.List;
+
+/**
+ * Página obtida por cursor (keyset): em vez do número da página e do total de páginas,
+ * traz o cursor para buscar a próxima. O total só é calculado quando solicitado.
+ */
+public record CursorPaginatedResponseDTO<T>(
+        List<T> content,
+        int size,
+        String nextCursor,
+        Long totalElements,
+        boolean isLast
+) {
+}
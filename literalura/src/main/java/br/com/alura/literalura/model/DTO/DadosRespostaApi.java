@@ -1,10 +1,15 @@
 package br.com.alura.literalura.model.DTO;
 
 import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import java.util.List;
 
+@JsonIgnoreProperties(ignoreUnknown = true)
+
 public record DadosRespostaApi(
         @JsonAlias("count") Integer total,
+        @JsonAlias("next") String proximaPagina,
+        @JsonAlias("previous") String paginaAnterior,
         @JsonAlias("results") List<DadosLivro> livros) {
 }
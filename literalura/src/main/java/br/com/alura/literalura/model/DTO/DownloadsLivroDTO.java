@@ -0,0 +1,8 @@
+package br.com.alura.literalura.model.DTO;
+
+/** Id local, id no Gutendex e downloads gravados de um livro, para a atualização dos downloads. */
+public record DownloadsLivroDTO(
+        Long id,
+        Integer idApi,
+        Integer numeroDownloads) {
+}
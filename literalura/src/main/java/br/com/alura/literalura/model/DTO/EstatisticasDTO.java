@@ -6,4 +6,14 @@ public record EstatisticasDTO(
         long maxDownloads,
         long minDownloads,
         long somaDownloads) {
+
+    /** Usado pela consulta agregada do repositório; sem linhas, as funções de agregação vêm nulas. */
+    public EstatisticasDTO(Long totalLivros, Double mediaDownloads, Integer maxDownloads,
+                           Integer minDownloads, Long somaDownloads) {
+        this(totalLivros != null ? totalLivros : 0,
+                mediaDownloads != null ? mediaDownloads : 0,
+                maxDownloads != null ? maxDownloads : 0,
+                minDownloads != null ? minDownloads : 0,
+                somaDownloads != null ? somaDownloads : 0);
+    }
 }
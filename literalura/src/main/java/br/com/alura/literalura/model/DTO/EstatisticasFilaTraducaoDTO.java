@@ -0,0 +1,12 @@
+package br.com.alura.literalura.model.DTO;
+
+import java.time.Duration;
+
+public record EstatisticasFilaTraducaoDTO(
+        long pendentes,
+        long emProcessamento,
+        Duration atrasoMaisAntigo,
+        long concluidas,
+        long reagendadas,
+        long descartadas) {
+}
@@ -0,0 +1,27 @@
+package br.com.alura.literalura.model.DTO;
+
+import java.util.List;
+
+/** Linha da exportação do catálogo: o livro com os dados do autor e os nomes dos tópicos. */
+public record LivroExportacaoDTO(
+        Long id,
+        String titulo,
+        String idioma,
+        Integer numeroDownloads,
+        Integer idApi,
+        String autor,
+        Integer anoNascimentoAutor,
+        Integer anoFalecimentoAutor,
+        List<String> topicos) {
+
+    // Usado pela projeção JPQL; os tópicos são preenchidos depois, por bloco
+    public LivroExportacaoDTO(Long id, String titulo, String idioma, Integer numeroDownloads, Integer idApi,
+                              String autor, Integer anoNascimentoAutor, Integer anoFalecimentoAutor) {
+        this(id, titulo, idioma, numeroDownloads, idApi, autor, anoNascimentoAutor, anoFalecimentoAutor, List.of());
+    }
+
+    public LivroExportacaoDTO comTopicos(List<String> topicos) {
+        return new LivroExportacaoDTO(id, titulo, idioma, numeroDownloads, idApi,
+                autor, anoNascimentoAutor, anoFalecimentoAutor, topicos);
+    }
+}
@@ -26,4 +26,31 @@ public record LivroResponseDTO(
                 livro.getTopicos().stream().map(Topico::getNome).collect(Collectors.toList())
         );
     }
+
+    // Usado pelas projeções JPQL; os tópicos são preenchidos depois, numa consulta por bloco de livros
+    public LivroResponseDTO(Long id, String titulo, String idioma, Integer numeroDownloads, String posterUrl,
+                            Long autorId, String autorNome, Integer autorAnoNascimento, Integer autorAnoFalecimento) {
+        this(id, titulo,
+                autorId != null ? new AutorResponseDTO(autorId, autorNome, autorAnoNascimento, autorAnoFalecimento) : null,
+                idioma, numeroDownloads, posterUrl, List.of());
+    }
+
+    public LivroResponseDTO comTopicos(List<String> topicos) {
+        return new LivroResponseDTO(id, titulo, autor, idioma, numeroDownloads, posterUrl, topicos);
+    }
+
+    // Mesmo formato do Livro, para o menu exibir igual livros lidos do banco e recém-gravados
+    @Override
+    public String toString() {
+        String nomeAutor = (autor != null && autor.nome() != null) ? autor.nome() : "Autor desconhecido";
+        return String.format("""
+                ----- LIVRO -----
+                Título: %s
+                Autor: %s
+                Idioma: %s
+                Número de Downloads: %d
+                Poster: %s
+                -----------------
+                """, titulo, nomeAutor, idioma, numeroDownloads, posterUrl != null ? posterUrl : "N/A");
+    }
 }
@@ -0,0 +1,11 @@
+package br.com.alura.literalura.model.DTO;
+
+import java.time.Duration;
+
+public record RelatorioAtualizacaoDownloads(
+        int livrosConsultados,
+        int livrosAlterados,
+        int requisicoes,
+        Duration duracao,
+        boolean concluida) {
+}
@@ -0,0 +1,11 @@
+package br.com.alura.literalura.model.DTO;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+public record RelatorioExportacao(
+        Path arquivo,
+        long livrosExportados,
+        long bytesGravados,
+        Duration duracao) {
+}
@@ -0,0 +1,34 @@
+package br.com.alura.literalura.model.DTO;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+public record RelatorioImportacaoLote(
+        List<ResultadoImportacaoTitulo> resultados,
+        int maxEmVoo,
+        Duration duracao) {
+
+    public long contar(ResultadoImportacaoTitulo.Situacao situacao) {
+        return resultados.stream().filter(resultado -> resultado.situacao() == situacao).count();
+    }
+
+    /** Tempo esperando uma vaga entre as chamadas em andamento, somado entre os títulos. */
+    public Duration tempoTotalEspera() {
+        return somar(ResultadoImportacaoTitulo::espera);
+    }
+
+    /** Tempo de chamada à API (inclui o espaçamento do limitador por host), somado entre os títulos. */
+    public Duration tempoTotalBusca() {
+        return somar(ResultadoImportacaoTitulo::busca);
+    }
+
+    /** Tempo das transações de gravação, somado entre os títulos. */
+    public Duration tempoTotalGravacao() {
+        return somar(ResultadoImportacaoTitulo::gravacao);
+    }
+
+    private Duration somar(Function<ResultadoImportacaoTitulo, Duration> etapa) {
+        return resultados.stream().map(etapa).reduce(Duration.ZERO, Duration::plus);
+    }
+}
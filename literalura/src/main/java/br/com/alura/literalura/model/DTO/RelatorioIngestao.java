@@ -0,0 +1,16 @@
+package br.com.alura.literalura.model.DTO;
+
+import java.time.Duration;
+
+public record RelatorioIngestao(
+        int paginasProcessadas,
+        int livrosSalvos,
+        int livrosIgnorados,
+        Duration duracao,
+        boolean concluida) {
+
+    public double livrosPorSegundo() {
+        double segundos = duracao.toMillis() / 1000.0;
+        return segundos > 0 ? (livrosSalvos + livrosIgnorados) / segundos : 0;
+    }
+}
@@ -0,0 +1,15 @@
+package br.com.alura.literalura.model.DTO;
+
+import java.time.Duration;
+
+public record ResultadoImportacaoTitulo(
+        String tituloPesquisado,
+        Situacao situacao,
+        String tituloEncontrado,
+        Duration espera,
+        Duration busca,
+        Duration gravacao,
+        String erro) {
+
+    public enum Situacao { SALVO, DUPLICADO, NAO_ENCONTRADO, FALHA }
+}
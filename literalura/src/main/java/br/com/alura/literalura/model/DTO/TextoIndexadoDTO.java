@@ -0,0 +1,6 @@
+package br.com.alura.literalura.model.DTO;
+
+public record TextoIndexadoDTO(
+        Long id,
+        String texto) {
+}
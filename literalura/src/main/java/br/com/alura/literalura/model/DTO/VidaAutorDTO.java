@@ -0,0 +1,7 @@
+package br.com.alura.literalura.model.DTO;
+
+public record VidaAutorDTO(
+        Long id,
+        Integer anoNascimento,
+        Integer anoFalecimento) {
+}
@@ -1,9 +1,15 @@
 package br.com.alura.literalura.model;
 
+import br.com.alura.literalura.config.CacheSegundoNivelConfig;
+import br.com.alura.literalura.config.GravacaoEmLoteConfig;
 import br.com.alura.literalura.model.DTO.DadosLivro;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 
 @Entity
@@ -11,8 +17,12 @@ import java.util.Set;
 
 public class Livro {
 
+    // Sequência com ids alocados em blocos, para o INSERT poder ir em lote (ver GravacaoEmLoteConfig).
+    // O default da coluna atende os INSERTs feitos por SQL direto, fora do Hibernate
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "livros_seq")
+    @SequenceGenerator(name = "livros_seq", sequenceName = "livros_seq", allocationSize = GravacaoEmLoteConfig.IDS_POR_ALOCACAO)
+    @ColumnDefault("nextval('livros_seq')")
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -23,7 +33,10 @@ public class Livro {
     @JoinColumn(name = "autor_id")
     private Autor autor;
 
-    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.EAGER)
+    // Lazy: as leituras do catálogo buscam os nomes dos tópicos por projeção, em bloco.
+    // Quando a coleção é carregada, só os ids vão para o cache; os tópicos vêm da região de Topico
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheSegundoNivelConfig.TOPICOS_DO_LIVRO)
+    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     @JoinTable(
             name = "livro_topico",
             joinColumns = @JoinColumn(name = "livro_id"),
@@ -31,7 +44,18 @@ public class Livro {
     )
     private Set<Topico> topicos = new HashSet<>();
 
+    // Texto para exibição (ex: "en,fr"); consultas usam a coleção normalizada abaixo
     private String idioma;
+
+    @ElementCollection
+    @CollectionTable(
+            name = "livro_idioma",
+            joinColumns = @JoinColumn(name = "livro_id"),
+            indexes = @Index(name = "idx_livro_idioma_idioma", columnList = "idioma, livro_id")
+    )
+    @Column(name = "idioma", length = 10, nullable = false)
+    private Set<String> idiomas = new HashSet<>();
+
     private Integer numeroDownloads;
     private Integer idApi;
     private String posterUrl;
@@ -40,15 +64,30 @@ public class Livro {
 
     public Livro(DadosLivro dadosLivro) {
         this.idApi = dadosLivro.idApi();
-        this.titulo = dadosLivro.titulo();
+        this.titulo = tituloArmazenado(dadosLivro.titulo());
         this.idioma = dadosLivro.idiomas() != null && !dadosLivro.idiomas().isEmpty() ?
                 String.join(",", dadosLivro.idiomas()) : "Desconhecido";
+        if (dadosLivro.idiomas() != null) {
+            for (String sigla : dadosLivro.idiomas()) {
+                if (sigla != null && !sigla.isBlank()) this.idiomas.add(sigla.trim().toLowerCase(Locale.ROOT));
+            }
+        }
         this.numeroDownloads = dadosLivro.numeroDownloads();
         if (dadosLivro.formatos() != null && dadosLivro.formatos().imagemJpeg() != null) {
             this.posterUrl = dadosLivro.formatos().imagemJpeg(); // << ATRIBUIR AQUI
         }
     }
 
+    /** O título como a coluna o guarda: ela tem 255 caracteres e alguns títulos do Gutenberg são maiores. */
+    public static String tituloArmazenado(String titulo) {
+        return titulo != null && titulo.length() > 255 ? titulo.substring(0, 255) : titulo;
+    }
+
+    /** Chave para comparar um título vindo da API com os gravados, como o {@code lower(titulo)} das consultas. */
+    public static String chaveDoTitulo(String titulo) {
+        return titulo == null ? null : tituloArmazenado(titulo).toLowerCase(Locale.ROOT);
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getTitulo() { return titulo; }
@@ -57,6 +96,8 @@ public class Livro {
     public void setAutor(Autor autor) { this.autor = autor; }
     public String getIdioma() { return idioma; }
     public void setIdioma(String idioma) { this.idioma = idioma; }
+    public Set<String> getIdiomas() { return idiomas; }
+    public void setIdiomas(Set<String> idiomas) { this.idiomas = idiomas; }
     public Integer getNumeroDownloads() { return numeroDownloads; }
     public void setNumeroDownloads(Integer numeroDownloads) { this.numeroDownloads = numeroDownloads; }
     public Integer getIdApi() { return idApi; }
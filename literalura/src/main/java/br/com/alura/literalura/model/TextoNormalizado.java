@@ -0,0 +1,19 @@
+package br.com.alura.literalura.model;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Forma de comparação de nomes e títulos: sem acentos, em minúsculas e com os espaços repetidos
+ * reduzidos a um. Usada pelas chaves das entidades e pelos índices em memória.
+ */
+public final class TextoNormalizado {
+
+    private TextoNormalizado() {
+    }
+
+    public static String normalizar(String texto) {
+        String semAcentos = Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        return semAcentos.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").trim();
+    }
+}
@@ -1,18 +1,30 @@
 package br.com.alura.literalura.model;
 
+import br.com.alura.literalura.config.CacheSegundoNivelConfig;
+import br.com.alura.literalura.config.GravacaoEmLoteConfig;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "topicos")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheSegundoNivelConfig.TOPICOS)
+@NaturalIdCache(region = CacheSegundoNivelConfig.TOPICOS_POR_NOME)
 public class Topico {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "topicos_seq")
+    @SequenceGenerator(name = "topicos_seq", sequenceName = "topicos_seq", allocationSize = GravacaoEmLoteConfig.IDS_POR_ALOCACAO)
+    @ColumnDefault("nextval('topicos_seq')")
     private Long id;
 
+    @NaturalId
     @Column(unique = true, nullable = false)
     private String nome;
 
@@ -0,0 +1,62 @@
+package br.com.alura.literalura.model;
+
+import jakarta.persistence.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+@Entity
+@Table(name = "traducoes",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"hash_texto", "idioma"}))
+
+public class Traducao {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 2000)
+    private String texto;
+
+    // MD5 do texto: a chave única fica pequena, pois o texto inteiro pode passar do tamanho de uma entrada de índice
+    @Column(name = "hash_texto", length = 32)
+    private String hashTexto;
+
+    @Column(nullable = false, length = 10)
+    private String idioma;
+
+    @Column(nullable = false, length = 2000)
+    private String traducao;
+
+    public Traducao() {}
+
+    public Traducao(String texto, String idioma, String traducao) {
+        setTexto(texto);
+        this.idioma = idioma;
+        this.traducao = traducao;
+    }
+
+    /** MD5 em hexadecimal do texto em UTF-8, o mesmo valor do {@code md5(texto)} do PostgreSQL. */
+    public static String hashDoTexto(String texto) {
+        try {
+            byte[] hash = MessageDigest.getInstance("MD5").digest(texto.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 indisponível", e);
+        }
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getTexto() { return texto; }
+    public void setTexto(String texto) {
+        this.texto = texto;
+        this.hashTexto = texto != null ? hashDoTexto(texto) : null;
+    }
+    public String getHashTexto() { return hashTexto; }
+    public String getIdioma() { return idioma; }
+    public void setIdioma(String idioma) { this.idioma = idioma; }
+    public String getTraducao() { return traducao; }
+    public void setTraducao(String traducao) { this.traducao = traducao; }
+}
@@ -0,0 +1,69 @@
+package br.com.alura.literalura.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "traducoes_pendentes",
+        indexes = @Index(columnList = "situacao, proximaTentativa"))
+
+public class TraducaoPendente {
+
+    public enum Situacao { PENDENTE, EM_PROCESSAMENTO }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long livroId;
+
+    // Tópico com o nome original (em inglês) que será substituído pelo traduzido
+    @Column(nullable = false)
+    private Long topicoId;
+
+    @Column(nullable = false)
+    private String texto;
+
+    @Column(nullable = false, length = 10)
+    private String idioma;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Situacao situacao = Situacao.PENDENTE;
+
+    private int tentativas;
+    private LocalDateTime criadoEm;
+    private LocalDateTime proximaTentativa;
+
+    public TraducaoPendente() {}
+
+    public TraducaoPendente(Long livroId, Long topicoId, String texto, String idioma) {
+        this.livroId = livroId;
+        this.topicoId = topicoId;
+        this.texto = texto;
+        this.idioma = idioma;
+        this.criadoEm = LocalDateTime.now();
+        this.proximaTentativa = this.criadoEm;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getLivroId() { return livroId; }
+    public void setLivroId(Long livroId) { this.livroId = livroId; }
+    public Long getTopicoId() { return topicoId; }
+    public void setTopicoId(Long topicoId) { this.topicoId = topicoId; }
+    public String getTexto() { return texto; }
+    public void setTexto(String texto) { this.texto = texto; }
+    public String getIdioma() { return idioma; }
+    public void setIdioma(String idioma) { this.idioma = idioma; }
+    public Situacao getSituacao() { return situacao; }
+    public void setSituacao(Situacao situacao) { this.situacao = situacao; }
+    public int getTentativas() { return tentativas; }
+    public void setTentativas(int tentativas) { this.tentativas = tentativas; }
+    public LocalDateTime getCriadoEm() { return criadoEm; }
+    public void setCriadoEm(LocalDateTime criadoEm) { this.criadoEm = criadoEm; }
+    public LocalDateTime getProximaTentativa() { return proximaTentativa; }
+    public void setProximaTentativa(LocalDateTime proximaTentativa) { this.proximaTentativa = proximaTentativa; }
+}
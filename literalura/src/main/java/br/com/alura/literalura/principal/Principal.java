@@ -1,16 +1,33 @@
 package br.com.alura.literalura.principal;
 
-import br.com.alura.literalura.model.Autor;
+import br.com.alura.literalura.model.DTO.AutorComLivrosDTO;
+import br.com.alura.literalura.model.DTO.LivroResponseDTO;
 import br.com.alura.literalura.model.Livro;
+import br.com.alura.literalura.model.DTO.RelatorioAtualizacaoDownloads;
+import br.com.alura.literalura.model.DTO.RelatorioExportacao;
+import br.com.alura.literalura.model.DTO.RelatorioImportacaoLote;
+import br.com.alura.literalura.model.DTO.RelatorioIngestao;
+import br.com.alura.literalura.model.DTO.ResultadoImportacaoTitulo;
+import br.com.alura.literalura.service.AtualizacaoDownloadsService;
 import br.com.alura.literalura.service.CatalogoService;
+import br.com.alura.literalura.service.ExportacaoCatalogoService;
+import br.com.alura.literalura.service.FormatoExportacao;
+import br.com.alura.literalura.service.ImportacaoLoteService;
+import br.com.alura.literalura.service.IngestaoCatalogoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.Scanner;
-import java.util.stream.Collectors;
 
 @Component
 
@@ -21,10 +38,22 @@ public class Principal {
 
     // Serviço principal contendo a lógica de negócio (injeção de dependência)
     private final CatalogoService catalogoService;
+    private final IngestaoCatalogoService ingestaoCatalogoService;
+    private final ExportacaoCatalogoService exportacaoCatalogoService;
+    private final ImportacaoLoteService importacaoLoteService;
+    private final AtualizacaoDownloadsService atualizacaoDownloadsService;
 
     @Autowired
-    public Principal(CatalogoService catalogoService) {
+    public Principal(CatalogoService catalogoService,
+                     IngestaoCatalogoService ingestaoCatalogoService,
+                     ExportacaoCatalogoService exportacaoCatalogoService,
+                     ImportacaoLoteService importacaoLoteService,
+                     AtualizacaoDownloadsService atualizacaoDownloadsService) {
         this.catalogoService = catalogoService;
+        this.ingestaoCatalogoService = ingestaoCatalogoService;
+        this.exportacaoCatalogoService = exportacaoCatalogoService;
+        this.importacaoLoteService = importacaoLoteService;
+        this.atualizacaoDownloadsService = atualizacaoDownloadsService;
     }
 
     /**
@@ -46,6 +75,12 @@ public class Principal {
                 case 7 -> listarTop10Livros();
                 case 8 -> exibirEstatisticasDeDownloads();
                 case 9 -> listarAutoresPorAnoDeNascimento();
+                case 10 -> importarCatalogoCompleto();
+                case 11 -> buscarLivrosPeloTitulo();
+                case 12 -> exportarCatalogo();
+                case 13 -> importarVariosTitulos();
+                case 14 -> atualizarDownloads();
+                case 15 -> listarMaisBaixadosPorRecorte();
                 case 0 -> System.out.println("Saindo do LiterAlura...");
                 default -> System.out.println("Opção inválida!");
             }
@@ -67,6 +102,12 @@ public class Principal {
                 7 - Listar Top 10 livros mais baixados
                 8 - Exibir estatísticas de downloads
                 9 - Listar autores por ano de nascimento
+                10 - Importar catálogo completo do Gutendex
+                11 - Buscar livros cadastrados pelo título
+                12 - Exportar catálogo (NDJSON ou CSV)
+                13 - Importar vários títulos (arquivo ou lista)
+                14 - Atualizar número de downloads (Gutendex)
+                15 - Listar os mais baixados (geral, por idioma ou por tópico)
                 0 - Sair
                 """;
     }
@@ -96,18 +137,16 @@ public class Principal {
     /**
      * Exibe informações detalhadas de um autor, incluindo seus livros.
      */
-    private void exibirDetalhesAutor(Autor autor) {
-        String titulosLivros = autor.getLivros().stream()
-                .map(Livro::getTitulo)
-                .collect(Collectors.joining(" | "));
+    private void exibirDetalhesAutor(AutorComLivrosDTO autor) {
+        String titulosLivros = String.join(" | ", autor.livros());
 
         System.out.printf("""
                 Autor: %s (Nasc: %s, Falec: %s)
                 Livros: [%s]
                 """,
-                autor.getNome(),
-                autor.getAnoNascimento() != null ? autor.getAnoNascimento().toString() : "N/A",
-                autor.getAnoFalecimento() != null ? autor.getAnoFalecimento().toString() : "N/A",
+                autor.nome(),
+                autor.anoNascimento() != null ? autor.anoNascimento().toString() : "N/A",
+                autor.anoFalecimento() != null ? autor.anoFalecimento().toString() : "N/A",
                 !titulosLivros.isEmpty() ? titulosLivros : "Nenhum livro registrado"
         );
     }
@@ -131,7 +170,7 @@ public class Principal {
     }
 
     private void listarLivrosRegistrados() {
-        List<Livro> livros = catalogoService.listarTodosOsLivros();
+        List<LivroResponseDTO> livros = catalogoService.listarTodosOsLivros();
 
         if (livros.isEmpty()) {
             System.out.println("Nenhum livro registrado no banco de dados.");
@@ -142,7 +181,7 @@ public class Principal {
     }
 
     private void listarAutoresRegistrados() {
-        List<Autor> autores = catalogoService.listarTodosOsAutores();
+        List<AutorComLivrosDTO> autores = catalogoService.listarTodosOsAutores();
         if (autores.isEmpty()) {
             System.out.println("Nenhum autor registrado no banco de dados.");
         } else {
@@ -153,7 +192,7 @@ public class Principal {
 
     private void listarAutoresVivosEmAno() {
         lerAnoDoUsuario("Digite o ano para verificar autores vivos: ").ifPresent(ano -> {
-            List<Autor> autoresVivos = catalogoService.listarAutoresVivosEmDeterminadoAno(ano);
+            List<AutorComLivrosDTO> autoresVivos = catalogoService.listarAutoresVivosEmDeterminadoAno(ano);
             if (autoresVivos.isEmpty()) {
                 System.out.println("Nenhum autor vivo registrado para o ano de " + ano + ".");
             } else {
@@ -165,14 +204,14 @@ public class Principal {
 
     private void listarLivrosPorIdioma() {
         System.out.print("Digite o código do idioma (ex: en, pt, es, fr): ");
-        String idioma = leitura.nextLine().toLowerCase().trim();
+        String idioma = leitura.nextLine().toLowerCase(Locale.ROOT).trim();
 
         if (idioma.length() != 2) {
             System.out.println("Código de idioma inválido. Use 2 letras.");
             return;
         }
 
-        List<Livro> livros = catalogoService.listarTodosLivrosPorIdioma(idioma);
+        List<LivroResponseDTO> livros = catalogoService.listarTodosLivrosPorIdioma(idioma);
 
         if (livros.isEmpty()) {
             System.out.println("Nenhum livro encontrado para o idioma '" + idioma.toUpperCase() + "'.");
@@ -185,7 +224,7 @@ public class Principal {
     private void buscarAutorPeloNome() {
         System.out.print("Digite o nome do autor para busca: ");
         String nomeAutor = leitura.nextLine();
-        List<Autor> autores = catalogoService.buscarAutoresPorNome(nomeAutor);
+        List<AutorComLivrosDTO> autores = catalogoService.buscarAutoresPorNome(nomeAutor);
         if (autores.isEmpty()) {
             System.out.println("Nenhum autor encontrado com o nome: " + nomeAutor);
         } else {
@@ -194,8 +233,20 @@ public class Principal {
         }
     }
 
+    private void buscarLivrosPeloTitulo() {
+        System.out.print("Digite parte do título do livro: ");
+        String titulo = leitura.nextLine();
+        List<LivroResponseDTO> livros = catalogoService.buscarLivrosPorTitulo(titulo);
+        if (livros.isEmpty()) {
+            System.out.println("Nenhum livro cadastrado com o título: " + titulo);
+        } else {
+            System.out.println("\n--- Livros Encontrados ---");
+            livros.forEach(System.out::println);
+        }
+    }
+
     private void listarTop10Livros() {
-        List<Livro> top10Livros = catalogoService.buscarTop10LivrosMaisBaixados();
+        List<LivroResponseDTO> top10Livros = catalogoService.buscarTop10LivrosMaisBaixados();
         if (top10Livros.isEmpty()) {
             System.out.println("Não há livros no banco de dados para gerar um Top 10.");
         } else {
@@ -204,6 +255,40 @@ public class Principal {
         }
     }
 
+    private void listarMaisBaixadosPorRecorte() {
+        System.out.print("Quantos livros? ");
+        int quantidade;
+        try {
+            quantidade = Integer.parseInt(leitura.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Erro: Entrada inválida. Por favor, digite um número.");
+            return;
+        }
+        System.out.print("Filtrar por idioma (ex: en), por tópico (ex: t:Fiction) ou Enter para todos: ");
+        String filtro = leitura.nextLine().trim();
+
+        List<LivroResponseDTO> livros;
+        String titulo;
+        if (filtro.isEmpty()) {
+            livros = catalogoService.buscarMaisBaixados(quantidade);
+            titulo = "Top " + quantidade + " Livros Mais Baixados";
+        } else if (filtro.toLowerCase().startsWith("t:")) {
+            String topico = filtro.substring(2).trim();
+            livros = catalogoService.buscarMaisBaixadosPorTopico(topico, quantidade);
+            titulo = "Top " + quantidade + " do Tópico '" + topico + "'";
+        } else {
+            livros = catalogoService.buscarMaisBaixadosPorIdioma(filtro, quantidade);
+            titulo = "Top " + quantidade + " no Idioma '" + filtro.toUpperCase() + "'";
+        }
+
+        if (livros.isEmpty()) {
+            System.out.println("Nenhum livro encontrado para o filtro informado.");
+        } else {
+            System.out.println("\n--- " + titulo + " ---");
+            livros.forEach(System.out::println);
+        }
+    }
+
     private void exibirEstatisticasDeDownloads() {
         catalogoService.calcularEstatisticasDownloads().ifPresentOrElse(
                 stats -> System.out.printf("""
@@ -216,11 +301,19 @@ public class Principal {
                     """, stats.getCount(), stats.getAverage(), stats.getMax(), stats.getMin()),
                 () -> System.out.println("Não foi possível calcular estatísticas (nenhum livro com dados de download).")
         );
+
+        var contagens = catalogoService.contarLivrosPorIdioma();
+        if (!contagens.isEmpty()) {
+            System.out.println("Livros por idioma:");
+            contagens.forEach(contagem ->
+                    System.out.printf("  %s: %d%n", contagem.idioma().toUpperCase(), contagem.totalLivros()));
+            System.out.println("---------------------------------");
+        }
     }
 
     private void listarAutoresPorAnoDeNascimento() {
         lerAnoDoUsuario("Digite o ano de nascimento para buscar autores: ").ifPresent(ano -> {
-            List<Autor> autores = catalogoService.listarAutoresPorAnoNascimento(ano);
+            List<AutorComLivrosDTO> autores = catalogoService.listarAutoresPorAnoNascimento(ano);
             if (autores.isEmpty()) {
                 System.out.println("Nenhum autor encontrado nascido em " + ano + ".");
             } else {
@@ -229,4 +322,128 @@ public class Principal {
             }
         });
     }
+
+    private void importarCatalogoCompleto() {
+        System.out.print("Retomar da última página concluída? (s/n): ");
+        boolean retomar = leitura.nextLine().trim().equalsIgnoreCase("s");
+        System.out.print("Quantidade máxima de páginas (0 = todas): ");
+        int maxPaginas;
+        try {
+            maxPaginas = Integer.parseInt(leitura.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Erro: Entrada inválida. Por favor, digite um número.");
+            return;
+        }
+
+        RelatorioIngestao relatorio = ingestaoCatalogoService.ingerirCatalogoCompleto(retomar, maxPaginas);
+        System.out.printf("""
+                \n--- Importação do Catálogo ---
+                Páginas processadas: %d
+                Livros salvos: %d
+                Livros ignorados (já cadastrados): %d
+                Tempo total: %d s
+                Vazão: %.1f livros/s
+                Situação: %s
+                ------------------------------
+                """,
+                relatorio.paginasProcessadas(), relatorio.livrosSalvos(), relatorio.livrosIgnorados(),
+                relatorio.duracao().toSeconds(), relatorio.livrosPorSegundo(),
+                relatorio.concluida() ? "catálogo concluído" : "interrompida (use a opção de retomar)");
+    }
+
+    /**
+     * Exporta todos os livros para um arquivo NDJSON ou CSV, opcionalmente compactado.
+     */
+    private void exportarCatalogo() {
+        System.out.print("Formato (1 - NDJSON, 2 - CSV): ");
+        FormatoExportacao formato = leitura.nextLine().trim().equals("2") ? FormatoExportacao.CSV : FormatoExportacao.NDJSON;
+        System.out.print("Compactar com gzip? (s/n): ");
+        boolean compactar = leitura.nextLine().trim().equalsIgnoreCase("s");
+        String nomePadrao = "catalogo" + formato.getExtensao() + (compactar ? ".gz" : "");
+        System.out.print("Arquivo de destino [" + nomePadrao + "]: ");
+        String nomeArquivo = leitura.nextLine().trim();
+
+        try {
+            RelatorioExportacao relatorio = exportacaoCatalogoService.exportarLivros(
+                    Path.of(nomeArquivo.isEmpty() ? nomePadrao : nomeArquivo), formato, compactar);
+            System.out.printf("%d livros exportados para %s (%d bytes) em %d ms.%n",
+                    relatorio.livrosExportados(), relatorio.arquivo().toAbsolutePath(),
+                    relatorio.bytesGravados(), relatorio.duracao().toMillis());
+        } catch (InvalidPathException e) {
+            System.out.println("ERRO: Caminho de arquivo inválido: " + e.getMessage());
+        } catch (UncheckedIOException e) {
+            System.out.println("Erro ao exportar o catálogo: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Importa vários títulos de uma vez, lidos de um arquivo (um por linha) ou digitados
+     * separados por ";", e mostra o resultado de cada um.
+     */
+    private void importarVariosTitulos() {
+        System.out.print("Caminho do arquivo (um título por linha) ou títulos separados por ';': ");
+        String entrada = leitura.nextLine().trim();
+
+        List<String> titulos = Arrays.asList(entrada.split(";"));
+        // Sem ";" a entrada pode ser o caminho de um arquivo; se não for um arquivo, vale como um título
+        if (!entrada.contains(";")) {
+            try {
+                Path arquivo = Path.of(entrada.isEmpty() ? "." : entrada);
+                if (Files.isRegularFile(arquivo)) titulos = Files.readAllLines(arquivo);
+            } catch (InvalidPathException e) {
+                System.out.println("ERRO: Caminho de arquivo inválido: " + e.getMessage());
+                return;
+            } catch (IOException e) {
+                System.out.println("Erro ao ler o arquivo: " + e.getMessage());
+                return;
+            }
+        }
+
+        RelatorioImportacaoLote relatorio = importacaoLoteService.importarTitulos(titulos);
+        if (relatorio.resultados().isEmpty()) {
+            System.out.println("Nenhum título informado.");
+            return;
+        }
+
+        System.out.println("\n--- Importação em Lote ---");
+        relatorio.resultados().forEach(resultado -> System.out.printf("%-15s %s%s (busca %d ms, gravação %d ms)%n",
+                resultado.situacao(), resultado.tituloPesquisado(),
+                resultado.erro() != null ? " - " + resultado.erro()
+                        : resultado.tituloEncontrado() != null ? " -> " + resultado.tituloEncontrado() : "",
+                resultado.busca().toMillis(), resultado.gravacao().toMillis()));
+        System.out.printf("""
+                Salvos: %d | Já cadastrados: %d | Não encontrados: %d | Falhas: %d
+                Tempo total: %d ms (até %d buscas simultâneas)
+                Soma por etapa: espera %d ms, busca %d ms, gravação %d ms
+                --------------------------
+                """,
+                relatorio.contar(ResultadoImportacaoTitulo.Situacao.SALVO),
+                relatorio.contar(ResultadoImportacaoTitulo.Situacao.DUPLICADO),
+                relatorio.contar(ResultadoImportacaoTitulo.Situacao.NAO_ENCONTRADO),
+                relatorio.contar(ResultadoImportacaoTitulo.Situacao.FALHA),
+                relatorio.duracao().toMillis(), relatorio.maxEmVoo(),
+                relatorio.tempoTotalEspera().toMillis(), relatorio.tempoTotalBusca().toMillis(),
+                relatorio.tempoTotalGravacao().toMillis());
+    }
+
+    /**
+     * Executa agora a atualização dos downloads (que também roda sozinha periodicamente).
+     */
+    private void atualizarDownloads() {
+        Optional<RelatorioAtualizacaoDownloads> resultado = atualizacaoDownloadsService.atualizar();
+        if (resultado.isEmpty()) return;
+        RelatorioAtualizacaoDownloads relatorio = resultado.get();
+        System.out.printf("""
+                \n--- Atualização de Downloads ---
+                Livros consultados: %d
+                Livros alterados: %d
+                Requisições ao Gutendex: %d
+                Tempo total: %d s
+                Situação: %s
+                -------------------------------
+                """,
+                relatorio.livrosConsultados(), relatorio.livrosAlterados(), relatorio.requisicoes(),
+                relatorio.duracao().toSeconds(),
+                relatorio.concluida() ? "catálogo concluído" : "interrompida (a próxima execução continua de onde parou)");
+    }
 }
@@ -1,13 +1,23 @@
 package br.com.alura.literalura.repository;
 
 import br.com.alura.literalura.model.Autor;
+import br.com.alura.literalura.model.DTO.AutorComLivrosDTO;
+import br.com.alura.literalura.model.DTO.TextoIndexadoDTO;
+import br.com.alura.literalura.model.DTO.VidaAutorDTO;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,29 +25,97 @@ import java.util.Optional;
 
 public interface AutorRepository extends JpaRepository<Autor, Long> {
 
-    Optional<Autor> findByNomeContainingIgnoreCase(String nome);
+    // Leituras devolvem projeções, não entidades; os títulos dos livros vêm à parte,
+    // por LivroRepository.findTitulosPorAutorIdIn
+    String RESUMO = "SELECT new br.com.alura.literalura.model.DTO.AutorComLivrosDTO(a.id, a.nome, a.anoNascimento, a.anoFalecimento) ";
+
+    @Query(RESUMO + "FROM Autor a WHERE upper(a.nome) LIKE upper(concat('%', :nomeFiltro, '%'))")
+    List<AutorComLivrosDTO> findAllByNomeContainingIgnoreCase(@Param("nomeFiltro") String nomeFiltro);
+
+    @Query(RESUMO + "FROM Autor a WHERE a.anoNascimento <= :anoBusca AND (a.anoFalecimento IS NULL OR a.anoFalecimento >= :anoBusca)")
+    List<AutorComLivrosDTO> findAutoresVivosNoAno(@Param("anoBusca") int anoBusca);
+
+    @Query(RESUMO + "FROM Autor a WHERE a.anoNascimento <= :fim AND (a.anoFalecimento IS NULL OR a.anoFalecimento >= :inicio)")
+    List<AutorComLivrosDTO> findAutoresVivosEntre(@Param("inicio") int inicio, @Param("fim") int fim);
+
+    @Query("SELECT new br.com.alura.literalura.model.DTO.VidaAutorDTO(a.id, a.anoNascimento, a.anoFalecimento) FROM Autor a WHERE a.anoNascimento IS NOT NULL")
+    List<VidaAutorDTO> findVidasDosAutores();
+
+    @Query("SELECT new br.com.alura.literalura.model.DTO.TextoIndexadoDTO(a.id, a.nome) FROM Autor a")
+    List<TextoIndexadoDTO> findNomesDosAutores();
+
+    @Query("SELECT new br.com.alura.literalura.model.DTO.TextoIndexadoDTO(a.id, a.nome) FROM Autor a "
+            + "WHERE lower(a.nome) LIKE lower(concat('%', :nome, '%'))")
+    List<TextoIndexadoDTO> findNomesByNomeContainingIgnoreCase(@Param("nome") String nome);
+
+    @Query(RESUMO + "FROM Autor a WHERE a.id IN :ids")
+    List<AutorComLivrosDTO> findResumosByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Página de ids já conhecidos (por um índice em memória) na ordem pedida, sem consulta de contagem
+    @Query("SELECT a.id FROM Autor a WHERE a.id IN :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids, Pageable pageable);
+
+    @Query(RESUMO + "FROM Autor a WHERE a.anoNascimento = :anoNascimento")
+    List<AutorComLivrosDTO> findByAnoNascimento(@Param("anoNascimento") Integer anoNascimento);
+
+    @Query(RESUMO + "FROM Autor a")
+    List<AutorComLivrosDTO> findAllResumos();
+
+    // Paginação em duas etapas: primeiro só os ids da página (sem JOIN FETCH de coleção),
+    // depois os autores com livros por id. Evita que o Hibernate pagine em memória.
+    // As listas de ids (e as contagens) ficam no cache de consultas até a tabela de autores mudar.
+    default Page<Long> findIdsPaginados(Pageable pageable) {
+        return findIdsOrdenados(ordenadoPorNome(pageable));
+    }
+
+    default Page<Long> findIdsAutoresVivosNoAno(int anoBusca, Pageable pageable) {
+        return findIdsAutoresVivosNoAnoOrdenados(anoBusca, ordenadoPorNome(pageable));
+    }
 
-    @Query("SELECT DISTINCT a FROM Autor a LEFT JOIN FETCH a.livros WHERE upper(a.nome) LIKE upper(concat('%', :nomeFiltro, '%'))")
-    List<Autor> findAllByNomeContainingIgnoreCase(@Param("nomeFiltro") String nomeFiltro);
+    /**
+     * Páginas por OFFSET precisam de ordem total, ou o banco pode repetir e pular autores entre elas
+     * (e o cache guardaria isso): sem ordenação informada vale (nome, id), a do keyset; o id sempre desempata.
+     */
+    static Pageable ordenadoPorNome(Pageable pageable) {
+        if (pageable.isUnpaged()) return pageable;
+        Sort ordem = pageable.getSort().isSorted() ? pageable.getSort().and(Sort.by("id")) : Sort.by("nome", "id");
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), ordem);
+    }
 
-    @Query(value = "SELECT DISTINCT a FROM Autor a LEFT JOIN FETCH a.livros WHERE a.anoNascimento <= :anoBusca AND (a.anoFalecimento IS NULL OR a.anoFalecimento >= :anoBusca)",
-            countQuery = "SELECT COUNT(DISTINCT a) FROM Autor a WHERE a.anoNascimento <= :anoBusca AND (a.anoFalecimento IS NULL OR a.anoFalecimento >= :anoBusca)")
-    Page<Autor> findAutoresVivosNoAno(@Param("anoBusca") int anoBusca, Pageable pageable);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(value = "SELECT a.id FROM Autor a", countQuery = "SELECT COUNT(a) FROM Autor a")
+    Page<Long> findIdsOrdenados(Pageable pageable);
 
-    @Query("SELECT DISTINCT a FROM Autor a LEFT JOIN FETCH a.livros WHERE a.anoNascimento <= :anoBusca AND (a.anoFalecimento IS NULL OR a.anoFalecimento >= :anoBusca)")
-    List<Autor> findAutoresVivosNoAno(@Param("anoBusca") int anoBusca);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(value = "SELECT a.id FROM Autor a WHERE a.anoNascimento <= :anoBusca AND (a.anoFalecimento IS NULL OR a.anoFalecimento >= :anoBusca)",
+            countQuery = "SELECT COUNT(a) FROM Autor a WHERE a.anoNascimento <= :anoBusca AND (a.anoFalecimento IS NULL OR a.anoFalecimento >= :anoBusca)")
+    Page<Long> findIdsAutoresVivosNoAnoOrdenados(@Param("anoBusca") int anoBusca, Pageable pageable);
 
-    List<Autor> findByAnoNascimento(Integer anoNascimento);
+    // Paginação por keyset em (nome, id)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("""
+            SELECT a.id FROM Autor a
+            WHERE (:nome IS NULL OR a.nome > :nome OR (a.nome = :nome AND a.id > :id))
+            ORDER BY a.nome, a.id
+            """)
+    List<Long> findIdsApos(@Param("nome") String nome, @Param("id") Long id, Pageable limite);
 
-    @Query(value = "SELECT DISTINCT a FROM Autor a LEFT JOIN FETCH a.livros",
-            countQuery = "SELECT COUNT(DISTINCT a) FROM Autor a")
-    Page<Autor> findAllComLivros(Pageable pageable);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("""
+            SELECT a.id FROM Autor a
+            WHERE a.anoNascimento <= :anoBusca AND (a.anoFalecimento IS NULL OR a.anoFalecimento >= :anoBusca)
+              AND (:nome IS NULL OR a.nome > :nome OR (a.nome = :nome AND a.id > :id))
+            ORDER BY a.nome, a.id
+            """)
+    List<Long> findIdsAutoresVivosNoAnoApos(@Param("anoBusca") int anoBusca, @Param("nome") String nome,
+                                            @Param("id") Long id, Pageable limite);
 
-    @Query("SELECT DISTINCT a FROM Autor a LEFT JOIN FETCH a.livros")
-    List<Autor> findAllComLivros();
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT COUNT(a) FROM Autor a WHERE a.anoNascimento <= :anoBusca AND (a.anoFalecimento IS NULL OR a.anoFalecimento >= :anoBusca)")
+    long countAutoresVivosNoAno(@Param("anoBusca") int anoBusca);
 
-    @Query(value = "SELECT a FROM Autor a WHERE lower(a.nome) LIKE lower(concat('%', :nome, '%'))",
+    @Query(value = RESUMO + "FROM Autor a WHERE lower(a.nome) LIKE lower(concat('%', :nome, '%'))",
             countQuery = "SELECT count(a) FROM Autor a WHERE lower(a.nome) LIKE lower(concat('%', :nome, '%'))")
-    Page<Autor> findByNomeContainingIgnoreCase(@Param("nome") String nome, Pageable pageable);
+    Page<AutorComLivrosDTO> findByNomeContainingIgnoreCase(@Param("nome") String nome, Pageable pageable);
 
 }
@@ -0,0 +1,9 @@
+package br.com.alura.literalura.repository;
+
+import br.com.alura.literalura.model.Checkpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CheckpointRepository extends JpaRepository<Checkpoint, String> {
+}
@@ -1,36 +1,185 @@
 package br.com.alura.literalura.repository;
 
+import br.com.alura.literalura.model.DTO.DownloadsLivroDTO;
+import br.com.alura.literalura.model.DTO.EstatisticasDTO;
+import br.com.alura.literalura.model.DTO.LivroResponseDTO;
+import br.com.alura.literalura.model.DTO.TextoIndexadoDTO;
 import br.com.alura.literalura.model.Livro;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
 public interface LivroRepository extends JpaRepository<Livro, Long> {
+
+    // Leituras devolvem projeções (livro + autor numa só linha), não entidades; os tópicos
+    // vêm à parte, por TopicoRepository.findNomesPorLivroIdIn
+    String RESUMO = """
+            SELECT new br.com.alura.literalura.model.DTO.LivroResponseDTO(
+                l.id, l.titulo, l.idioma, l.numeroDownloads, l.posterUrl, a.id, a.nome, a.anoNascimento, a.anoFalecimento)
+            """;
+
     Optional<Livro> findByTituloIgnoreCase(String titulo);
-    List<Livro> findAllByIdiomaContainingIgnoreCase(String idioma);
 
-    @EntityGraph(attributePaths = {"autor"})
-    List<Livro> findFirst10ByOrderByNumeroDownloadsDesc();
+    @Query("SELECT lower(l.titulo) FROM Livro l WHERE lower(l.titulo) IN :titulos")
+    List<String> findTitulosExistentes(@Param("titulos") Collection<String> titulos);
+
+
+    @Query(RESUMO + "FROM Livro l JOIN l.idiomas i LEFT JOIN l.autor a WHERE i = :idioma")
+    List<LivroResponseDTO> findAllByIdioma(@Param("idioma") String idioma);
+
+    @Query("SELECT COUNT(l) FROM Livro l JOIN l.idiomas i WHERE i = :idioma")
+    long countByIdioma(@Param("idioma") String idioma);
+
+    // Só a tabela de idiomas, resolvida pelo índice (idioma, livro_id)
+    @Query(value = "SELECT idioma, COUNT(*) FROM livro_idioma GROUP BY idioma ORDER BY COUNT(*) DESC, idioma",
+            nativeQuery = true)
+    List<Object[]> contarPorIdioma();
+
+    @Query("""
+            SELECT new br.com.alura.literalura.model.DTO.EstatisticasDTO(
+                COUNT(l), AVG(l.numeroDownloads), MAX(l.numeroDownloads), MIN(l.numeroDownloads), SUM(l.numeroDownloads))
+            FROM Livro l WHERE l.numeroDownloads > 0
+            """)
+    EstatisticasDTO calcularEstatisticasDownloads();
+
+    // Rankings de downloads: livros sem número de downloads ficam de fora e o id desempata
+    @Query(RESUMO + "FROM Livro l LEFT JOIN l.autor a WHERE l.numeroDownloads IS NOT NULL ORDER BY l.numeroDownloads DESC, l.id")
+    List<LivroResponseDTO> findMaisBaixados(Pageable limite);
+
+    @Query(RESUMO + """
+            FROM Livro l JOIN l.idiomas i LEFT JOIN l.autor a
+            WHERE i = :idioma AND l.numeroDownloads IS NOT NULL
+            ORDER BY l.numeroDownloads DESC, l.id
+            """)
+    List<LivroResponseDTO> findMaisBaixadosPorIdioma(@Param("idioma") String idioma, Pageable limite);
+
+    @Query(RESUMO + """
+            FROM Livro l JOIN l.topicos t LEFT JOIN l.autor a
+            WHERE t.id = :topicoId AND l.numeroDownloads IS NOT NULL
+            ORDER BY l.numeroDownloads DESC, l.id
+            """)
+    List<LivroResponseDTO> findMaisBaixadosPorTopico(@Param("topicoId") Long topicoId, Pageable limite);
+
+    // Os mesmos rankings só com (id, downloads), para o IndiceRankingDownloads
+    @Query("SELECT l.id, l.numeroDownloads FROM Livro l WHERE l.numeroDownloads IS NOT NULL ORDER BY l.numeroDownloads DESC, l.id")
+    List<Object[]> findRankingDownloads(Pageable limite);
+
+    @Query("""
+            SELECT l.id, l.numeroDownloads FROM Livro l JOIN l.idiomas i
+            WHERE i = :idioma AND l.numeroDownloads IS NOT NULL
+            ORDER BY l.numeroDownloads DESC, l.id
+            """)
+    List<Object[]> findRankingDownloadsPorIdioma(@Param("idioma") String idioma, Pageable limite);
+
+    @Query("""
+            SELECT l.id, l.numeroDownloads FROM Livro l JOIN l.topicos t
+            WHERE t.id = :topicoId AND l.numeroDownloads IS NOT NULL
+            ORDER BY l.numeroDownloads DESC, l.id
+            """)
+    List<Object[]> findRankingDownloadsPorTopico(@Param("topicoId") Long topicoId, Pageable limite);
+
+    // Os primeiros de cada idioma (e de cada tópico) numa consulta só: (chave, id, downloads)
+    @Query(value = """
+            SELECT idioma, livro_id, numero_downloads FROM (
+                SELECT li.idioma, l.id AS livro_id, l.numero_downloads,
+                       ROW_NUMBER() OVER (PARTITION BY li.idioma ORDER BY l.numero_downloads DESC, l.id) AS posicao
+                FROM livro_idioma li JOIN livros l ON l.id = li.livro_id
+                WHERE l.numero_downloads IS NOT NULL) r
+            WHERE posicao <= :limite
+            ORDER BY idioma, posicao
+            """, nativeQuery = true)
+    List<Object[]> findRankingsDownloadsPorIdioma(@Param("limite") int limite);
 
-    @Query(value = "SELECT l FROM Livro l JOIN FETCH l.autor",
+    @Query(value = """
+            SELECT topico_id, livro_id, numero_downloads FROM (
+                SELECT lt.topico_id, l.id AS livro_id, l.numero_downloads,
+                       ROW_NUMBER() OVER (PARTITION BY lt.topico_id ORDER BY l.numero_downloads DESC, l.id) AS posicao
+                FROM livro_topico lt JOIN livros l ON l.id = lt.livro_id
+                WHERE l.numero_downloads IS NOT NULL) r
+            WHERE posicao <= :limite
+            ORDER BY topico_id, posicao
+            """, nativeQuery = true)
+    List<Object[]> findRankingsDownloadsPorTopico(@Param("limite") int limite);
+
+    // Idiomas e tópicos de um bloco de livros: (livro_id, sigla) e (livro_id, topico_id)
+    @Query("SELECT l.id, i FROM Livro l JOIN l.idiomas i WHERE l.id IN :ids")
+    List<Object[]> findIdiomasPorLivroIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT l.id, t.id FROM Livro l JOIN l.topicos t WHERE l.id IN :ids")
+    List<Object[]> findTopicoIdsPorLivroIdIn(@Param("ids") Collection<Long> ids);
+
+    /** Siglas dos idiomas de cada livro do bloco; livro sem idioma fica de fora do mapa. */
+    default Map<Long, List<String>> idiomasPorLivro(Collection<Long> ids) {
+        Map<Long, List<String>> idiomas = new HashMap<>();
+        for (Object[] linha : findIdiomasPorLivroIdIn(ids)) {
+            idiomas.computeIfAbsent((Long) linha[0], id -> new ArrayList<>()).add((String) linha[1]);
+        }
+        return idiomas;
+    }
+
+    /** Ids dos tópicos de cada livro do bloco; livro sem tópico fica de fora do mapa. */
+    default Map<Long, List<Long>> topicosPorLivro(Collection<Long> ids) {
+        Map<Long, List<Long>> topicos = new HashMap<>();
+        for (Object[] linha : findTopicoIdsPorLivroIdIn(ids)) {
+            topicos.computeIfAbsent((Long) linha[0], id -> new ArrayList<>()).add((Long) linha[1]);
+        }
+        return topicos;
+    }
+
+    @Query(value = RESUMO + "FROM Livro l JOIN l.autor a",
             countQuery = "SELECT COUNT(l) FROM Livro l")
-    Page<Livro> findAllComAutores(Pageable pageable);
+    Page<LivroResponseDTO> findAllComAutores(Pageable pageable);
+
+    @Query(RESUMO + "FROM Livro l JOIN l.autor a")
+    List<LivroResponseDTO> findAllComAutores();
+
+    // Paginação por keyset em (titulo, id): o limite vem do Pageable, sem OFFSET nem COUNT
+    @Query(RESUMO + "FROM Livro l JOIN l.autor a ORDER BY l.titulo, l.id")
+    List<LivroResponseDTO> findPrimeirosComAutores(Pageable limite);
+
+    @Query(RESUMO + """
+            FROM Livro l JOIN l.autor a
+            WHERE l.titulo > :titulo OR (l.titulo = :titulo AND l.id > :id)
+            ORDER BY l.titulo, l.id
+            """)
+    List<LivroResponseDTO> findComAutoresApos(@Param("titulo") String titulo, @Param("id") Long id, Pageable limite);
+
+    @Query("SELECT COUNT(l) FROM Livro l JOIN l.autor")
+    long countComAutores();
+
+    @Query(RESUMO + "FROM Livro l LEFT JOIN l.autor a WHERE l.id IN :ids")
+    List<LivroResponseDTO> findAllComAutorByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(RESUMO + "FROM Livro l LEFT JOIN l.autor a WHERE upper(l.titulo) LIKE upper(concat('%', :titulo, '%'))")
+    List<LivroResponseDTO> findAllByTituloContainingIgnoreCase(@Param("titulo") String titulo);
+
+    @Query("SELECT new br.com.alura.literalura.model.DTO.TextoIndexadoDTO(l.id, l.titulo) FROM Livro l")
+    List<TextoIndexadoDTO> findTitulosDosLivros();
+
+    /** Próximos livros com id no Gutendex depois do id informado, na ordem do id (paginação por cursor). */
+    @Query("SELECT new br.com.alura.literalura.model.DTO.DownloadsLivroDTO(l.id, l.idApi, l.numeroDownloads) " +
+            "FROM Livro l WHERE l.id > :apos AND l.idApi IS NOT NULL ORDER BY l.id")
+    List<DownloadsLivroDTO> findDownloadsApos(@Param("apos") Long apos, Pageable limite);
 
-    @Query("SELECT l FROM Livro l JOIN FETCH l.autor")
-    List<Livro> findAllComAutores();
+    @Query(RESUMO + "FROM Livro l JOIN l.autor a WHERE l.id = :id")
+    Optional<LivroResponseDTO> findByIdComAutor(@Param("id") Long id);
 
-    @Query("SELECT l FROM Livro l JOIN FETCH l.autor WHERE l.id = :id")
-    Optional<Livro> findByIdComAutor(@Param("id") Long id);
+    @Query(value = RESUMO + "FROM Livro l JOIN l.idiomas i JOIN l.autor a WHERE i = :idioma",
+            countQuery = "SELECT COUNT(l) FROM Livro l JOIN l.idiomas i WHERE i = :idioma")
+    Page<LivroResponseDTO> findByIdioma(@Param("idioma") String idioma, Pageable pageable);
 
-    @Query(value = "SELECT l FROM Livro l JOIN FETCH l.autor WHERE l.idioma LIKE %:idioma%",
-            countQuery = "SELECT COUNT(l) FROM Livro l WHERE l.idioma LIKE %:idioma%")
-    Page<Livro> findByIdiomaContainingIgnoreCase(@Param("idioma") String idioma, Pageable pageable);
+    // Pares (autor_id, título) de um bloco de autores, sem carregar as entidades
+    @Query("SELECT l.autor.id, l.titulo FROM Livro l WHERE l.autor.id IN :autorIds ORDER BY l.autor.id, l.id")
+    List<Object[]> findTitulosPorAutorIdIn(@Param("autorIds") Collection<Long> autorIds);
 }
@@ -2,9 +2,41 @@ package br.com.alura.literalura.repository;
 
 import br.com.alura.literalura.model.Topico;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface TopicoRepository extends JpaRepository<Topico, Long> {
     Optional<Topico> findByNomeIgnoreCase(String nome);
+
+    @Query("SELECT t FROM Topico t WHERE lower(t.nome) IN :chaves ORDER BY t.id")
+    List<Topico> findByNomeNormalizadoIn(@Param("chaves") Collection<String> chaves);
+
+    // Sem declarar o que muda, o Hibernate esvaziaria todas as regiões do cache de segundo nível.
+    // O Hibernate chega à coleção Livro.topicos em cache pela entidade dos elementos (tabela
+    // "topicos"); declarar só "livro_topico" não invalidaria nada.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "topicos"))
+    @Modifying
+    @Query(value = "DELETE FROM livro_topico WHERE livro_id = :livroId AND topico_id = :topicoId", nativeQuery = true)
+    int desvincularDoLivro(@Param("livroId") Long livroId, @Param("topicoId") Long topicoId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "topicos"))
+    @Modifying
+    @Query(value = """
+            INSERT INTO livro_topico (livro_id, topico_id)
+            SELECT :livroId, :topicoId
+            WHERE NOT EXISTS (SELECT 1 FROM livro_topico WHERE livro_id = :livroId AND topico_id = :topicoId)
+            """, nativeQuery = true)
+    int vincularAoLivro(@Param("livroId") Long livroId, @Param("topicoId") Long topicoId);
+
+    // Pares (livro_id, nome do tópico) de um bloco de livros, sem carregar as entidades
+    @Query("SELECT l.id, t.nome FROM Livro l JOIN l.topicos t WHERE l.id IN :livroIds ORDER BY l.id, t.nome")
+    List<Object[]> findNomesPorLivroIdIn(@Param("livroIds") Collection<Long> livroIds);
 }
@@ -0,0 +1,37 @@
+package br.com.alura.literalura.repository;
+
+import br.com.alura.literalura.model.TraducaoPendente;
+import br.com.alura.literalura.model.TraducaoPendente.Situacao;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TraducaoPendenteRepository extends JpaRepository<TraducaoPendente, Long> {
+
+    @Query("SELECT p FROM TraducaoPendente p WHERE p.situacao = 'PENDENTE' AND p.proximaTentativa <= :agora ORDER BY p.id")
+    List<TraducaoPendente> findProntasParaProcessar(@Param("agora") LocalDateTime agora, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE TraducaoPendente p SET p.situacao = :situacao WHERE p.id IN :ids")
+    int atualizarSituacao(@Param("ids") Collection<Long> ids, @Param("situacao") Situacao situacao);
+
+    @Modifying
+    @Query("UPDATE TraducaoPendente p SET p.situacao = 'PENDENTE' WHERE p.situacao = 'EM_PROCESSAMENTO'")
+    int liberarEmProcessamento();
+
+    long countBySituacao(Situacao situacao);
+
+    @Query("SELECT MIN(p.criadoEm) FROM TraducaoPendente p")
+    LocalDateTime findCriacaoMaisAntiga();
+
+    @Query("SELECT MIN(p.criadoEm) FROM TraducaoPendente p WHERE p.situacao = :situacao")
+    LocalDateTime findCriacaoMaisAntigaBySituacao(@Param("situacao") Situacao situacao);
+}
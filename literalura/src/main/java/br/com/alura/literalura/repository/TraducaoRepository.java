@@ -0,0 +1,18 @@
+package br.com.alura.literalura.repository;
+
+import br.com.alura.literalura.model.Traducao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TraducaoRepository extends JpaRepository<Traducao, Long> {
+
+    // Procura pelo hash, coberto pelo índice único; o texto confirma que não é só o mesmo hash
+    default Optional<Traducao> findByTextoAndIdioma(String texto, String idioma) {
+        return findByHashTextoAndIdiomaAndTexto(Traducao.hashDoTexto(texto), idioma, texto);
+    }
+
+    Optional<Traducao> findByHashTextoAndIdiomaAndTexto(String hashTexto, String idioma, String texto);
+}
@@ -0,0 +1,279 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.model.Checkpoint;
+import br.com.alura.literalura.model.DTO.DadosLivro;
+import br.com.alura.literalura.model.DTO.DadosRespostaApi;
+import br.com.alura.literalura.model.DTO.DownloadsLivroDTO;
+import br.com.alura.literalura.model.DTO.RelatorioAtualizacaoDownloads;
+import br.com.alura.literalura.repository.CheckpointRepository;
+import br.com.alura.literalura.repository.LivroRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Atualiza periodicamente o número de downloads dos livros, que de outra forma fica congelado no valor
+ * da primeira gravação. Percorre os livros pelo id em rodadas: cada rodada consulta o Gutendex em blocos
+ * de ids ({@code ?ids=1,2,3}), com um limite de requisições simultâneas, e grava numa transação só os
+ * valores que mudaram (UPDATE em lote) junto com o checkpoint do último livro consultado. Se a aplicação
+ * parar no meio, a próxima execução continua dali. As consultas não passam pelo cache HTTP: um bloco que
+ * a API não responder encerra a execução sem que o checkpoint passe dele.
+ */
+@Service
+public class AtualizacaoDownloadsService implements SmartLifecycle {
+
+    static final String CHECKPOINT_ATUALIZACAO = "atualizacao-downloads";
+
+    private final LivroRepository livroRepository;
+    private final CheckpointRepository checkpointRepository;
+    private final ConsumoApi consumoApi;
+    private final IConverteDados conversor;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventos;
+    private final DistributionSummary alteradosPorExecucao;
+
+    @Value("${literalura.downloads.url:https://gutendex.com/books/?ids=}")
+    private String enderecoBase;
+
+    // Uma página de resultados do Gutendex tem 32 livros: blocos maiores exigiriam mais requisições
+    @Value("${literalura.downloads.ids-por-requisicao:32}")
+    private int idsPorRequisicao;
+
+    @Value("${literalura.downloads.max-em-voo:4}")
+    private int maxEmVoo;
+
+    @Value("${literalura.downloads.agendada:true}")
+    private boolean agendada;
+
+    @Value("${literalura.downloads.atraso-inicial:10m}")
+    private Duration atrasoInicial;
+
+    @Value("${literalura.downloads.intervalo:24h}")
+    private Duration intervalo;
+
+    private final AtomicBoolean emExecucao = new AtomicBoolean();
+    private ScheduledExecutorService agendador;
+    private volatile boolean rodando;
+
+    public AtualizacaoDownloadsService(LivroRepository livroRepository,
+                                       CheckpointRepository checkpointRepository,
+                                       ConsumoApi consumoApi,
+                                       IConverteDados conversor,
+                                       JdbcTemplate jdbcTemplate,
+                                       TransactionTemplate transactionTemplate,
+                                       ApplicationEventPublisher eventos,
+                                       MeterRegistry metricas) {
+        this.livroRepository = livroRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.consumoApi = consumoApi;
+        this.conversor = conversor;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventos = eventos;
+        this.alteradosPorExecucao = DistributionSummary.builder("literalura.downloads.atualizacao.alterados")
+                .description("Livros com o número de downloads alterado, por execução da atualização")
+                .baseUnit("livros")
+                .register(metricas);
+    }
+
+    /**
+     * Executa a atualização, retomando do checkpoint se a anterior não terminou. Vazio se já houver
+     * uma execução em andamento. Uma falha na API encerra a execução no último bloco atualizado.
+     */
+    public Optional<RelatorioAtualizacaoDownloads> atualizar() {
+        if (!emExecucao.compareAndSet(false, true)) {
+            System.out.println("INFO: Atualização de downloads já em andamento.");
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(percorrerCatalogo());
+        } finally {
+            emExecucao.set(false);
+        }
+    }
+
+    private RelatorioAtualizacaoDownloads percorrerCatalogo() {
+        long inicio = System.nanoTime();
+        Checkpoint checkpoint = checkpointRepository.findById(CHECKPOINT_ATUALIZACAO)
+                .orElseGet(() -> new Checkpoint(CHECKPOINT_ATUALIZACAO));
+        long apos = checkpoint.getValor() != null ? Long.parseLong(checkpoint.getValor()) : 0L;
+        if (apos > 0) System.out.println("INFO: Retomando a atualização de downloads após o livro " + apos + ".");
+
+        int consultados = 0;
+        int alterados = 0;
+        AtomicInteger requisicoes = new AtomicInteger();
+        boolean concluida = false;
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, maxEmVoo), novaThread());
+        try {
+            while (true) {
+                List<DownloadsLivroDTO> rodada = livroRepository.findDownloadsApos(apos,
+                        PageRequest.ofSize(idsPorRequisicao * Math.max(1, maxEmVoo)));
+                if (rodada.isEmpty()) {
+                    concluida = true;
+                    break;
+                }
+
+                List<List<DownloadsLivroDTO>> blocos = new ArrayList<>();
+                List<Future<Map<Integer, Integer>>> consultas = new ArrayList<>();
+                for (int i = 0; i < rodada.size(); i += idsPorRequisicao) {
+                    List<DownloadsLivroDTO> bloco = rodada.subList(i, Math.min(i + idsPorRequisicao, rodada.size()));
+                    blocos.add(bloco);
+                    consultas.add(executor.submit(() -> buscarDownloads(bloco, requisicoes)));
+                }
+
+                // Aplica os blocos em ordem até o primeiro que falhar: o checkpoint nunca passa de um bloco não consultado
+                List<Object[]> alteracoes = new ArrayList<>();
+                Long ultimoConsultado = null;
+                boolean falhou = false;
+                for (int i = 0; i < blocos.size(); i++) {
+                    Map<Integer, Integer> downloads;
+                    try {
+                        downloads = consultas.get(i).get();
+                    } catch (ExecutionException e) {
+                        System.err.println("Erro ao consultar downloads no Gutendex: " + e.getCause().getMessage());
+                        falhou = true;
+                        break;
+                    }
+                    for (DownloadsLivroDTO livro : blocos.get(i)) {
+                        Integer atual = downloads.get(livro.idApi());
+                        if (atual != null && !atual.equals(livro.numeroDownloads())) {
+                            alteracoes.add(new Object[]{atual, livro.id(), atual});
+                        }
+                    }
+                    consultados += blocos.get(i).size();
+                    ultimoConsultado = blocos.get(i).get(blocos.get(i).size() - 1).id();
+                }
+
+                if (ultimoConsultado != null) {
+                    alterados += gravar(alteracoes, checkpoint, ultimoConsultado);
+                    apos = ultimoConsultado;
+                }
+                if (falhou) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("AVISO: Atualização de downloads interrompida; continua do checkpoint na próxima execução.");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (concluida) {
+            // Catálogo percorrido até o fim: a próxima execução recomeça do primeiro livro
+            checkpointRepository.deleteById(CHECKPOINT_ATUALIZACAO);
+        }
+        alteradosPorExecucao.record(alterados);
+        return new RelatorioAtualizacaoDownloads(consultados, alterados, requisicoes.get(),
+                Duration.ofNanos(System.nanoTime() - inicio), concluida);
+    }
+
+    /** Downloads atuais (id no Gutendex -> downloads) dos livros do bloco, seguindo as páginas da resposta. */
+    private Map<Integer, Integer> buscarDownloads(List<DownloadsLivroDTO> bloco, AtomicInteger requisicoes) {
+        String ids = bloco.stream().map(livro -> livro.idApi().toString()).distinct().collect(Collectors.joining(","));
+        Map<Integer, Integer> downloads = new HashMap<>();
+        String url = enderecoBase + ids;
+        while (url != null) {
+            // Sem cache HTTP: cada lista de ids só é pedida uma vez, e uma cópia antiga esconderia a falha
+            DadosRespostaApi resposta = consumoApi.obterDadosSemCache(url,
+                    corpo -> conversor.obterDados(corpo, DadosRespostaApi.class));
+            requisicoes.incrementAndGet();
+            if (resposta == null || resposta.livros() == null) {
+                throw new IllegalStateException("Sem resposta da API para os ids " + ids);
+            }
+            for (DadosLivro livro : resposta.livros()) {
+                if (livro.idApi() != null && livro.numeroDownloads() != null) {
+                    downloads.put(livro.idApi(), livro.numeroDownloads());
+                }
+            }
+            url = resposta.proximaPagina();
+        }
+        return downloads;
+    }
+
+    /** Grava os downloads alterados e o checkpoint numa transação; devolve as linhas alteradas. */
+    private int gravar(List<Object[]> alteracoes, Checkpoint checkpoint, long ultimoConsultado) {
+        return transactionTemplate.execute(status -> {
+            int linhas = 0;
+            if (!alteracoes.isEmpty()) {
+                // A condição repete o valor novo: linha já atualizada por outro caminho não conta como alterada
+                int[] resultados = jdbcTemplate.batchUpdate(
+                        "UPDATE livros SET numero_downloads = ? WHERE id = ? AND numero_downloads IS DISTINCT FROM ?",
+                        alteracoes);
+                for (int resultado : resultados) {
+                    linhas += resultado == Statement.SUCCESS_NO_INFO ? 1 : Math.max(resultado, 0);
+                }
+                // O ranking de downloads recebe os valores novos só após o commit
+                Map<Long, Integer> downloadsPorLivro = new HashMap<>();
+                alteracoes.forEach(alteracao -> downloadsPorLivro.put((Long) alteracao[1], (Integer) alteracao[0]));
+                eventos.publishEvent(new DownloadsAlteradosEvento(downloadsPorLivro,
+                        livroRepository.idiomasPorLivro(downloadsPorLivro.keySet()),
+                        livroRepository.topicosPorLivro(downloadsPorLivro.keySet())));
+            }
+            checkpoint.setValor(String.valueOf(ultimoConsultado));
+            checkpoint.setProcessados(checkpoint.getProcessados() + linhas);
+            checkpoint.setAtualizadoEm(LocalDateTime.now());
+            checkpointRepository.saveAndFlush(checkpoint);
+            return linhas;
+        });
+    }
+
+    @Override
+    public void start() {
+        rodando = true;
+        if (!agendada) return;
+        agendador = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "atualizacao-downloads-agendador");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(this::executarAgendada,
+                atrasoInicial.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        rodando = false;
+        if (agendador != null) agendador.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return rodando;
+    }
+
+    private void executarAgendada() {
+        try {
+            atualizar().ifPresent(relatorio -> System.out.printf(
+                    "INFO: Downloads atualizados: %d livros consultados, %d alterados, %d requisições em %d s%s.%n",
+                    relatorio.livrosConsultados(), relatorio.livrosAlterados(), relatorio.requisicoes(),
+                    relatorio.duracao().toSeconds(), relatorio.concluida() ? "" : " (interrompida)"));
+        } catch (Exception e) {
+            System.err.println("Erro na atualização agendada de downloads: " + e.getMessage());
+        }
+    }
+
+    private static ThreadFactory novaThread() {
+        AtomicInteger contador = new AtomicInteger();
+        return tarefa -> {
+            Thread thread = new Thread(tarefa, "atualizacao-downloads-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.alura.literalura.service;
+
+/** Publicado quando um autor novo é gravado; os índices em memória o recebem após o commit. */
+public record AutorCadastradoEvento(
+        Long id,
+        String nome,
+        Integer anoNascimento,
+        Integer anoFalecimento) {
+}
@@ -0,0 +1,315 @@
+package br.com.alura.literalura.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Cache em disco das respostas das APIs (por padrão só o Gutendex). Cada resposta fica em dois
+ * arquivos, o corpo e os metadados ({@code ETag}/{@code Last-Modified}), nomeados pelo SHA-256
+ * da URL normalizada. O {@link ConsumoApi} revalida as entradas com requisições condicionais
+ * e usa a cópia local quando a API está fora do ar. Ao passar do tamanho máximo, as entradas
+ * menos usadas recentemente são removidas.
+ */
+@Component
+public class CacheRespostasHttp {
+
+    private static final String EXTENSAO_CORPO = ".corpo";
+    private static final String EXTENSAO_META = ".meta";
+    private static final String EXTENSAO_TEMPORARIA = ".tmp";
+
+    /** Metadados de uma resposta guardada. */
+    public record Entrada(String chave, String etag, String ultimaModificacao, long tamanho) {}
+
+    private final Path diretorio;
+    private final long tamanhoMaximo;
+    private final Set<String> hosts;
+
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final Map<String, Long> ultimoAcesso = new ConcurrentHashMap<>();
+    // Entradas de uma execução anterior ainda não usadas nesta, com a data do arquivo do corpo:
+    // são as primeiras a sair, das mais antigas para as mais novas
+    private final Map<String, Long> herdadas = new ConcurrentHashMap<>();
+    private final AtomicLong bytesEmDisco = new AtomicLong();
+    private final AtomicLong relogioAcessos = new AtomicLong();
+
+    private final Counter revalidadas;
+    private final Counter obsoletas;
+    private final Counter faltas;
+
+    public CacheRespostasHttp(@Value("${literalura.http.cache.diretorio:${java.io.tmpdir}/literalura/cache-http}") Path diretorio,
+                              @Value("${literalura.http.cache.tamanho-maximo:50MB}") DataSize tamanhoMaximo,
+                              @Value("${literalura.http.cache.hosts:gutendex.com}") List<String> hosts,
+                              MeterRegistry metricas) {
+        this.diretorio = diretorio;
+        this.tamanhoMaximo = tamanhoMaximo.toBytes();
+        this.hosts = hosts.stream().map(host -> host.trim().toLowerCase(Locale.ROOT))
+                .filter(host -> !host.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+
+        this.revalidadas = contador(metricas, "revalidada");
+        this.obsoletas = contador(metricas, "obsoleta");
+        this.faltas = contador(metricas, "falta");
+        Gauge.builder("literalura.http.cache.taxa.acertos", this, CacheRespostasHttp::taxaDeAcertos)
+                .description("Fração das requisições atendidas pelo cache em disco")
+                .register(metricas);
+
+        carregarIndice();
+    }
+
+    private static Counter contador(MeterRegistry metricas, String resultado) {
+        return Counter.builder("literalura.http.cache")
+                .description("Consultas ao cache de respostas HTTP, por resultado")
+                .tag("resultado", resultado)
+                .register(metricas);
+    }
+
+    /** Se as respostas deste endereço devem passar pelo cache. */
+    public boolean aceita(URI uri) {
+        return uri.getHost() != null && hosts.contains(uri.getHost().toLowerCase(Locale.ROOT));
+    }
+
+    public Optional<Entrada> buscar(URI uri) {
+        String chave = chave(uri);
+        Entrada entrada = entradas.get(chave);
+        if (entrada == null) return Optional.empty();
+        registrarAcesso(chave);
+        return Optional.of(entrada);
+    }
+
+    /**
+     * Abre o corpo guardado para leitura. Lança {@link NoSuchFileException} se a entrada foi
+     * removida (por exemplo, para liberar espaço) depois de {@link #buscar}; quem chama deve
+     * tratar como falta.
+     */
+    public InputStream abrir(Entrada entrada) throws IOException {
+        try {
+            return Files.newInputStream(arquivoCorpo(entrada.chave()));
+        } catch (NoSuchFileException e) {
+            descartar(entrada);
+            throw e;
+        }
+    }
+
+    /**
+     * Grava o corpo recebido (já descompactado) e os metadados da resposta, substituindo a
+     * entrada anterior. O corpo vai direto do stream para o disco.
+     */
+    public Entrada gravar(URI uri, InputStream corpo, String etag, String ultimaModificacao) throws IOException {
+        Files.createDirectories(diretorio);
+        String chave = chave(uri);
+
+        Path temporario = Files.createTempFile(diretorio, chave, EXTENSAO_TEMPORARIA);
+        try {
+            long tamanho = Files.copy(corpo, temporario, StandardCopyOption.REPLACE_EXISTING);
+            Entrada entrada = new Entrada(chave, etag, ultimaModificacao, tamanho);
+            Files.move(temporario, arquivoCorpo(chave), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            gravarMetadados(uri, entrada);
+
+            Entrada anterior = entradas.put(chave, entrada);
+            bytesEmDisco.addAndGet(tamanho - (anterior != null ? anterior.tamanho() : 0));
+            registrarAcesso(chave);
+            liberarEspaco(chave);
+            return entrada;
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    /** Atualiza os validadores de uma entrada que o servidor confirmou (304) com novos cabeçalhos. */
+    public Entrada atualizarValidadores(URI uri, Entrada entrada, String etag, String ultimaModificacao) throws IOException {
+        if (Objects.equals(etag, entrada.etag()) && Objects.equals(ultimaModificacao, entrada.ultimaModificacao())) {
+            return entrada;
+        }
+        Entrada atualizada = new Entrada(entrada.chave(), etag != null ? etag : entrada.etag(),
+                ultimaModificacao != null ? ultimaModificacao : entrada.ultimaModificacao(), entrada.tamanho());
+        gravarMetadados(uri, atualizada);
+        entradas.replace(entrada.chave(), entrada, atualizada);
+        return atualizada;
+    }
+
+    public void registrarRevalidacao() {
+        revalidadas.increment();
+    }
+
+    public void registrarUsoObsoleto() {
+        obsoletas.increment();
+    }
+
+    public void registrarFalta() {
+        faltas.increment();
+    }
+
+    public double taxaDeAcertos() {
+        double acertos = revalidadas.count() + obsoletas.count();
+        double total = acertos + faltas.count();
+        return total == 0 ? 0 : acertos / total;
+    }
+
+    public long bytesEmDisco() {
+        return bytesEmDisco.get();
+    }
+
+    /**
+     * URL canônica: esquema e host em minúsculas, sem porta padrão nem fragmento, caminho
+     * vazio como "/" e parâmetros em ordem alfabética.
+     */
+    static String normalizar(URI uri) {
+        String esquema = uri.getScheme() == null ? "http" : uri.getScheme().toLowerCase(Locale.ROOT);
+        String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase(Locale.ROOT);
+        int porta = uri.getPort();
+        boolean portaPadrao = porta == -1 || (esquema.equals("http") && porta == 80) || (esquema.equals("https") && porta == 443);
+        String caminho = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+
+        StringBuilder url = new StringBuilder(esquema).append("://").append(host);
+        if (!portaPadrao) url.append(':').append(porta);
+        url.append(caminho);
+        if (uri.getRawQuery() != null && !uri.getRawQuery().isEmpty()) {
+            String[] parametros = uri.getRawQuery().split("&");
+            Arrays.sort(parametros);
+            url.append('?').append(String.join("&", parametros));
+        }
+        return url.toString();
+    }
+
+    static String chave(URI uri) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(normalizar(uri).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void registrarAcesso(String chave) {
+        ultimoAcesso.put(chave, relogioAcessos.incrementAndGet());
+        herdadas.remove(chave);
+    }
+
+    private Path arquivoCorpo(String chave) {
+        return diretorio.resolve(chave + EXTENSAO_CORPO);
+    }
+
+    private Path arquivoMeta(String chave) {
+        return diretorio.resolve(chave + EXTENSAO_META);
+    }
+
+    private void gravarMetadados(URI uri, Entrada entrada) throws IOException {
+        Properties meta = new Properties();
+        meta.setProperty("url", normalizar(uri));
+        meta.setProperty("tamanho", Long.toString(entrada.tamanho()));
+        if (entrada.etag() != null) meta.setProperty("etag", entrada.etag());
+        if (entrada.ultimaModificacao() != null) meta.setProperty("ultimaModificacao", entrada.ultimaModificacao());
+
+        Path temporario = Files.createTempFile(diretorio, entrada.chave(), EXTENSAO_TEMPORARIA);
+        try (Writer saida = Files.newBufferedWriter(temporario, StandardCharsets.UTF_8)) {
+            meta.store(saida, null);
+        }
+        Files.move(temporario, arquivoMeta(entrada.chave()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Remove as entradas acessadas há mais tempo até o cache voltar ao tamanho máximo. */
+    private synchronized void liberarEspaco(String preservar) {
+        if (bytesEmDisco.get() <= tamanhoMaximo) return;
+
+        // Ordem fixada antes de remover: as herdadas pela data do arquivo, depois as demais pelo último acesso
+        record Ordem(String chave, boolean herdada, long momento) {}
+        List<Ordem> porAcesso = new ArrayList<>();
+        for (String chave : entradas.keySet()) {
+            Long modificacao = herdadas.get(chave);
+            porAcesso.add(modificacao != null
+                    ? new Ordem(chave, true, modificacao)
+                    : new Ordem(chave, false, ultimoAcesso.getOrDefault(chave, 0L)));
+        }
+        porAcesso.sort(Comparator.comparing((Ordem ordem) -> !ordem.herdada()).thenComparingLong(Ordem::momento));
+        for (Ordem ordem : porAcesso) {
+            String chave = ordem.chave();
+            if (bytesEmDisco.get() <= tamanhoMaximo) break;
+            if (chave.equals(preservar)) continue;
+            remover(chave);
+        }
+    }
+
+    private void remover(String chave) {
+        Entrada removida = entradas.remove(chave);
+        ultimoAcesso.remove(chave);
+        herdadas.remove(chave);
+        if (removida == null) return;
+        bytesEmDisco.addAndGet(-removida.tamanho());
+        try {
+            Files.deleteIfExists(arquivoMeta(chave));
+            Files.deleteIfExists(arquivoCorpo(chave));
+        } catch (IOException e) {
+            System.err.println("Erro ao remover entrada do cache HTTP " + chave + ": " + e.getMessage());
+        }
+    }
+
+    /** Tira do índice uma entrada cujo corpo sumiu do disco, se ela ainda não foi substituída. */
+    private void descartar(Entrada entrada) {
+        if (entradas.remove(entrada.chave(), entrada)) {
+            ultimoAcesso.remove(entrada.chave());
+            herdadas.remove(entrada.chave());
+            bytesEmDisco.addAndGet(-entrada.tamanho());
+        }
+    }
+
+    /** Reconstrói o índice a partir dos arquivos de uma execução anterior. */
+    private void carregarIndice() {
+        if (!Files.isDirectory(diretorio)) return;
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            arquivos.forEach(arquivo -> {
+                String nome = arquivo.getFileName().toString();
+                try {
+                    if (nome.endsWith(EXTENSAO_TEMPORARIA)) {
+                        Files.deleteIfExists(arquivo);
+                    } else if (nome.endsWith(EXTENSAO_META)) {
+                        carregarEntrada(nome.substring(0, nome.length() - EXTENSAO_META.length()), arquivo);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Entrada do cache HTTP ignorada (" + nome + "): " + e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível ler o cache HTTP em " + diretorio, e);
+        }
+        System.out.printf("INFO: Cache HTTP com %d respostas (%d KB) em %s%n",
+                entradas.size(), bytesEmDisco.get() / 1024, diretorio);
+        liberarEspaco(null);
+    }
+
+    private void carregarEntrada(String chave, Path arquivoMeta) throws IOException {
+        Path corpo = arquivoCorpo(chave);
+        if (!Files.exists(corpo)) {
+            Files.deleteIfExists(arquivoMeta);
+            return;
+        }
+        Properties meta = new Properties();
+        try (Reader leitor = Files.newBufferedReader(arquivoMeta, StandardCharsets.UTF_8)) {
+            meta.load(leitor);
+        }
+        long tamanho = Files.size(corpo);
+        entradas.put(chave, new Entrada(chave, meta.getProperty("etag"), meta.getProperty("ultimaModificacao"), tamanho));
+        // Sem registro de acessos anteriores: a data do arquivo serve de aproximação
+        herdadas.put(chave, Files.getLastModifiedTime(corpo).toMillis());
+        bytesEmDisco.addAndGet(tamanho);
+    }
+}
@@ -1,19 +1,36 @@
 package br.com.alura.literalura.service;
 
 import br.com.alura.literalura.model.Autor;
-import br.com.alura.literalura.model.DTO.DadosAutor;
+import br.com.alura.literalura.model.DTO.AutorComLivrosDTO;
+import br.com.alura.literalura.model.DTO.ContagemIdiomaDTO;
+import br.com.alura.literalura.model.DTO.CursorPaginatedResponseDTO;
 import br.com.alura.literalura.model.DTO.DadosLivro;
 import br.com.alura.literalura.model.DTO.DadosRespostaApi;
 import br.com.alura.literalura.model.DTO.EstatisticasDTO;
+import br.com.alura.literalura.model.DTO.LivroResponseDTO;
+import br.com.alura.literalura.model.DTO.TextoIndexadoDTO;
 import br.com.alura.literalura.model.Livro;
 import br.com.alura.literalura.model.Topico;
 import br.com.alura.literalura.repository.AutorRepository;
 import br.com.alura.literalura.repository.LivroRepository;
 import br.com.alura.literalura.repository.TopicoRepository;
-import br.com.alura.literalura.service.consultaMemory.ConsultaMemory;
+import br.com.alura.literalura.service.indice.IndiceBuscaTextual;
+import br.com.alura.literalura.service.indice.IndiceRankingDownloads;
+import br.com.alura.literalura.service.indice.IndiceTitulos;
+import br.com.alura.literalura.service.indice.IndiceTrigramas;
+import br.com.alura.literalura.service.indice.IndiceVidaAutores;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.hibernate.Hibernate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
@@ -21,7 +38,12 @@ import org.springframework.data.domain.Pageable;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class CatalogoService {
@@ -30,9 +52,26 @@ public class CatalogoService {
     private final LivroRepository livroRepository;
     private final AutorRepository autorRepository;
     private final TopicoRepository topicoRepository;
+    private final ResolvedorTopicos resolvedorTopicos;
+    private final ResolvedorAutores resolvedorAutores;
     private final ConsumoApi consumoApi;
     private final IConverteDados conversor;
-    private final ConsultaMemory consultaMemory;
+    private final FilaTraducaoTopicos filaTraducao;
+    private final IndiceVidaAutores indiceVidaAutores;
+    private final IndiceBuscaTextual indiceBuscaTextual;
+    private final IndiceTitulos indiceTitulos;
+    private final IndiceRankingDownloads indiceRanking;
+    private final ApplicationEventPublisher eventos;
+    private final TransactionTemplate transacaoPropria;
+    private final ChamadasEmVoo<String, Optional<DadosLivro>> buscasEmVoo;
+    private final Counter buscasNoCatalogo;
+    private final Counter buscasNaApi;
+
+    // Quantas vezes refazer a gravação de um livro que perdeu a corrida pela chave única
+    private static final int TENTATIVAS_EM_CONFLITO = 3;
+
+    // Maior lista de ids passada num único IN
+    private static final int IDS_POR_CONSULTA = 1000;
 
     // Endereço base da API pública do Projeto Gutenberg (com valor default)
     @Value("${literalura.api.baseurl:https://gutendex.com/books/?search=}")
@@ -42,237 +81,613 @@ public class CatalogoService {
     public CatalogoService(LivroRepository livroRepository,
                            AutorRepository autorRepository,
                            TopicoRepository topicoRepository,
+                           ResolvedorTopicos resolvedorTopicos,
+                           ResolvedorAutores resolvedorAutores,
                            ConsumoApi consumoApi,
                            IConverteDados conversor,
-                           ConsultaMemory consultaMemory) {
+                           FilaTraducaoTopicos filaTraducao,
+                           IndiceVidaAutores indiceVidaAutores,
+                           IndiceBuscaTextual indiceBuscaTextual,
+                           IndiceTitulos indiceTitulos,
+                           IndiceRankingDownloads indiceRanking,
+                           ApplicationEventPublisher eventos,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry metricas) {
         this.livroRepository = livroRepository;
         this.autorRepository = autorRepository;
         this.topicoRepository = topicoRepository;
+        this.resolvedorTopicos = resolvedorTopicos;
+        this.resolvedorAutores = resolvedorAutores;
         this.consumoApi = consumoApi;
         this.conversor = conversor;
-        this.consultaMemory = consultaMemory;
+        this.filaTraducao = filaTraducao;
+        this.indiceVidaAutores = indiceVidaAutores;
+        this.indiceBuscaTextual = indiceBuscaTextual;
+        this.indiceTitulos = indiceTitulos;
+        this.indiceRanking = indiceRanking;
+        this.eventos = eventos;
+        // Transação própria, mesmo se houver uma em andamento: só assim a gravação pode ser refeita após um conflito
+        this.transacaoPropria = new TransactionTemplate(transactionManager);
+        this.transacaoPropria.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.buscasEmVoo = new ChamadasEmVoo<>(metricas, "busca_titulo");
+        this.buscasNoCatalogo = contadorBuscasPorTitulo(metricas, "catalogo");
+        this.buscasNaApi = contadorBuscasPorTitulo(metricas, "api");
+        Gauge.builder("literalura.busca.titulo.remotas.evitadas", this, CatalogoService::percentualChamadasEvitadas)
+                .description("Percentual das buscas por título respondidas pelo catálogo local, sem chamar o Gutendex")
+                .baseUnit("percent")
+                .register(metricas);
     }
 
+    private static Counter contadorBuscasPorTitulo(MeterRegistry metricas, String origem) {
+        return Counter.builder("literalura.busca.titulo")
+                .description("Buscas por título, por onde foram respondidas")
+                .tag("origem", origem)
+                .register(metricas);
+    }
+
+    /** Percentual das buscas por título que não precisaram chamar o Gutendex (0 sem buscas). */
+    public double percentualChamadasEvitadas() {
+        double total = buscasNoCatalogo.count() + buscasNaApi.count();
+        return total == 0 ? 0 : 100 * buscasNoCatalogo.count() / total;
+    }
+
+    /** Resultado da gravação de um livro vindo da API: o livro e se ele foi criado agora. */
+    public record ResultadoCadastro(Livro livro, boolean novo) {}
+
     /**
-     * Busca um livro por título na API externa, e se não existir localmente, salva no banco.
-     * Também persiste autor e tópicos associados.
+     * Busca um livro por título, primeiro no catálogo local e, se não estiver lá, na API externa,
+     * salvando no banco o que vier dela. Também persiste autor e tópicos associados. A chamada à API
+     * fica fora da transação: a conexão com o banco só é tomada para a gravação.
      */
-    @Transactional
     public Optional<Livro> buscarEsalvarLivroDaApiPorTitulo(String tituloLivro) {
         try {
-            String tituloEncoded = URLEncoder.encode(tituloLivro, StandardCharsets.UTF_8.toString());
-            var json = consumoApi.obterDados(enderecoBaseApi + tituloEncoded);
+            Optional<Livro> livroLocal = buscarNoCatalogo(tituloLivro);
+            if (livroLocal.isPresent()) {
+                System.out.println("INFO: Livro '" + livroLocal.get().getTitulo() + "' já cadastrado; Gutendex não consultado.");
+                return livroLocal;
+            }
+            Optional<DadosLivro> dadosPrimeiroLivro = buscarLivroNaApi(tituloLivro);
+            if (dadosPrimeiroLivro.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(salvarLivroDaApi(dadosPrimeiroLivro.get()).livro());
 
-            if (json == null || json.isEmpty()) return Optional.empty();
+        } catch (IllegalStateException e) {
+            System.err.println("Erro: " + e.getMessage());
+            return Optional.empty();
+        } catch (Exception e) {
+            System.err.println("Erro inesperado no serviço ao buscar e salvar livro: " + e.getMessage());
+            e.printStackTrace();
+            return Optional.empty();
+        }
+    }
 
-            DadosRespostaApi dadosResposta = conversor.obterDados(json, DadosRespostaApi.class);
-            if (dadosResposta == null || dadosResposta.livros() == null || dadosResposta.livros().isEmpty()) {
-                return Optional.empty();
+    /**
+     * Livro já catalogado com exatamente este título (ignorando maiúsculas, acentos e espaços
+     * repetidos), pelo índice de títulos em memória. Vazio quando o título não está no catálogo
+     * ou o índice ainda está frio: aí quem chama deve ir à API.
+     */
+    public Optional<Livro> buscarNoCatalogo(String tituloLivro) {
+        Optional<Livro> livro = indiceTitulos.buscar(tituloLivro).flatMap(livroRepository::findById);
+        // As buscas na API são contadas onde a chamada ao Gutendex de fato acontece
+        if (livro.isPresent()) buscasNoCatalogo.increment();
+        return livro;
+    }
+
+    /**
+     * Primeiro resultado da busca por título na API, sem tocar no banco. Vazio quando a busca
+     * não encontra nada; lança {@link IllegalStateException} se a API não responder.
+     * Buscas simultâneas pelo mesmo título (ignorando maiúsculas e espaços nas pontas)
+     * compartilham uma única chamada.
+     */
+    public Optional<DadosLivro> buscarLivroNaApi(String tituloLivro) {
+        String titulo = tituloLivro.trim();
+        try {
+            return buscasEmVoo.executar(titulo.toLowerCase(Locale.ROOT),
+                    () -> CompletableFuture.completedFuture(consultarApiPorTitulo(titulo))).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) throw causa;
+            throw e;
+        }
+    }
+
+    private Optional<DadosLivro> consultarApiPorTitulo(String titulo) {
+        buscasNaApi.increment();
+        String tituloEncoded = URLEncoder.encode(titulo, StandardCharsets.UTF_8);
+        // Só o primeiro resultado interessa: os demais são pulados no stream, sem ser convertidos
+        List<DadosLivro> primeiro = new ArrayList<>(1);
+        DadosRespostaApi dadosResposta = consumoApi.obterDados(enderecoBaseApi + tituloEncoded,
+                corpo -> conversor.percorrerLista(corpo, "results", DadosLivro.class, 1, primeiro::add,
+                        DadosRespostaApi.class));
+        if (dadosResposta == null) {
+            throw new IllegalStateException("Sem resposta da API para o título '" + titulo + "'");
+        }
+        return primeiro.stream().findFirst();
+    }
+
+    /**
+     * Grava um livro vindo da API, com autor e tópicos, ou devolve o já cadastrado com o mesmo título.
+     * Roda numa transação própria. Se outra gravação simultânea criar o mesmo livro ou autor
+     * primeiro, a chave única rejeita esta: o livro é lido de novo e, se ainda não existir, a
+     * transação é refeita usando o autor vencedor. Outras violações de integridade são relançadas.
+     */
+    public ResultadoCadastro salvarLivroDaApi(DadosLivro dadosLivro) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return transacaoPropria.execute(status -> gravarLivroDaApi(dadosLivro));
+            } catch (DataIntegrityViolationException e) {
+                if (!violouChaveUnica(e) || tentativa == TENTATIVAS_EM_CONFLITO) throw e;
+                Optional<Livro> vencedor = transacaoPropria.execute(status ->
+                        livroRepository.findByTituloIgnoreCase(Livro.tituloArmazenado(dadosLivro.titulo())));
+                if (vencedor.isPresent()) {
+                    System.out.println("INFO: Livro '" + dadosLivro.titulo() + "' gravado por outra operação; usando o registro já gravado.");
+                    return new ResultadoCadastro(vencedor.get(), false);
+                }
+                System.out.println("INFO: Conflito ao gravar '" + dadosLivro.titulo() + "'; refazendo com o registro já gravado.");
             }
+        }
+    }
 
-            DadosLivro dadosPrimeiroLivro = dadosResposta.livros().get(0);
+    /**
+     * Indica se a violação veio de uma chave única (SQLSTATE 23505), isto é, de outra gravação
+     * simultânea do mesmo registro. Só esse caso vale a pena refazer.
+     */
+    static boolean violouChaveUnica(DataIntegrityViolationException e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof SQLException sql && "23505".equals(sql.getSQLState())) return true;
+        }
+        return false;
+    }
 
-            // Verifica se o livro já existe no repositório
-            Optional<Livro> livroExistente = livroRepository.findByTituloIgnoreCase(dadosPrimeiroLivro.titulo());
-            if (livroExistente.isPresent()) {
-                System.out.println("INFO: Livro '" + dadosPrimeiroLivro.titulo() + "' já cadastrado.");
-                return livroExistente;
+    private ResultadoCadastro gravarLivroDaApi(DadosLivro dadosLivro) {
+        // Verifica se o livro já existe no repositório
+        Optional<Livro> livroExistente = livroRepository.findByTituloIgnoreCase(Livro.tituloArmazenado(dadosLivro.titulo()));
+        if (livroExistente.isPresent()) {
+            System.out.println("INFO: Livro '" + dadosLivro.titulo() + "' já cadastrado.");
+            return new ResultadoCadastro(livroExistente.get(), false);
+        }
+
+        // Processa o autor e os tópicos do livro
+        Autor autorEntity = processarAutor(dadosLivro);
+        Map<String, Long> topicos = resolvedorTopicos.resolver(nomesDosTopicos(dadosLivro));
+
+        // Cria e salva a entidade Livro
+        Livro novoLivro = new Livro(dadosLivro);
+        novoLivro.setAutor(autorEntity);
+        novoLivro.setTopicos(referenciasDeTopicos(topicos.values()));
+
+        System.out.println("INFO: Salvando novo livro: " + novoLivro.getTitulo());
+        boolean autorNovo = autorEntity != null && autorEntity.getId() == null;
+        Livro livroSalvo = livroRepository.saveAndFlush(novoLivro);
+        if (autorNovo) publicarAutorCadastrado(livroSalvo.getAutor());
+        publicarLivroCadastrado(livroSalvo, topicos.values());
+        enfileirarTraducaoDosTopicos(livroSalvo, dadosLivro, topicos);
+        return new ResultadoCadastro(livroSalvo, true);
+    }
+
+    /**
+     * Persiste de uma só vez uma página de livros vinda da API, ignorando os que já existem.
+     * Deve rodar dentro de uma única transação (a do chamador), para que a página inteira
+     * seja gravada ou descartada em conjunto.
+     */
+    @Transactional
+    public List<Livro> salvarNovosLivros(List<DadosLivro> dadosLivros) {
+        if (dadosLivros == null || dadosLivros.isEmpty()) return List.of();
+
+        // Uma única consulta para descobrir quais títulos da página já estão cadastrados, comparados como gravados
+        Set<String> titulosDaPagina = new HashSet<>();
+        for (DadosLivro dados : dadosLivros) {
+            if (dados.titulo() != null) titulosDaPagina.add(Livro.chaveDoTitulo(dados.titulo()));
+        }
+        Set<String> titulosExistentes = titulosDaPagina.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(livroRepository.findTitulosExistentes(titulosDaPagina));
+
+        List<DadosLivro> dadosNovos = new ArrayList<>();
+        for (DadosLivro dados : dadosLivros) {
+            if (dados.titulo() != null && titulosExistentes.add(Livro.chaveDoTitulo(dados.titulo()))) {
+                dadosNovos.add(dados);
             }
+        }
 
-            // Processa o autor e os tópicos do livro
-            Autor autorEntity = processarAutor(dadosPrimeiroLivro);
-            Set<Topico> topicos = processarTopicos(dadosPrimeiroLivro);
+        // Todos os tópicos da página resolvidos de uma vez
+        Map<String, Long> topicosDaPagina = resolvedorTopicos.resolver(dadosNovos.stream()
+                .flatMap(dados -> nomesDosTopicos(dados).stream())
+                .toList());
+
+        // Autores criados nesta página ainda não foram gravados; evita duplicá-los
+        Map<String, Autor> autoresDaPagina = new HashMap<>();
+        List<Livro> novosLivros = new ArrayList<>();
+        List<Map<String, Long>> topicosPorLivro = new ArrayList<>();
+
+        for (DadosLivro dados : dadosNovos) {
+            Autor autorEntity = null;
+            if (dados.autores() != null && !dados.autores().isEmpty() && dados.autores().get(0).nome() != null) {
+                autorEntity = autoresDaPagina.computeIfAbsent(
+                        Autor.chaveDoNome(dados.autores().get(0).nome()), chave -> processarAutor(dados));
+            }
 
-            // Cria e salva a entidade Livro
-            Livro novoLivro = new Livro(dadosPrimeiroLivro);
-            novoLivro.setAutor(autorEntity);
-            novoLivro.setTopicos(topicos);
+            Map<String, Long> topicos = new LinkedHashMap<>();
+            for (String nome : nomesDosTopicos(dados)) {
+                Long id = topicosDaPagina.get(nome);
+                if (id != null) topicos.put(nome, id);
+            }
 
-            System.out.println("INFO: Salvando novo livro: " + novoLivro.getTitulo());
-            return Optional.of(livroRepository.save(novoLivro));
+            Livro novoLivro = new Livro(dados);
+            novoLivro.setAutor(autorEntity);
+            novoLivro.setTopicos(referenciasDeTopicos(topicos.values()));
+            novosLivros.add(novoLivro);
+            topicosPorLivro.add(topicos);
+        }
 
-        } catch (Exception e) {
-            System.err.println("Erro inesperado no serviço ao buscar e salvar livro: " + e.getMessage());
-            e.printStackTrace();
-            return Optional.empty();
+        List<Autor> autoresNovos = autoresDaPagina.values().stream()
+                .filter(autor -> autor != null && autor.getId() == null)
+                .toList();
+        List<Livro> salvos = livroRepository.saveAll(novosLivros);
+        autoresNovos.forEach(this::publicarAutorCadastrado);
+        for (int i = 0; i < salvos.size(); i++) {
+            publicarLivroCadastrado(salvos.get(i), topicosPorLivro.get(i).values());
+            enfileirarTraducaoDosTopicos(salvos.get(i), dadosNovos.get(i), topicosPorLivro.get(i));
         }
+        return salvos;
     }
 
     /**
-     * Busca um autor existente no repositório ou cria um novo a partir dos dados recebidos da API.
+     * Busca um autor existente no repositório (pela chave normalizada do nome) ou cria um novo
+     * a partir dos dados recebidos da API.
      */
     private Autor processarAutor(DadosLivro dadosLivro) {
-        if (dadosLivro.autores() == null || dadosLivro.autores().isEmpty()) {
+        if (dadosLivro.autores() == null || dadosLivro.autores().isEmpty() || dadosLivro.autores().get(0).nome() == null) {
             return null;
         }
-        DadosAutor dadosAutorApi = dadosLivro.autores().get(0);
-        return autorRepository.findByNomeContainingIgnoreCase(dadosAutorApi.nome())
-                .orElseGet(() -> new Autor(dadosAutorApi));
+        return resolvedorAutores.resolver(dadosLivro.autores().get(0));
     }
 
-    /**
-     * Processa e persiste os tópicos do livro, realizando tradução se necessário.
-     * Evita duplicidade no banco e limita nomes a 255 caracteres.
-     */
-    private Set<Topico> processarTopicos(DadosLivro dadosLivro) {
-        Set<Topico> topicos = new HashSet<>();
-        if (dadosLivro.subjects() != null && !dadosLivro.subjects().isEmpty()) {
-            String idiomaDoLivro = dadosLivro.idiomas().isEmpty() ? "en" : dadosLivro.idiomas().get(0);
-
-            for (String nomeTopico : dadosLivro.subjects()) {
-                String nomeFinal = nomeTopico;
-
-                if (!"en".equalsIgnoreCase(idiomaDoLivro)) {
-                    try {
-                        String traducao = consultaMemory.obterTraducao(nomeTopico, idiomaDoLivro);
-                        if (traducao != null && !traducao.isBlank()) {
-                            nomeFinal = traducao;
-                            System.out.println("Traduzido: '" + nomeTopico + "' -> '" + nomeFinal + "'");
-                        } else {
-                            System.out.println("INFO: Tradução retornou vazia para '" + nomeTopico + "'. Usando original.");
-                        }
-                    } catch (Exception e) {
-                        System.err.println("AVISO: Falha ao traduzir o tópico '" + nomeTopico + "'. Usando o nome original. Erro: " + e.getMessage());
-                    }
-                }
+    /** Avisa os índices em memória; os ouvintes só recebem o evento após o commit. */
+    private void publicarLivroCadastrado(Livro livro, Collection<Long> topicos) {
+        eventos.publishEvent(new LivroCadastradoEvento(livro.getId(), livro.getTitulo(), livro.getNumeroDownloads(),
+                Set.copyOf(livro.getIdiomas()), List.copyOf(new LinkedHashSet<>(topicos))));
+    }
 
-                if (nomeFinal.length() > 255) {
-                    nomeFinal = nomeFinal.substring(0, 255);
-                }
+    /** Avisa os índices em memória; os ouvintes só recebem o evento após o commit. */
+    private void publicarAutorCadastrado(Autor autor) {
+        eventos.publishEvent(new AutorCadastradoEvento(
+                autor.getId(), autor.getNome(), autor.getAnoNascimento(), autor.getAnoFalecimento()));
+    }
 
-                final String nomeParaLambda = nomeFinal;
-                Topico topico = topicoRepository.findByNomeIgnoreCase(nomeParaLambda)
-                        .orElseGet(() -> topicoRepository.save(new Topico(nomeParaLambda)));
-                topicos.add(topico);
-            }
+    private static List<String> nomesDosTopicos(DadosLivro dadosLivro) {
+        return dadosLivro.subjects() != null ? dadosLivro.subjects() : List.of();
+    }
+
+    /** Referências (sem SELECT) aos tópicos já resolvidos, para montar a associação do livro. */
+    private Set<Topico> referenciasDeTopicos(Collection<Long> ids) {
+        Set<Topico> topicos = new HashSet<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            topicos.add(topicoRepository.getReferenceById(id));
         }
         return topicos;
     }
 
+    /**
+     * Livros em outro idioma têm os tópicos traduzidos em segundo plano; aqui só
+     * registramos a pendência, na mesma transação que gravou o livro.
+     */
+    private void enfileirarTraducaoDosTopicos(Livro livro, DadosLivro dadosLivro, Map<String, Long> topicos) {
+        String idiomaDoLivro = dadosLivro.idiomas() == null || dadosLivro.idiomas().isEmpty()
+                ? "en" : dadosLivro.idiomas().get(0);
+        if (!"en".equalsIgnoreCase(idiomaDoLivro) && !topicos.isEmpty()) {
+            filaTraducao.enfileirar(livro.getId(), topicos, idiomaDoLivro);
+        }
+    }
+
     // ===================== CONSULTAS E RELATÓRIOS =====================
 
     /** Lista todos os livros com paginação, incluindo autores. */
     @Transactional(readOnly = true)
-    public Page<Livro> listarTodosOsLivros(Pageable pageable) {
-        return livroRepository.findAllComAutores(pageable);
+    public Page<LivroResponseDTO> listarTodosOsLivros(Pageable pageable) {
+        Page<LivroResponseDTO> pagina = livroRepository.findAllComAutores(pageable);
+        return new PageImpl<>(comTopicos(pagina.getContent()), pageable, pagina.getTotalElements());
+    }
+
+    /**
+     * Lista livros por cursor, ordenados por título. Cada página parte do último item da anterior,
+     * então o custo não cresce com a profundidade como no OFFSET. O total só é contado se pedido.
+     */
+    @Transactional(readOnly = true)
+    public CursorPaginatedResponseDTO<LivroResponseDTO> listarLivrosPorCursor(String cursor, int tamanho, boolean incluirTotal) {
+        CursorPaginacao posicao = CursorPaginacao.decodificar(cursor);
+        Pageable limite = limiteDoCursor(tamanho);
+        List<LivroResponseDTO> livros = posicao == null
+                ? livroRepository.findPrimeirosComAutores(limite)
+                : livroRepository.findComAutoresApos(posicao.chave(), posicao.id(), limite);
+        Long total = incluirTotal ? livroRepository.countComAutores() : null;
+        return paginaPorCursor(comTopicos(livros), tamanho, total, livro -> new CursorPaginacao(livro.titulo(), livro.id()));
     }
 
     /** Lista todos os livros com autores, sem paginação. */
     @Transactional(readOnly = true)
-    public List<Livro> listarTodosOsLivros() {
-        return livroRepository.findAllComAutores();
+    public List<LivroResponseDTO> listarTodosOsLivros() {
+        return comTopicos(livroRepository.findAllComAutores());
     }
 
     /** Lista todos os autores com paginação, incluindo livros. */
     @Transactional(readOnly = true)
-    public Page<Autor> listarTodosOsAutores(Pageable pageable) {
-        return autorRepository.findAllComLivros(pageable);
+    public Page<AutorComLivrosDTO> listarTodosOsAutores(Pageable pageable) {
+        return paginaDeAutores(autorRepository.findIdsPaginados(pageable));
+    }
+
+    /** Lista autores por cursor, ordenados por nome, com os livros carregados. */
+    @Transactional(readOnly = true)
+    public CursorPaginatedResponseDTO<AutorComLivrosDTO> listarAutoresPorCursor(String cursor, int tamanho, boolean incluirTotal) {
+        CursorPaginacao posicao = CursorPaginacao.decodificar(cursor);
+        List<Long> ids = autorRepository.findIdsApos(
+                posicao == null ? null : posicao.chave(),
+                posicao == null ? null : posicao.id(),
+                limiteDoCursor(tamanho));
+        Long total = incluirTotal ? autorRepository.count() : null;
+        return paginaPorCursor(buscarAutoresComLivros(ids), tamanho, total,
+                autor -> new CursorPaginacao(autor.nome(), autor.id()));
     }
 
     /** Lista todos os autores com seus livros. */
     @Transactional(readOnly = true)
-    public List<Autor> listarTodosOsAutores() {
-        return autorRepository.findAllComLivros();
+    public List<AutorComLivrosDTO> listarTodosOsAutores() {
+        return comLivros(autorRepository.findAllResumos());
     }
 
-    /** Busca autores que contenham parte do nome informado. */
+    /** Busca autores que contenham parte do nome informado, dos mais para os menos relevantes. */
+    @Transactional(readOnly = true)
+    public List<AutorComLivrosDTO> buscarAutoresPorNome(String nome) {
+        Optional<List<Long>> ids = indiceBuscaTextual.buscarAutores(nome);
+        if (ids.isPresent()) return buscarAutoresComLivros(ids.get());
+        return comLivros(autorRepository.findAllByNomeContainingIgnoreCase(nome));
+    }
+
+    /**
+     * Busca autores por nome com suporte a paginação. Sem ordenação informada as páginas seguem a
+     * relevância do índice de trigramas (com o id desempatando), aquecido ou não.
+     */
     @Transactional(readOnly = true)
-    public List<Autor> buscarAutoresPorNome(String nome) {
-        List<Autor> autores = autorRepository.findAllByNomeContainingIgnoreCase(nome);
-        for (Autor autor : autores) {
-            // Garante inicialização de coleções lazy (evita LazyInitializationException)
-            Hibernate.initialize(autor.getLivros());
+    public Page<AutorComLivrosDTO> buscarAutoresPorNome(String nome, Pageable pageable) {
+        if (pageable.getSort().isSorted()) {
+            Page<AutorComLivrosDTO> pagina = autorRepository.findByNomeContainingIgnoreCase(nome, AutorRepository.ordenadoPorNome(pageable));
+            return new PageImpl<>(comLivros(pagina.getContent()), pageable, pagina.getTotalElements());
         }
-        return autores;
+        // Índice frio: os candidatos vêm do banco e são ordenados pela mesma regra do índice
+        List<Long> todos = indiceBuscaTextual.buscarAutores(nome).orElseGet(() -> IndiceTrigramas.buscarEm(nome,
+                autorRepository.findNomesByNomeContainingIgnoreCase(nome).stream()
+                        .collect(Collectors.toMap(TextoIndexadoDTO::id, TextoIndexadoDTO::texto))));
+        int inicio = (int) Math.min(pageable.getOffset(), todos.size());
+        int fim = Math.min(inicio + pageable.getPageSize(), todos.size());
+        return new PageImpl<>(buscarAutoresComLivros(todos.subList(inicio, fim)), pageable, todos.size());
     }
 
-    /** Busca autores por nome com suporte a paginação. */
+    /** Busca livros cujo título contenha o trecho informado, dos mais para os menos relevantes. */
     @Transactional(readOnly = true)
-    public Page<Autor> buscarAutoresPorNome(String nome, Pageable pageable) {
-        return autorRepository.findByNomeContainingIgnoreCase(nome, pageable);
+    public List<LivroResponseDTO> buscarLivrosPorTitulo(String titulo) {
+        Optional<List<Long>> ids = indiceBuscaTextual.buscarLivros(titulo);
+        if (ids.isEmpty()) return comTopicos(livroRepository.findAllByTituloContainingIgnoreCase(titulo));
+        return livrosNaOrdem(ids.get());
+    }
+
+    /** Livros (com autor e tópicos) dos ids informados, na mesma ordem. */
+    private List<LivroResponseDTO> livrosNaOrdem(List<Long> ids) {
+        Map<Long, LivroResponseDTO> porId = new HashMap<>();
+        for (List<Long> bloco : emBlocos(ids)) {
+            livroRepository.findAllComAutorByIdIn(bloco).forEach(livro -> porId.put(livro.id(), livro));
+        }
+        return comTopicos(ids.stream().map(porId::get).filter(Objects::nonNull).toList());
     }
 
     /** Retorna os 10 livros mais baixados. */
     @Transactional(readOnly = true)
-    public List<Livro> buscarTop10LivrosMaisBaixados() {
-        return livroRepository.findFirst10ByOrderByNumeroDownloadsDesc();
+    public List<LivroResponseDTO> buscarTop10LivrosMaisBaixados() {
+        return buscarMaisBaixados(10);
     }
 
-    /** Calcula estatísticas (média, soma, min, max) sobre os downloads dos livros. */
+    /** Os {@code quantidade} livros mais baixados, pelo ranking em memória quando ele cobre a quantidade. */
     @Transactional(readOnly = true)
-    public Optional<DoubleSummaryStatistics> calcularEstatisticasDownloads() {
-        List<Livro> livros = livroRepository.findAll();
-        if (livros.isEmpty()) return Optional.empty();
+    public List<LivroResponseDTO> buscarMaisBaixados(int quantidade) {
+        if (quantidade <= 0) return List.of();
+        return indiceRanking.maisBaixados(quantidade)
+                .map(this::livrosNaOrdem)
+                .orElseGet(() -> comTopicos(livroRepository.findMaisBaixados(PageRequest.ofSize(quantidade))));
+    }
 
-        DoubleSummaryStatistics stats = livros.stream()
-                .filter(livro -> livro.getNumeroDownloads() != null && livro.getNumeroDownloads() > 0)
-                .mapToDouble(Livro::getNumeroDownloads)
-                .summaryStatistics();
+    /** Os livros mais baixados de um idioma. */
+    @Transactional(readOnly = true)
+    public List<LivroResponseDTO> buscarMaisBaixadosPorIdioma(String siglaIdioma, int quantidade) {
+        if (quantidade <= 0) return List.of();
+        String sigla = normalizarSiglaIdioma(siglaIdioma);
+        return indiceRanking.maisBaixadosPorIdioma(sigla, quantidade)
+                .map(this::livrosNaOrdem)
+                .orElseGet(() -> comTopicos(livroRepository.findMaisBaixadosPorIdioma(sigla, PageRequest.ofSize(quantidade))));
+    }
 
-        return (stats.getCount() == 0) ? Optional.empty() : Optional.of(stats);
+    /** Os livros mais baixados de um tópico, procurado pelo nome sem diferenciar maiúsculas. */
+    @Transactional(readOnly = true)
+    public List<LivroResponseDTO> buscarMaisBaixadosPorTopico(String nomeTopico, int quantidade) {
+        if (quantidade <= 0 || nomeTopico == null || nomeTopico.isBlank()) return List.of();
+        List<Topico> topicos = topicoRepository.findByNomeNormalizadoIn(List.of(ResolvedorTopicos.normalizar(nomeTopico)));
+        if (topicos.isEmpty()) return List.of();
+        Long topicoId = topicos.get(0).getId();
+        return indiceRanking.maisBaixadosPorTopico(topicoId, quantidade)
+                .map(this::livrosNaOrdem)
+                .orElseGet(() -> comTopicos(livroRepository.findMaisBaixadosPorTopico(topicoId, PageRequest.ofSize(quantidade))));
+    }
+
+    /** Calcula estatísticas (média, soma, min, max) sobre os downloads dos livros. */
+    @Transactional(readOnly = true)
+    public Optional<DoubleSummaryStatistics> calcularEstatisticasDownloads() {
+        EstatisticasDTO estatisticas = livroRepository.calcularEstatisticasDownloads();
+        if (estatisticas.totalLivros() == 0) return Optional.empty();
+
+        return Optional.of(new DoubleSummaryStatistics(
+                estatisticas.totalLivros(),
+                estatisticas.minDownloads(),
+                estatisticas.maxDownloads(),
+                estatisticas.somaDownloads()));
     }
 
     /** Lista autores nascidos em determinado ano. */
     @Transactional(readOnly = true)
-    public List<Autor> listarAutoresPorAnoNascimento(Integer ano) {
-        List<Autor> autores = autorRepository.findByAnoNascimento(ano);
-        for (Autor autor : autores) {
-            Hibernate.initialize(autor.getLivros()); // força o carregamento
-        }
-        return autores;
+    public List<AutorComLivrosDTO> listarAutoresPorAnoNascimento(Integer ano) {
+        return comLivros(autorRepository.findByAnoNascimento(ano));
     }
 
     /** Busca livro por ID com autor carregado. */
     @Transactional(readOnly = true)
-    public Livro buscarLivroPorId(Long id) {
+    public LivroResponseDTO buscarLivroPorId(Long id) {
         return livroRepository.findByIdComAutor(id)
+                .map(livro -> comTopicos(List.of(livro)).get(0))
                 .orElseThrow(() -> new ResourceNotFoundException("Livro não encontrado com o ID: " + id));
     }
 
     /** Lista autores que estavam vivos em determinado ano (paginado). */
     @Transactional(readOnly = true)
-    public Page<Autor> listarAutoresVivosEmDeterminadoAno(int ano, Pageable pageable) {
-        return autorRepository.findAutoresVivosNoAno(ano, pageable);
+    public Page<AutorComLivrosDTO> listarAutoresVivosEmDeterminadoAno(int ano, Pageable pageable) {
+        Optional<List<Long>> ids = indiceVidaAutores.vivosNoAno(ano);
+        // Ordenação personalizada, índice ainda frio ou ids demais para uma consulta: o banco resolve
+        if (ids.isEmpty() || pageable.getSort().isSorted() || ids.get().size() > IDS_POR_CONSULTA) {
+            return paginaDeAutores(autorRepository.findIdsAutoresVivosNoAno(ano, pageable));
+        }
+        // Os ids do índice vão ao banco só para a página na ordem (nome, id), a mesma do índice frio
+        List<Long> todos = ids.get();
+        if (todos.isEmpty() || pageable.getOffset() >= todos.size()) return new PageImpl<>(List.of(), pageable, todos.size());
+        List<Long> pagina = autorRepository.findIdsByIdIn(todos, AutorRepository.ordenadoPorNome(pageable));
+        return new PageImpl<>(buscarAutoresComLivros(pagina), pageable, todos.size());
+    }
+
+    /** Lista autores vivos no ano informado por cursor, ordenados por nome. */
+    @Transactional(readOnly = true)
+    public CursorPaginatedResponseDTO<AutorComLivrosDTO> listarAutoresVivosPorCursor(int ano, String cursor, int tamanho,
+                                                                                      boolean incluirTotal) {
+        CursorPaginacao posicao = CursorPaginacao.decodificar(cursor);
+        List<Long> ids = autorRepository.findIdsAutoresVivosNoAnoApos(ano,
+                posicao == null ? null : posicao.chave(),
+                posicao == null ? null : posicao.id(),
+                limiteDoCursor(tamanho));
+        Long total = incluirTotal ? autorRepository.countAutoresVivosNoAno(ano) : null;
+        return paginaPorCursor(buscarAutoresComLivros(ids), tamanho, total,
+                autor -> new CursorPaginacao(autor.nome(), autor.id()));
     }
 
     /** Lista autores vivos em um ano específico (sem paginação). */
     @Transactional(readOnly = true)
-    public List<Autor> listarAutoresVivosEmDeterminadoAno(int ano) {
-        return autorRepository.findAutoresVivosNoAno(ano);
+    public List<AutorComLivrosDTO> listarAutoresVivosEmDeterminadoAno(int ano) {
+        return indiceVidaAutores.vivosNoAno(ano)
+                .map(this::buscarAutoresComLivros)
+                .orElseGet(() -> comLivros(autorRepository.findAutoresVivosNoAno(ano)));
+    }
+
+    /** Lista autores vivos em algum momento entre os anos informados (inclusive). */
+    @Transactional(readOnly = true)
+    public List<AutorComLivrosDTO> listarAutoresVivosEntre(int anoInicial, int anoFinal) {
+        return indiceVidaAutores.vivosEntre(anoInicial, anoFinal)
+                .map(this::buscarAutoresComLivros)
+                .orElseGet(() -> comLivros(autorRepository.findAutoresVivosEntre(anoInicial, anoFinal)));
+    }
+
+    /** Busca um item além do tamanho da página, para saber se existe uma próxima. */
+    private static Pageable limiteDoCursor(int tamanho) {
+        if (tamanho < 1) throw new IllegalArgumentException("O tamanho da página deve ser maior que zero.");
+        return PageRequest.ofSize(tamanho + 1);
+    }
+
+    /** Monta a página a partir de uma busca com um item a mais, que só serve para saber se há próxima. */
+    private static <T> CursorPaginatedResponseDTO<T> paginaPorCursor(List<T> itens, int tamanho, Long total,
+                                                                   Function<T, CursorPaginacao> posicaoDe) {
+        boolean ultima = itens.size() <= tamanho;
+        List<T> conteudo = ultima ? itens : itens.subList(0, tamanho);
+        String proximo = ultima || conteudo.isEmpty() ? null : posicaoDe.apply(conteudo.get(conteudo.size() - 1)).codificar();
+        return new CursorPaginatedResponseDTO<>(conteudo, tamanho, proximo, total, ultima);
+    }
+
+    /** Troca uma página de ids pelos autores correspondentes, já com os livros. */
+    private Page<AutorComLivrosDTO> paginaDeAutores(Page<Long> ids) {
+        return new PageImpl<>(buscarAutoresComLivros(ids.getContent()), ids.getPageable(), ids.getTotalElements());
+    }
+
+    /** Carrega os autores pelos ids, na ordem dos ids, com os títulos dos livros. */
+    private List<AutorComLivrosDTO> buscarAutoresComLivros(List<Long> ids) {
+        Map<Long, AutorComLivrosDTO> porId = new HashMap<>();
+        for (List<Long> bloco : emBlocos(ids)) {
+            autorRepository.findResumosByIdIn(bloco).forEach(autor -> porId.put(autor.id(), autor));
+        }
+        return comLivros(ids.stream().map(porId::get).filter(Objects::nonNull).toList());
+    }
+
+    /** Preenche os tópicos dos livros com uma consulta por bloco, em vez de uma por livro. */
+    private List<LivroResponseDTO> comTopicos(List<LivroResponseDTO> livros) {
+        Map<Long, List<String>> topicosPorLivro = new HashMap<>();
+        for (List<Long> bloco : emBlocos(livros.stream().map(LivroResponseDTO::id).toList())) {
+            for (Object[] linha : topicoRepository.findNomesPorLivroIdIn(bloco)) {
+                topicosPorLivro.computeIfAbsent((Long) linha[0], id -> new ArrayList<>()).add((String) linha[1]);
+            }
+        }
+        return livros.stream()
+                .map(livro -> livro.comTopicos(topicosPorLivro.getOrDefault(livro.id(), List.of())))
+                .toList();
+    }
+
+    /** Preenche os títulos dos livros de cada autor com uma consulta por bloco. */
+    private List<AutorComLivrosDTO> comLivros(List<AutorComLivrosDTO> autores) {
+        Map<Long, List<String>> titulosPorAutor = new HashMap<>();
+        for (List<Long> bloco : emBlocos(autores.stream().map(AutorComLivrosDTO::id).toList())) {
+            for (Object[] linha : livroRepository.findTitulosPorAutorIdIn(bloco)) {
+                titulosPorAutor.computeIfAbsent((Long) linha[0], id -> new ArrayList<>()).add((String) linha[1]);
+            }
+        }
+        return autores.stream()
+                .map(autor -> autor.comLivros(titulosPorAutor.getOrDefault(autor.id(), List.of())))
+                .toList();
+    }
+
+    /** Divide os ids em blocos, para não estourar o limite de parâmetros da consulta. */
+    private static List<List<Long>> emBlocos(List<Long> ids) {
+        List<List<Long>> blocos = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += IDS_POR_CONSULTA) {
+            blocos.add(ids.subList(i, Math.min(i + IDS_POR_CONSULTA, ids.size())));
+        }
+        return blocos;
     }
 
     /** Lista livros por idioma com paginação. */
     @Transactional(readOnly = true)
-    public Page<Livro> listarLivrosPorIdioma(String siglaIdioma, Pageable pageable) {
-        return livroRepository.findByIdiomaContainingIgnoreCase(siglaIdioma, pageable);
+    public Page<LivroResponseDTO> listarLivrosPorIdioma(String siglaIdioma, Pageable pageable) {
+        Page<LivroResponseDTO> pagina = livroRepository.findByIdioma(normalizarSiglaIdioma(siglaIdioma), pageable);
+        return new PageImpl<>(comTopicos(pagina.getContent()), pageable, pagina.getTotalElements());
     }
 
     /** Lista todos os livros em um determinado idioma. */
     @Transactional(readOnly = true)
-    public List<Livro> listarTodosLivrosPorIdioma(String siglaIdioma) {
-        return livroRepository.findAllByIdiomaContainingIgnoreCase(siglaIdioma);
+    public List<LivroResponseDTO> listarTodosLivrosPorIdioma(String siglaIdioma) {
+        return comTopicos(livroRepository.findAllByIdioma(normalizarSiglaIdioma(siglaIdioma)));
+    }
+
+    /** Quantidade de livros em um determinado idioma. */
+    @Transactional(readOnly = true)
+    public long contarLivrosPorIdioma(String siglaIdioma) {
+        return livroRepository.countByIdioma(normalizarSiglaIdioma(siglaIdioma));
+    }
+
+    /** Quantidade de livros de cada idioma, do mais para o menos frequente. */
+    @Transactional(readOnly = true)
+    public List<ContagemIdiomaDTO> contarLivrosPorIdioma() {
+        return livroRepository.contarPorIdioma().stream()
+                .map(linha -> new ContagemIdiomaDTO((String) linha[0], ((Number) linha[1]).longValue()))
+                .toList();
+    }
+
+    private static String normalizarSiglaIdioma(String siglaIdioma) {
+        return siglaIdioma == null ? "" : siglaIdioma.trim().toLowerCase(Locale.ROOT);
     }
 
     /** Calcula estatísticas e encapsula em DTO com dados formatados. */
     @Transactional(readOnly = true)
     public Optional<EstatisticasDTO> obterEstatisticasDeDownloads() {
-        List<Livro> livros = livroRepository.findAll();
-        if (livros.isEmpty()) return Optional.empty();
-
-        DoubleSummaryStatistics stats = livros.stream()
-                .filter(livro -> livro.getNumeroDownloads() != null && livro.getNumeroDownloads() > 0)
-                .mapToDouble(Livro::getNumeroDownloads)
-                .summaryStatistics();
-
-        if (stats.getCount() == 0) return Optional.empty();
-
-        EstatisticasDTO estatisticasDTO = new EstatisticasDTO(
-                stats.getCount(),
-                stats.getAverage(),
-                (long) stats.getMax(),
-                (long) stats.getMin(),
-                (long) stats.getSum()
-        );
-        return Optional.of(estatisticasDTO);
+        // Agregação feita no banco: nenhum Livro é carregado em memória
+        EstatisticasDTO estatisticasDTO = livroRepository.calcularEstatisticasDownloads();
+        return estatisticasDTO.totalLivros() == 0 ? Optional.empty() : Optional.of(estatisticasDTO);
     }
 }
\ No newline at end of file
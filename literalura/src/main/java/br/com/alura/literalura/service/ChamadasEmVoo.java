@@ -0,0 +1,63 @@
+package br.com.alura.literalura.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Junta chamadas simultâneas com a mesma chave: enquanto a primeira está em andamento, as
+ * demais recebem o mesmo resultado em vez de repetir a chamada. Ao terminar, a chave é liberada;
+ * quem chegar depois faz uma chamada nova (o cache, se houver, fica a cargo de quem usa).
+ */
+public class ChamadasEmVoo<K, V> {
+
+    private final Map<K, CompletableFuture<V>> emAndamento = new ConcurrentHashMap<>();
+    private final Counter compartilhadas;
+
+    /** @param origem identifica quem usa, na tag da métrica {@code literalura.chamadas.compartilhadas} */
+    public ChamadasEmVoo(MeterRegistry metricas, String origem) {
+        this.compartilhadas = Counter.builder("literalura.chamadas.compartilhadas")
+                .description("Chamadas que aproveitaram outra idêntica já em andamento")
+                .tag("origem", origem)
+                .register(metricas);
+    }
+
+    /**
+     * Devolve o resultado da chamada em andamento para a chave ou, se não houver, inicia uma.
+     * A chamada pode ser síncrona (devolver um future já completo): quem chegar enquanto ela
+     * roda espera pelo mesmo resultado.
+     */
+    public CompletableFuture<V> executar(K chave, Supplier<CompletableFuture<V>> chamada) {
+        CompletableFuture<V> nova = new CompletableFuture<>();
+        CompletableFuture<V> existente = emAndamento.putIfAbsent(chave, nova);
+        if (existente != null) {
+            compartilhadas.increment();
+            // Cópia: quem recebe não consegue completar nem cancelar o future dos outros
+            return existente.copy();
+        }
+
+        try {
+            chamada.get().whenComplete((resultado, erro) -> {
+                // Libera a chave antes de completar, para que ninguém receba um resultado já entregue
+                emAndamento.remove(chave, nova);
+                if (erro != null) nova.completeExceptionally(erro);
+                else nova.complete(resultado);
+            });
+        } catch (Throwable e) {
+            // Qualquer falha ao iniciar a chamada libera a chave e chega a quem já está esperando
+            emAndamento.remove(chave, nova);
+            nova.completeExceptionally(e);
+            if (e instanceof Error erro) throw erro;
+        }
+        return nova.copy();
+    }
+
+    /** Quantidade de chaves com chamada em andamento. */
+    public int emAndamento() {
+        return emAndamento.size();
+    }
+}
@@ -1,42 +1,235 @@
 package br.com.alura.literalura.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
 
 @Component
 
 public class ConsumoApi {
 
-    public String obterDados(String endereco) {
-        // Cria o cliente HTTP
-        HttpClient client = HttpClient.newHttpClient();
+    // Cliente único e de longa duração: reaproveita conexões (keep-alive/HTTP2) e o executor interno
+    private final HttpClient client;
+    private final Duration timeoutRequisicao;
+    private final MeterRegistry metricas;
+    private final CacheRespostasHttp cache;
+    private final LimitadorTaxaPorHost limitador;
 
-        // Cria a requisição HTTP
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(endereco))
+    public ConsumoApi(@Value("${literalura.http.timeout-conexao:5s}") Duration timeoutConexao,
+                      @Value("${literalura.http.timeout-requisicao:20s}") Duration timeoutRequisicao,
+                      MeterRegistry metricas,
+                      CacheRespostasHttp cache,
+                      LimitadorTaxaPorHost limitador) {
+        this.timeoutRequisicao = timeoutRequisicao;
+        this.metricas = metricas;
+        this.cache = cache;
+        this.limitador = limitador;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(timeoutConexao)
                 .build();
+    }
+
+    /** Lê o corpo de uma resposta já descompactada; usado para converter direto do stream. */
+    @FunctionalInterface
+    public interface LeitorCorpo<T> {
+        T ler(InputStream corpo) throws IOException;
+    }
+
+    public String obterDados(String endereco) {
+        return obterDados(endereco, ConsumoApi::lerTexto);
+    }
+
+    /**
+     * Faz a requisição e entrega o corpo da resposta ao leitor sem copiá-lo para uma String.
+     * Devolve {@code null} em caso de erro de rede ou status diferente de 200.
+     */
+    public <T> T obterDados(String endereco, LeitorCorpo<T> leitor) {
+        return aguardar(endereco, () -> obterDadosAsync(endereco, leitor));
+    }
+
+    /**
+     * Como {@link #obterDados(String, LeitorCorpo)}, mas sem o {@link CacheRespostasHttp}: a resposta
+     * não é guardada nem revalidada, e uma falha da API não é coberta pela cópia local. Para consultas
+     * que não se repetem e que precisam do valor atual.
+     */
+    public <T> T obterDadosSemCache(String endereco, LeitorCorpo<T> leitor) {
+        return aguardar(endereco, () -> obterDadosAsync(endereco, leitor, false));
+    }
 
-        // Envia a requisição e captura a resposta
+    private static <T> T aguardar(String endereco, Supplier<CompletableFuture<T>> chamada) {
         try {
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            return chamada.get().join();
+        } catch (CompletionException e) {
+            System.err.println("Erro ao consumir API: " + endereco + " - " + e.getCause().getMessage());
+            return null;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Erro ao consumir API: " + endereco + " - " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Variante assíncrona de {@link #obterDados(String)}: permite disparar várias chamadas em paralelo.
+     * Completa com {@code null} quando o servidor responde com status diferente de 200.
+     */
+    public CompletableFuture<String> obterDadosAsync(String endereco) {
+        return obterDadosAsync(endereco, ConsumoApi::lerTexto);
+    }
+
+    /**
+     * Variante assíncrona de {@link #obterDados(String, LeitorCorpo)}. Endereços aceitos pelo
+     * {@link CacheRespostasHttp} são revalidados com requisição condicional quando já estão em cache;
+     * se a API falhar (erro de rede ou 5xx), a cópia local é usada. O envio respeita o
+     * {@link LimitadorTaxaPorHost}: quando o host está no limite, a requisição é agendada para
+     * depois, sem bloquear a thread que chamou.
+     */
+    public <T> CompletableFuture<T> obterDadosAsync(String endereco, LeitorCorpo<T> leitor) {
+        return obterDadosAsync(endereco, leitor, true);
+    }
 
-            if (response.statusCode() != 200) {
-                System.err.println("Erro HTTP: " + response.statusCode() + " - " + response.body());
-                return null;
+    private <T> CompletableFuture<T> obterDadosAsync(String endereco, LeitorCorpo<T> leitor, boolean usarCache) {
+        URI uri = URI.create(endereco);
+        boolean comCache = usarCache && cache.aceita(uri);
+        Optional<CacheRespostasHttp.Entrada> emCache = comCache ? cache.buscar(uri) : Optional.empty();
+
+        // Cria a requisição HTTP, aceitando respostas compactadas
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(uri)
+                .timeout(timeoutRequisicao)
+                .header("Accept-Encoding", "gzip");
+        emCache.ifPresent(entrada -> {
+            if (entrada.etag() != null) builder.header("If-None-Match", entrada.etag());
+            if (entrada.ultimaModificacao() != null) builder.header("If-Modified-Since", entrada.ultimaModificacao());
+        });
+        HttpRequest request = builder.build();
+
+        // Tempo medido até o fim da leitura do corpo, por host (Gutendex, MyMemory) e status
+        Timer.Sample amostra = Timer.start(metricas);
+        AtomicReference<String> status = new AtomicReference<>("erro");
+
+        long espera = limitador.reservar(uri.getHost());
+        CompletableFuture<HttpResponse<InputStream>> envio = espera <= 0
+                ? client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                : CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(espera, TimeUnit.NANOSECONDS))
+                        .thenCompose(pronto -> client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()));
+
+        return envio
+                .handle((response, erro) -> {
+                    if (erro != null) {
+                        if (emCache.isPresent()) {
+                            return CompletableFuture.completedFuture(
+                                    lerObsoleto(uri, emCache.get(), leitor, erro.getMessage(), erro));
+                        }
+                        throw erro instanceof CompletionException e ? e : new CompletionException(erro);
+                    }
+                    status.set(String.valueOf(response.statusCode()));
+                    try (InputStream corpo = abrirCorpo(response)) {
+                        return CompletableFuture.completedFuture(lerResposta(uri, response, corpo, comCache, emCache, leitor));
+                    } catch (NoSuchFileException e) {
+                        // Corpo removido do cache depois da busca: vale como falta e a URL é pedida de novo, sem cache
+                        cache.registrarFalta();
+                        return obterDadosAsync(endereco, leitor, false);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .thenCompose(Function.identity())
+                .whenComplete((resultado, erro) -> amostra.stop(Timer.builder("literalura.http.requisicao")
+                        .description("Chamadas às APIs externas")
+                        .tag("host", String.valueOf(uri.getHost()))
+                        .tag("status", status.get())
+                        .publishPercentileHistogram()
+                        .register(metricas)));
+    }
+
+    private <T> T lerResposta(URI uri, HttpResponse<InputStream> response, InputStream corpo, boolean comCache,
+                              Optional<CacheRespostasHttp.Entrada> emCache, LeitorCorpo<T> leitor) throws IOException {
+        int codigo = response.statusCode();
+        if (codigo == 304 && emCache.isPresent()) {
+            cache.registrarRevalidacao();
+            CacheRespostasHttp.Entrada entrada = cache.atualizarValidadores(uri, emCache.get(),
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null));
+            try (InputStream guardado = cache.abrir(entrada)) {
+                return leitor.ler(guardado);
             }
+        }
+        if (codigo >= 500 && emCache.isPresent()) {
+            return lerObsoleto(uri, emCache.get(), leitor, "HTTP " + codigo, null);
+        }
+        if (codigo != 200) {
+            System.err.println("Erro HTTP: " + codigo + " - " + lerTexto(corpo));
+            return null;
+        }
+        if (!comCache) return leitor.ler(corpo);
 
-            return response.body();
+        // O corpo vai direto para o disco e o leitor consome a cópia gravada
+        cache.registrarFalta();
+        CacheRespostasHttp.Entrada entrada = cache.gravar(uri, corpo,
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null));
+        try (InputStream guardado = cache.abrir(entrada)) {
+            return leitor.ler(guardado);
+        }
+    }
 
-        } catch (IOException | InterruptedException | IllegalArgumentException e) {
-            System.err.println("Erro ao consumir API: " + endereco + " - " + e.getMessage());
-            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+    /**
+     * Lê a cópia em cache quando a API falhou. Se ela foi removida depois da busca, a falha segue
+     * como se não houvesse cache: o erro de rede é relançado e o 5xx devolve {@code null}.
+     */
+    private <T> T lerObsoleto(URI uri, CacheRespostasHttp.Entrada entrada, LeitorCorpo<T> leitor, String motivo,
+                              Throwable erro) {
+        InputStream guardado;
+        try {
+            guardado = cache.abrir(entrada);
+        } catch (NoSuchFileException e) {
+            cache.registrarFalta();
+            if (erro != null) throw erro instanceof CompletionException c ? c : new CompletionException(erro);
+            System.err.println("Erro HTTP: " + motivo + " - sem cópia em cache de " + uri);
             return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.err.println("AVISO: API indisponível (" + motivo + "); usando resposta em cache de " + uri);
+        cache.registrarUsoObsoleto();
+        try (guardado) {
+            return leitor.ler(guardado);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
-}
 
+    /** Abre o corpo da resposta, descompactando-o quando o servidor o enviou em gzip. */
+    private static InputStream abrirCorpo(HttpResponse<InputStream> response) throws IOException {
+        boolean gzip = response.headers().firstValue("Content-Encoding")
+                .map(valor -> valor.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        return gzip ? new GZIPInputStream(response.body()) : response.body();
+    }
+
+    private static String lerTexto(InputStream corpo) throws IOException {
+        return new String(corpo.readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
@@ -1,19 +1,36 @@
 package br.com.alura.literalura.service;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
 @Component
 public class ConverteDados implements IConverteDados {
 
-    private ObjectMapper mapper = new ObjectMapper();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    // ObjectReader é imutável e seguro entre threads: um por tipo, criado uma única vez
+    private final Map<Class<?>, ObjectReader> leitores = new ConcurrentHashMap<>();
 
     public ConverteDados() {
         mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     }
 
+    private ObjectReader leitor(Class<?> classe) {
+        return leitores.computeIfAbsent(classe, mapper::readerFor);
+    }
+
     @Override
     public <T> T obterDados(String json, Class<T> classe) {
         if (json == null || json.trim().isEmpty()) {
@@ -21,10 +38,62 @@ public class ConverteDados implements IConverteDados {
             return null;
         }
         try {
-            return mapper.readValue(json, classe);
+            return leitor(classe).readValue(json);
         } catch (JsonProcessingException e) {
             System.err.println("Erro ao converter JSON para a classe " + classe.getSimpleName() + ": " + e.getMessage());
             return null;
         }
     }
+
+    @Override
+    public <T> T obterDados(InputStream json, Class<T> classe) {
+        if (json == null) {
+            System.err.println("Erro ao converter JSON: conteúdo nulo.");
+            return null;
+        }
+        try {
+            return leitor(classe).readValue(json);
+        } catch (IOException e) {
+            System.err.println("Erro ao converter JSON para a classe " + classe.getSimpleName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public <T, E> E percorrerLista(InputStream json, String campoLista, Class<T> classeItem, int limite,
+                                   Consumer<? super T> consumidor, Class<E> classeEnvelope) {
+        if (json == null) {
+            System.err.println("Erro ao converter JSON: conteúdo nulo.");
+            return null;
+        }
+        ObjectReader leitorItem = leitor(classeItem);
+        try (JsonParser parser = mapper.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                System.err.println("Erro ao converter JSON: era esperado um objeto.");
+                return null;
+            }
+            ObjectNode demaisCampos = mapper.createObjectNode();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                JsonToken valor = parser.nextToken();
+                if (campo.equals(campoLista) && valor == JsonToken.START_ARRAY) {
+                    // Cada item é convertido e entregue antes de o próximo ser lido; passado o limite, só pulado
+                    int lidos = 0;
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        if (lidos++ < limite) {
+                            consumidor.accept(leitorItem.readValue(parser));
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    demaisCampos.set(campo, mapper.readTree(parser));
+                }
+            }
+            return leitor(classeEnvelope).readValue(demaisCampos);
+        } catch (IOException e) {
+            System.err.println("Erro ao converter JSON para a classe " + classeItem.getSimpleName() + ": " + e.getMessage());
+            return null;
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package br.com.alura.literalura.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posição de uma paginação por keyset: a chave de ordenação e o id do último item entregue.
+ * Trafega como texto opaco (Base64 URL-safe) para que o cliente não dependa do formato.
+ */
+public record CursorPaginacao(String chave, long id) {
+
+    private static final char SEPARADOR = '\u0000';
+
+    public String codificar() {
+        String bruto = id + String.valueOf(SEPARADOR) + chave;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bruto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Lê o cursor recebido; {@code null} ou vazio indica a primeira página. */
+    public static CursorPaginacao decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String bruto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = bruto.indexOf(SEPARADOR);
+            return new CursorPaginacao(bruto.substring(separador + 1), Long.parseLong(bruto.substring(0, separador)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package br.com.alura.literalura.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publicado pela atualização de downloads com os valores novos (id do livro -> downloads); chega após o commit.
+ * Leva também os idiomas e ids dos tópicos dos livros alterados, lidos na transação que os gravou, para o
+ * ranking de downloads não consultar o banco ao receber o evento.
+ */
+public record DownloadsAlteradosEvento(
+        Map<Long, Integer> downloadsPorLivro,
+        Map<Long, List<String>> idiomasPorLivro,
+        Map<Long, List<Long>> topicosPorLivro) {
+}
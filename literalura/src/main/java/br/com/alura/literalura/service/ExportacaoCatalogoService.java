@@ -0,0 +1,219 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.model.DTO.LivroExportacaoDTO;
+import br.com.alura.literalura.model.DTO.RelatorioExportacao;
+import br.com.alura.literalura.repository.TopicoRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exporta o catálogo em NDJSON ou CSV sem montar a lista de livros em memória: as linhas vêm
+ * de um cursor somente-leitura (projeção, não entidades) e são gravadas em blocos do tamanho
+ * do fetch size. O consumo de heap não depende do tamanho do catálogo.
+ */
+@Service
+public class ExportacaoCatalogoService {
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private static final String CONSULTA_LIVROS = """
+            SELECT new br.com.alura.literalura.model.DTO.LivroExportacaoDTO(
+                l.id, l.titulo, l.idioma, l.numeroDownloads, l.idApi, a.nome, a.anoNascimento, a.anoFalecimento)
+            FROM Livro l LEFT JOIN l.autor a
+            ORDER BY l.id
+            """;
+
+    private static final String CABECALHO_CSV =
+            "id,titulo,idioma,numero_downloads,id_api,autor,ano_nascimento_autor,ano_falecimento_autor,topicos";
+
+    private final EntityManager entityManager;
+    private final TopicoRepository topicoRepository;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final int fetchSize;
+
+    public ExportacaoCatalogoService(EntityManager entityManager,
+                                     TopicoRepository topicoRepository,
+                                     @Value("${literalura.exportacao.fetch-size:500}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.topicoRepository = topicoRepository;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Grava todos os livros em {@code destino}, no formato informado, opcionalmente compactado
+     * com gzip. O arquivo é sobrescrito se já existir.
+     */
+    @Transactional(readOnly = true)
+    public RelatorioExportacao exportarLivros(Path destino, FormatoExportacao formato, boolean compactar) {
+        long inicio = System.nanoTime();
+        long exportados = 0;
+
+        // No PostgreSQL o fetch size só vale dentro de uma transação (sem autocommit)
+        try (Stream<LivroExportacaoDTO> linhas = entityManager.createQuery(CONSULTA_LIVROS, LivroExportacaoDTO.class)
+                     .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                     .setHint(HibernateHints.HINT_READ_ONLY, true)
+                     .getResultStream();
+             FileChannel canal = FileChannel.open(destino, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             Writer saida = abrirSaida(canal, compactar);
+             GravadorLinhas gravador = formato == FormatoExportacao.CSV
+                     ? new GravadorCsv(saida)
+                     : new GravadorNdjson(mapper.getFactory().createGenerator(saida))) {
+
+            List<LivroExportacaoDTO> bloco = new ArrayList<>(fetchSize);
+            Iterator<LivroExportacaoDTO> cursor = linhas.iterator();
+            while (cursor.hasNext()) {
+                bloco.add(cursor.next());
+                if (bloco.size() == fetchSize) {
+                    exportados += gravarBloco(bloco, gravador);
+                }
+            }
+            exportados += gravarBloco(bloco, gravador);
+            gravador.finalizar();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao exportar o catálogo para " + destino, e);
+        }
+
+        try {
+            return new RelatorioExportacao(destino, exportados, Files.size(destino),
+                    Duration.ofNanos(System.nanoTime() - inicio));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Writer abrirSaida(FileChannel canal, boolean compactar) throws IOException {
+        OutputStream saida = Channels.newOutputStream(canal);
+        if (compactar) saida = new GZIPOutputStream(saida, TAMANHO_BUFFER);
+        return new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+    }
+
+    /** Busca os tópicos do bloco numa única consulta, grava as linhas e libera o bloco. */
+    private int gravarBloco(List<LivroExportacaoDTO> bloco, GravadorLinhas gravador) throws IOException {
+        if (bloco.isEmpty()) return 0;
+
+        Map<Long, List<String>> topicosPorLivro = new HashMap<>();
+        List<Long> ids = bloco.stream().map(LivroExportacaoDTO::id).toList();
+        for (Object[] linha : topicoRepository.findNomesPorLivroIdIn(ids)) {
+            topicosPorLivro.computeIfAbsent((Long) linha[0], id -> new ArrayList<>()).add((String) linha[1]);
+        }
+
+        for (LivroExportacaoDTO livro : bloco) {
+            gravador.gravar(livro.comTopicos(topicosPorLivro.getOrDefault(livro.id(), List.of())));
+        }
+        int gravados = bloco.size();
+        bloco.clear();
+        entityManager.clear();
+        return gravados;
+    }
+
+    /** Grava as linhas num {@link Writer} que continua sendo de quem o abriu. */
+    private interface GravadorLinhas extends Closeable {
+        void gravar(LivroExportacaoDTO livro) throws IOException;
+
+        void finalizar() throws IOException;
+
+        @Override
+        default void close() throws IOException {}
+    }
+
+    /** Um objeto JSON por linha. */
+    private static final class GravadorNdjson implements GravadorLinhas {
+        private final JsonGenerator gerador;
+        private boolean vazio = true;
+
+        GravadorNdjson(JsonGenerator gerador) {
+            this.gerador = gerador;
+            gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gerador.setRootValueSeparator(new SerializedString("\n"));
+        }
+
+        @Override
+        public void gravar(LivroExportacaoDTO livro) throws IOException {
+            gerador.writeObject(livro);
+            vazio = false;
+        }
+
+        @Override
+        public void finalizar() throws IOException {
+            // Quebra de linha só depois da última linha; exportação vazia gera arquivo vazio
+            if (!vazio) gerador.writeRaw('\n');
+            gerador.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            gerador.close();
+        }
+    }
+
+    /** CSV no formato RFC 4180; os tópicos vão numa única coluna separados por "; ". */
+    private static final class GravadorCsv implements GravadorLinhas {
+        private final Writer saida;
+
+        GravadorCsv(Writer saida) throws IOException {
+            this.saida = saida;
+            saida.write(CABECALHO_CSV);
+            saida.write("\r\n");
+        }
+
+        @Override
+        public void gravar(LivroExportacaoDTO livro) throws IOException {
+            saida.write(String.valueOf(livro.id()));
+            saida.write(',');
+            saida.write(campo(livro.titulo()));
+            saida.write(',');
+            saida.write(campo(livro.idioma()));
+            saida.write(',');
+            saida.write(campo(livro.numeroDownloads()));
+            saida.write(',');
+            saida.write(campo(livro.idApi()));
+            saida.write(',');
+            saida.write(campo(livro.autor()));
+            saida.write(',');
+            saida.write(campo(livro.anoNascimentoAutor()));
+            saida.write(',');
+            saida.write(campo(livro.anoFalecimentoAutor()));
+            saida.write(',');
+            saida.write(campo(String.join("; ", livro.topicos())));
+            saida.write("\r\n");
+        }
+
+        @Override
+        public void finalizar() throws IOException {
+            saida.flush();
+        }
+
+        private static String campo(Object valor) {
+            if (valor == null) return "";
+            String texto = valor.toString();
+            boolean precisaAspas = texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0
+                    || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0;
+            return precisaAspas ? '"' + texto.replace("\"", "\"\"") + '"' : texto;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.model.DTO.EstatisticasFilaTraducaoDTO;
+import br.com.alura.literalura.model.TraducaoPendente;
+import br.com.alura.literalura.model.TraducaoPendente.Situacao;
+import br.com.alura.literalura.repository.TopicoRepository;
+import br.com.alura.literalura.repository.TraducaoPendenteRepository;
+import br.com.alura.literalura.service.consultaMemory.ConsultaMemory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Fila durável (tabela {@code traducoes_pendentes}) com as traduções de tópicos ainda não feitas.
+ * O livro é gravado com os tópicos originais e um conjunto limitado de threads em segundo plano
+ * traduz os pendentes, trocando no livro o tópico original pelo traduzido.
+ */
+@Component
+public class FilaTraducaoTopicos implements SmartLifecycle, MeterBinder {
+
+    private final TraducaoPendenteRepository pendenteRepository;
+    private final TopicoRepository topicoRepository;
+    private final ResolvedorTopicos resolvedorTopicos;
+    private final ConsultaMemory consultaMemory;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventos;
+
+    @Value("${literalura.traducao.fila.workers:2}")
+    private int workers;
+
+    // Quantidade de itens traduzidos por tarefa (vão juntos para a tradução em lote)
+    @Value("${literalura.traducao.fila.tamanho-lote:20}")
+    private int tamanhoLote;
+
+    @Value("${literalura.traducao.fila.intervalo:2s}")
+    private Duration intervalo;
+
+    @Value("${literalura.traducao.fila.max-tentativas:5}")
+    private int maxTentativas;
+
+    @Value("${literalura.traducao.fila.tempo-drenagem:30s}")
+    private Duration tempoDrenagem;
+
+    private ScheduledExecutorService agendador;
+    private ThreadPoolExecutor executor;
+    private volatile boolean rodando;
+
+    private final AtomicLong concluidas = new AtomicLong();
+    private final AtomicLong reagendadas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    // Itens PENDENTE na tabela, mantido pela própria fila para o gauge não consultar o banco a cada coleta
+    private final AtomicLong pendentes = new AtomicLong();
+    // Criação do PENDENTE mais antigo (null com a fila vazia), relida a cada busca por trabalho
+    private final AtomicReference<LocalDateTime> pendenteMaisAntigo = new AtomicReference<>();
+
+    public FilaTraducaoTopicos(TraducaoPendenteRepository pendenteRepository,
+                               TopicoRepository topicoRepository,
+                               ResolvedorTopicos resolvedorTopicos,
+                               ConsultaMemory consultaMemory,
+                               TransactionTemplate transactionTemplate,
+                               ApplicationEventPublisher eventos) {
+        this.pendenteRepository = pendenteRepository;
+        this.topicoRepository = topicoRepository;
+        this.resolvedorTopicos = resolvedorTopicos;
+        this.consultaMemory = consultaMemory;
+        this.transactionTemplate = transactionTemplate;
+        this.eventos = eventos;
+    }
+
+    /**
+     * Registra a tradução dos tópicos do livro (nome original -> id do tópico);
+     * grava na mesma transação que salvou o livro.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enfileirar(Long livroId, Map<String, Long> topicos, String idioma) {
+        List<TraducaoPendente> novos = topicos.entrySet().stream()
+                .map(topico -> new TraducaoPendente(livroId, topico.getValue(), topico.getKey(), idioma))
+                .toList();
+        pendenteRepository.saveAll(novos);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pendentes.addAndGet(novos.size());
+                // Com a fila vazia, os novos passam a ser os mais antigos
+                if (!novos.isEmpty()) pendenteMaisAntigo.compareAndSet(null, novos.get(0).getCriadoEm());
+            }
+        });
+    }
+
+    public EstatisticasFilaTraducaoDTO estatisticas() {
+        LocalDateTime maisAntiga = pendenteRepository.findCriacaoMaisAntiga();
+        Duration atraso = maisAntiga != null ? Duration.between(maisAntiga, LocalDateTime.now()) : Duration.ZERO;
+        long naFila = pendenteRepository.countBySituacao(Situacao.PENDENTE);
+        // A contagem feita aqui de qualquer forma também acerta o valor do gauge
+        pendentes.set(naFila);
+        return new EstatisticasFilaTraducaoDTO(
+                naFila,
+                pendenteRepository.countBySituacao(Situacao.EM_PROCESSAMENTO),
+                atraso,
+                concluidas.get(),
+                reagendadas.get(),
+                descartadas.get());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registro) {
+        FunctionCounter.builder("literalura.traducao.fila.itens", concluidas, AtomicLong::get)
+                .tag("resultado", "concluido").register(registro);
+        FunctionCounter.builder("literalura.traducao.fila.itens", reagendadas, AtomicLong::get)
+                .tag("resultado", "reagendado").register(registro);
+        FunctionCounter.builder("literalura.traducao.fila.itens", descartadas, AtomicLong::get)
+                .tag("resultado", "descartado").register(registro);
+        Gauge.builder("literalura.traducao.fila.pendentes", pendentes, AtomicLong::get)
+                .register(registro);
+        TimeGauge.builder("literalura.traducao.fila.pendente.idade", pendenteMaisAntigo, TimeUnit.MILLISECONDS,
+                        FilaTraducaoTopicos::idadeEmMillis)
+                .register(registro);
+    }
+
+    private static double idadeEmMillis(AtomicReference<LocalDateTime> criacao) {
+        LocalDateTime maisAntigo = criacao.get();
+        return maisAntigo == null ? 0 : Duration.between(maisAntigo, LocalDateTime.now()).toMillis();
+    }
+
+    @Override
+    public void start() {
+        // Itens que estavam em processamento quando a aplicação parou voltam para a fila
+        transactionTemplate.executeWithoutResult(status -> pendenteRepository.liberarEmProcessamento());
+        pendentes.set(pendenteRepository.countBySituacao(Situacao.PENDENTE));
+        pendenteMaisAntigo.set(pendenteRepository.findCriacaoMaisAntigaBySituacao(Situacao.PENDENTE));
+
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "traducao-topicos");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        agendador = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "traducao-topicos-agendador");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rodando = true;
+        agendador.scheduleWithFixedDelay(this::buscarTrabalho,
+                intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        rodando = false;
+        agendador.shutdownNow();
+        executor.shutdown();
+        try {
+            // Deixa terminar as traduções em andamento antes de o banco ser fechado
+            if (!executor.awaitTermination(tempoDrenagem.toMillis(), TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+                System.err.println("AVISO: Fila de traduções não esvaziou a tempo; itens restantes serão retomados no próximo início.");
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return rodando;
+    }
+
+    /** Reserva itens prontos até ocupar os workers livres e distribui as tarefas, agrupadas por idioma. */
+    private void buscarTrabalho() {
+        try {
+            int tarefasLivres = workers * 2 - executor.getActiveCount() - executor.getQueue().size();
+            if (!rodando || tarefasLivres <= 0) return;
+
+            List<TraducaoPendente> reservadas = transactionTemplate.execute(status -> {
+                List<TraducaoPendente> prontas = pendenteRepository.findProntasParaProcessar(
+                        LocalDateTime.now(), PageRequest.of(0, tarefasLivres * tamanhoLote));
+                if (!prontas.isEmpty()) {
+                    pendenteRepository.atualizarSituacao(
+                            prontas.stream().map(TraducaoPendente::getId).toList(), Situacao.EM_PROCESSAMENTO);
+                }
+                return prontas;
+            });
+            pendentes.addAndGet(-reservadas.size());
+            pendenteMaisAntigo.set(pendenteRepository.findCriacaoMaisAntigaBySituacao(Situacao.PENDENTE));
+
+            Map<String, List<TraducaoPendente>> porIdioma = reservadas.stream()
+                    .collect(Collectors.groupingBy(TraducaoPendente::getIdioma));
+            porIdioma.forEach((idioma, itens) -> {
+                for (int i = 0; i < itens.size(); i += tamanhoLote) {
+                    List<TraducaoPendente> tarefa = itens.subList(i, Math.min(i + tamanhoLote, itens.size()));
+                    executor.execute(() -> processar(idioma, tarefa));
+                }
+            });
+        } catch (Exception e) {
+            System.err.println("Erro ao buscar traduções pendentes: " + e.getMessage());
+        }
+    }
+
+    private void processar(String idioma, List<TraducaoPendente> itens) {
+        try {
+            Set<String> textos = itens.stream().map(TraducaoPendente::getTexto).collect(Collectors.toSet());
+            Map<String, String> traducoes = consultaMemory.obterTraducoesDisponiveis(textos, idioma);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                Balanco balanco = new Balanco();
+                for (TraducaoPendente item : itens) {
+                    String traducao = traducoes.get(item.getTexto());
+                    if (traducao != null) aplicar(item, traducao, balanco);
+                    else reagendar(item, balanco);
+                }
+                balanco.somarAposCommit();
+            });
+        } catch (Exception e) {
+            System.err.println("Erro ao aplicar traduções pendentes: " + e.getMessage());
+            // Relidos do banco: a transação desfeita pode já ter somado uma tentativa às instâncias em memória
+            transactionTemplate.executeWithoutResult(status -> {
+                Balanco balanco = new Balanco();
+                pendenteRepository.findAllById(itens.stream().map(TraducaoPendente::getId).toList())
+                        .forEach(item -> reagendar(item, balanco));
+                balanco.somarAposCommit();
+            });
+        }
+    }
+
+    /** Troca, no livro, o tópico original pelo tópico com o nome traduzido. */
+    private void aplicar(TraducaoPendente item, String traducao, Balanco balanco) {
+        Long traduzidoId = resolvedorTopicos.resolver(List.of(traducao)).get(traducao);
+        if (traduzidoId != null && !traduzidoId.equals(item.getTopicoId())) {
+            topicoRepository.desvincularDoLivro(item.getLivroId(), item.getTopicoId());
+            topicoRepository.vincularAoLivro(item.getLivroId(), traduzidoId);
+            eventos.publishEvent(new TopicoTrocadoEvento(item.getLivroId(), item.getTopicoId(), traduzidoId));
+        }
+        pendenteRepository.deleteById(item.getId());
+        balanco.concluidas++;
+    }
+
+    /** Devolve o item à fila com espera exponencial, ou o descarta após o limite de tentativas. */
+    private void reagendar(TraducaoPendente item, Balanco balanco) {
+        item.setTentativas(item.getTentativas() + 1);
+        if (item.getTentativas() >= maxTentativas) {
+            pendenteRepository.deleteById(item.getId());
+            balanco.descartadas++;
+            return;
+        }
+        item.setSituacao(Situacao.PENDENTE);
+        item.setProximaTentativa(LocalDateTime.now().plus(intervalo.multipliedBy(1L << item.getTentativas())));
+        pendenteRepository.save(item);
+        balanco.reagendadas++;
+    }
+
+    /** Resultado de uma transação da fila; só chega aos contadores se ela for confirmada. */
+    private final class Balanco {
+        int concluidas;
+        int reagendadas;
+        int descartadas;
+
+        void somarAposCommit() {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    FilaTraducaoTopicos.this.concluidas.addAndGet(concluidas);
+                    FilaTraducaoTopicos.this.reagendadas.addAndGet(reagendadas);
+                    FilaTraducaoTopicos.this.descartadas.addAndGet(descartadas);
+                    // Os reagendados voltaram a ser PENDENTE
+                    pendentes.addAndGet(reagendadas);
+                }
+            });
+        }
+    }
+}
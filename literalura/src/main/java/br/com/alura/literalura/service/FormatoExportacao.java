@@ -0,0 +1,17 @@
+package br.com.alura.literalura.service;
+
+/** Formatos aceitos na exportação do catálogo. */
+public enum FormatoExportacao {
+    NDJSON(".ndjson"),
+    CSV(".csv");
+
+    private final String extensao;
+
+    FormatoExportacao(String extensao) {
+        this.extensao = extensao;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+}
@@ -2,8 +2,31 @@ package br.com.alura.literalura.service;
 
 import org.springframework.stereotype.Component;
 
+import java.io.InputStream;
+import java.util.function.Consumer;
+
 @Component
 public interface IConverteDados {
 
     <T> T obterDados(String json, Class<T> classe);
+
+    /** Converte lendo direto do corpo da resposta, sem montar a String do JSON. */
+    <T> T obterDados(InputStream json, Class<T> classe);
+
+    /**
+     * Lê um objeto JSON entregando os itens do array {@code campoLista} um a um ao consumidor,
+     * sem guardar o array. Os demais campos são convertidos em {@code classeEnvelope}
+     * (o campo da lista fica nulo). Devolve {@code null} se o JSON for inválido.
+     */
+    default <T, E> E percorrerLista(InputStream json, String campoLista, Class<T> classeItem,
+                                    Consumer<? super T> consumidor, Class<E> classeEnvelope) {
+        return percorrerLista(json, campoLista, classeItem, Integer.MAX_VALUE, consumidor, classeEnvelope);
+    }
+
+    /**
+     * Como o anterior, mas só os primeiros {@code limite} itens são convertidos; os demais
+     * são pulados pelo parser, sem virar objeto.
+     */
+    <T, E> E percorrerLista(InputStream json, String campoLista, Class<T> classeItem, int limite,
+                            Consumer<? super T> consumidor, Class<E> classeEnvelope);
 }
@@ -0,0 +1,120 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.model.DTO.DadosLivro;
+import br.com.alura.literalura.model.DTO.RelatorioImportacaoLote;
+import br.com.alura.literalura.model.DTO.ResultadoImportacaoTitulo;
+import br.com.alura.literalura.model.DTO.ResultadoImportacaoTitulo.Situacao;
+import br.com.alura.literalura.model.Livro;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Importa uma lista de títulos de uma vez: as buscas na API rodam em paralelo, limitadas a
+ * {@code literalura.importacao.max-em-voo} chamadas simultâneas (o espaçamento por host fica a
+ * cargo do {@link LimitadorTaxaPorHost} do {@link ConsumoApi}), e cada livro encontrado é
+ * gravado na sua própria transação curta.
+ */
+@Service
+public class ImportacaoLoteService {
+
+    private final CatalogoService catalogoService;
+    private final int maxEmVoo;
+
+    public ImportacaoLoteService(CatalogoService catalogoService,
+                                 @Value("${literalura.importacao.max-em-voo:8}") int maxEmVoo) {
+        if (maxEmVoo < 1) {
+            throw new IllegalArgumentException("literalura.importacao.max-em-voo deve ser maior que zero");
+        }
+        this.catalogoService = catalogoService;
+        this.maxEmVoo = maxEmVoo;
+    }
+
+    /**
+     * Busca e grava cada título informado. Títulos repetidos (ignorando maiúsculas e espaços nas
+     * pontas) e linhas em branco são descartados; o relatório segue a ordem de entrada.
+     */
+    public RelatorioImportacaoLote importarTitulos(Collection<String> titulos) {
+        long inicio = System.nanoTime();
+        Map<String, String> unicos = new LinkedHashMap<>();
+        for (String titulo : titulos) {
+            if (titulo != null && !titulo.isBlank()) unicos.putIfAbsent(titulo.trim().toLowerCase(Locale.ROOT), titulo.trim());
+        }
+
+        List<ResultadoImportacaoTitulo> resultados = new ArrayList<>(unicos.size());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(maxEmVoo, unicos.size())), novaThread());
+        try {
+            List<Future<ResultadoImportacaoTitulo>> pendentes = new ArrayList<>(unicos.size());
+            for (String titulo : unicos.values()) {
+                long enfileirado = System.nanoTime();
+                pendentes.add(executor.submit(() -> importar(titulo, enfileirado)));
+            }
+            for (Future<ResultadoImportacaoTitulo> pendente : pendentes) {
+                resultados.add(pendente.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("AVISO: Importação em lote interrompida após " + resultados.size() + " títulos.");
+        } catch (ExecutionException e) {
+            // importar() já converte as falhas em resultado; só chega aqui um erro inesperado
+            throw new IllegalStateException("Falha na importação em lote", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new RelatorioImportacaoLote(resultados, maxEmVoo, Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    private ResultadoImportacaoTitulo importar(String titulo, long enfileirado) {
+        long inicioBusca = System.nanoTime();
+        Duration espera = Duration.ofNanos(inicioBusca - enfileirado);
+
+        // Título já catalogado: nada a buscar nem a gravar
+        Optional<Livro> local = catalogoService.buscarNoCatalogo(titulo);
+        if (local.isPresent()) {
+            return new ResultadoImportacaoTitulo(titulo, Situacao.DUPLICADO, local.get().getTitulo(), espera,
+                    Duration.ofNanos(System.nanoTime() - inicioBusca), Duration.ZERO, null);
+        }
+
+        Optional<DadosLivro> dados;
+        try {
+            dados = catalogoService.buscarLivroNaApi(titulo);
+        } catch (RuntimeException e) {
+            return new ResultadoImportacaoTitulo(titulo, Situacao.FALHA, null, espera,
+                    Duration.ofNanos(System.nanoTime() - inicioBusca), Duration.ZERO, e.getMessage());
+        }
+        Duration busca = Duration.ofNanos(System.nanoTime() - inicioBusca);
+        if (dados.isEmpty()) {
+            return new ResultadoImportacaoTitulo(titulo, Situacao.NAO_ENCONTRADO, null, espera, busca, Duration.ZERO, null);
+        }
+
+        // Conflitos com gravações simultâneas do mesmo livro ou autor são resolvidos pelo CatalogoService
+        long inicioGravacao = System.nanoTime();
+        try {
+            CatalogoService.ResultadoCadastro cadastro = catalogoService.salvarLivroDaApi(dados.get());
+            return new ResultadoImportacaoTitulo(titulo, cadastro.novo() ? Situacao.SALVO : Situacao.DUPLICADO,
+                    cadastro.livro().getTitulo(), espera, busca, Duration.ofNanos(System.nanoTime() - inicioGravacao), null);
+        } catch (RuntimeException e) {
+            System.err.println("Erro ao gravar o livro '" + dados.get().titulo() + "': " + e.getMessage());
+            return new ResultadoImportacaoTitulo(titulo, Situacao.FALHA, dados.get().titulo(), espera, busca,
+                    Duration.ofNanos(System.nanoTime() - inicioGravacao), e.getMessage());
+        }
+    }
+
+    private static ThreadFactory novaThread() {
+        AtomicInteger contador = new AtomicInteger();
+        return tarefa -> {
+            Thread thread = new Thread(tarefa, "importacao-lote-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,121 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.model.Checkpoint;
+import br.com.alura.literalura.model.DTO.DadosRespostaApi;
+import br.com.alura.literalura.model.DTO.RelatorioIngestao;
+import br.com.alura.literalura.model.Livro;
+import br.com.alura.literalura.repository.CheckpointRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Ingestão em massa do catálogo do Gutendex: percorre as páginas seguindo o link "next"
+ * e grava cada página numa única transação, junto com o checkpoint da próxima página.
+ */
+@Service
+public class IngestaoCatalogoService {
+
+    static final String CHECKPOINT_INGESTAO = "ingestao-catalogo";
+    private static final int TENTATIVAS_EM_CONFLITO = 3;
+
+    private final CatalogoService catalogoService;
+    private final CheckpointRepository checkpointRepository;
+    private final ConsumoApi consumoApi;
+    private final IConverteDados conversor;
+    private final TransactionTemplate transactionTemplate;
+
+    // Primeira página do catálogo completo (sem filtro de busca)
+    @Value("${literalura.ingestao.url-inicial:https://gutendex.com/books/}")
+    private String urlInicial;
+
+    public IngestaoCatalogoService(CatalogoService catalogoService,
+                                   CheckpointRepository checkpointRepository,
+                                   ConsumoApi consumoApi,
+                                   IConverteDados conversor,
+                                   TransactionTemplate transactionTemplate) {
+        this.catalogoService = catalogoService;
+        this.checkpointRepository = checkpointRepository;
+        this.consumoApi = consumoApi;
+        this.conversor = conversor;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Percorre o catálogo a partir da primeira página ou, se {@code retomar} for verdadeiro,
+     * da página seguinte à última concluída. Para após {@code maxPaginas} páginas (0 = sem limite)
+     * ou quando a API não informar mais páginas.
+     */
+    public RelatorioIngestao ingerirCatalogoCompleto(boolean retomar, int maxPaginas) {
+        long inicio = System.nanoTime();
+        Checkpoint checkpoint = checkpointRepository.findById(CHECKPOINT_INGESTAO)
+                .filter(c -> retomar && c.getValor() != null)
+                .orElseGet(() -> new Checkpoint(CHECKPOINT_INGESTAO));
+
+        String url = checkpoint.getValor() != null ? checkpoint.getValor() : urlInicial;
+        int paginas = 0;
+        int salvos = 0;
+        int ignorados = 0;
+
+        while (url != null && (maxPaginas <= 0 || paginas < maxPaginas)) {
+            DadosRespostaApi resposta = consumoApi.obterDados(url,
+                    corpo -> conversor.obterDados(corpo, DadosRespostaApi.class));
+            if (resposta == null || resposta.livros() == null) {
+                System.err.println("ERRO: Página inválida ou indisponível, ingestão interrompida em: " + url);
+                break;
+            }
+
+            String proximaPagina = resposta.proximaPagina();
+            List<Livro> novos = gravarPagina(resposta, checkpoint);
+
+            paginas++;
+            salvos += novos.size();
+            ignorados += resposta.livros().size() - novos.size();
+            url = proximaPagina;
+
+            double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+            System.out.printf("INFO: Página %d concluída: %d novos, %d ignorados (%.1f livros/s)%n",
+                    paginas, novos.size(), resposta.livros().size() - novos.size(),
+                    (salvos + ignorados) / segundos);
+        }
+
+        RelatorioIngestao relatorio = new RelatorioIngestao(paginas, salvos, ignorados,
+                Duration.ofNanos(System.nanoTime() - inicio), url == null);
+        if (relatorio.concluida()) {
+            // Catálogo percorrido até o fim: a próxima execução recomeça da primeira página
+            checkpointRepository.deleteById(CHECKPOINT_INGESTAO);
+        }
+        return relatorio;
+    }
+
+    /**
+     * Grava a página e o checkpoint numa transação. Se uma gravação simultânea (busca por título,
+     * importação em lote) criar um dos livros ou autores antes, a chave única rejeita a página e
+     * ela é refeita: a nova tentativa relê os cadastrados e já os encontra. Outras violações de
+     * integridade são relançadas sem nova tentativa.
+     */
+    private List<Livro> gravarPagina(DadosRespostaApi resposta, Checkpoint checkpoint) {
+        for (int tentativa = 1; ; tentativa++) {
+            long processadosAntes = checkpoint.getProcessados();
+            try {
+                return transactionTemplate.execute(status -> {
+                    List<Livro> gravados = catalogoService.salvarNovosLivros(resposta.livros());
+                    checkpoint.setValor(resposta.proximaPagina());
+                    checkpoint.setProcessados(processadosAntes + resposta.livros().size());
+                    checkpoint.setAtualizadoEm(LocalDateTime.now());
+                    checkpointRepository.saveAndFlush(checkpoint);
+                    return gravados;
+                });
+            } catch (DataIntegrityViolationException e) {
+                checkpoint.setProcessados(processadosAntes);
+                if (!CatalogoService.violouChaveUnica(e) || tentativa == TENTATIVAS_EM_CONFLITO) throw e;
+                System.out.println("INFO: Conflito com outra gravação; refazendo a página.");
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package br.com.alura.literalura.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Espaça as requisições feitas a um mesmo host para não passar de um número de chamadas por
+ * segundo. Em vez de bloquear quem chama, {@link #reservar(String)} devolve quanto tempo esperar
+ * até o horário reservado, para que o envio possa ser agendado.
+ */
+@Component
+public class LimitadorTaxaPorHost {
+
+    private final long intervaloNanos;
+    private final Map<String, AtomicLong> proximoHorario = new ConcurrentHashMap<>();
+
+    /** @param requisicoesPorSegundo limite por host; 0 ou negativo desliga o limitador */
+    public LimitadorTaxaPorHost(@Value("${literalura.http.requisicoes-por-segundo:10}") double requisicoesPorSegundo) {
+        this.intervaloNanos = requisicoesPorSegundo > 0 ? (long) (1_000_000_000L / requisicoesPorSegundo) : 0;
+    }
+
+    /** Reserva o próximo horário livre do host e devolve a espera até ele, em nanossegundos. */
+    public long reservar(String host) {
+        if (intervaloNanos == 0 || host == null) return 0;
+        AtomicLong proximo = proximoHorario.computeIfAbsent(host.toLowerCase(Locale.ROOT), h -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long agora = System.nanoTime();
+            long livre = proximo.get();
+            long reservado = livre == Long.MIN_VALUE || livre - agora < 0 ? agora : livre;
+            if (proximo.compareAndSet(livre, reservado + intervaloNanos)) {
+                return reservado - agora;
+            }
+        }
+    }
+}
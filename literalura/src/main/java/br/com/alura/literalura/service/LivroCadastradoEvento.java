@@ -0,0 +1,21 @@
+package br.com.alura.literalura.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Publicado quando um livro novo é gravado; os índices em memória o recebem após o commit.
+ * Leva também downloads, idiomas e ids dos tópicos, usados pelo ranking de downloads.
+ */
+public record LivroCadastradoEvento(
+        Long id,
+        String titulo,
+        Integer numeroDownloads,
+        Set<String> idiomas,
+        Collection<Long> topicos) {
+
+    public LivroCadastradoEvento(Long id, String titulo) {
+        this(id, titulo, null, Set.of(), List.of());
+    }
+}
@@ -0,0 +1,55 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.model.Autor;
+import br.com.alura.literalura.model.DTO.DadosAutor;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolve o autor de um livro vindo da API pela chave normalizada do nome ({@link Autor#chaveDoNome}),
+ * sempre por igualdade exata. Mantém em memória o mapa chave -> id dos autores já vistos: um autor
+ * repetido na ingestão sai do mapa e do cache de segundo nível, sem consulta ao banco.
+ */
+@Component
+public class ResolvedorAutores {
+
+    private final EntityManager entityManager;
+    private final Map<String, Long> internados = new ConcurrentHashMap<>();
+
+    public ResolvedorAutores(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Autor cadastrado com o nome informado ou, se não houver, um autor novo ainda não gravado
+     * (id nulo). Deve ser chamado dentro da transação que vai gravar o livro.
+     */
+    public Autor resolver(DadosAutor dadosAutor) {
+        String chave = Autor.chaveDoNome(dadosAutor.nome());
+        Long id = internados.get(chave);
+        if (id != null) {
+            Autor autor = entityManager.find(Autor.class, id);
+            if (autor != null) return autor;
+            // Autor removido por fora da aplicação: esquece o id e procura de novo pela chave
+            internados.remove(chave, id);
+        }
+
+        Autor autor = entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Autor.class)
+                .load(chave);
+        if (autor == null) return new Autor(dadosAutor);
+        internados.putIfAbsent(chave, autor.getId());
+        return autor;
+    }
+
+    /** Autores criados pela ingestão só entram no mapa depois do commit. */
+    @TransactionalEventListener
+    public void aoCadastrarAutor(AutorCadastradoEvento evento) {
+        internados.putIfAbsent(Autor.chaveDoNome(evento.nome()), evento.id());
+    }
+}
@@ -0,0 +1,142 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.config.MigracaoEsquema;
+import br.com.alura.literalura.model.Topico;
+import br.com.alura.literalura.repository.TopicoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * Resolve nomes de tópicos para ids de forma agrupada: uma consulta {@code IN} para os existentes
+ * e um único lote de {@code INSERT} para os que faltam. Mantém em memória um mapa limitado
+ * nome normalizado -> id, para não voltar ao banco pelos nomes mais usados.
+ * <p>
+ * No PostgreSQL o lote usa {@code ON CONFLICT (lower(nome)) DO NOTHING}, apoiado no índice único
+ * criado pela {@link MigracaoEsquema}: uma ingestão simultânea que grave o mesmo tópico não derruba
+ * esta. Nos demais bancos o {@code INSERT} só pula os nomes já gravados; a corrida esbarra na chave
+ * única e quem chama refaz a gravação.
+ */
+@Component
+public class ResolvedorTopicos {
+
+    private static final String INSERIR_POSTGRES =
+            "INSERT INTO topicos (nome) VALUES (?) ON CONFLICT (lower(nome)) DO NOTHING";
+    private static final String INSERIR_PORTAVEL =
+            "INSERT INTO topicos (nome) SELECT CAST(? AS VARCHAR(255)) WHERE NOT EXISTS (SELECT 1 FROM topicos WHERE lower(nome) = ?)";
+
+    private final TopicoRepository topicoRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Long> internados;
+    private volatile Boolean bancoPostgres;
+
+    @Autowired
+    public ResolvedorTopicos(TopicoRepository topicoRepository, JdbcTemplate jdbcTemplate,
+                             @Value("${literalura.topicos.cache.capacidade:10000}") int capacidade) {
+        this.topicoRepository = topicoRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // LinkedHashMap em ordem de acesso: o tópico mais antigo sem uso sai ao passar da capacidade
+        this.internados = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> maisAntiga) {
+                return size() > capacidade;
+            }
+        });
+    }
+
+    /** Chave usada para comparar nomes de tópicos sem diferenciar maiúsculas e espaços nas pontas. */
+    static String normalizar(String nome) {
+        return nome.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Nome como será gravado: sem espaços nas pontas e limitado a 255 caracteres. */
+    static String ajustarNome(String nome) {
+        String ajustado = nome.trim();
+        return ajustado.length() > 255 ? ajustado.substring(0, 255) : ajustado;
+    }
+
+    /**
+     * Devolve, para cada nome informado, o id do tópico correspondente, criando os que
+     * ainda não existem. O mapa resultante é indexado pelo nome informado.
+     */
+    public Map<String, Long> resolver(Collection<String> nomes) {
+        Map<String, String> chavePorNome = new LinkedHashMap<>();
+        for (String nome : nomes) {
+            if (nome != null && !nome.isBlank()) chavePorNome.put(nome, normalizar(ajustarNome(nome)));
+        }
+
+        Map<String, Long> encontrados = new HashMap<>();
+        Set<String> faltantes = new LinkedHashSet<>();
+        for (String chave : chavePorNome.values()) {
+            Long internado = internados.get(chave);
+            if (internado != null) encontrados.put(chave, internado);
+            else faltantes.add(chave);
+        }
+
+        if (!faltantes.isEmpty()) {
+            Map<String, Long> existentes = buscarPorChaves(faltantes);
+            existentes.forEach(internados::putIfAbsent);
+            encontrados.putAll(existentes);
+            faltantes.removeAll(existentes.keySet());
+        }
+
+        if (!faltantes.isEmpty()) {
+            // Primeiro nome informado para cada chave faltante
+            Map<String, String> nomePorChave = new LinkedHashMap<>();
+            chavePorNome.forEach((nome, chave) -> {
+                if (faltantes.contains(chave)) nomePorChave.putIfAbsent(chave, ajustarNome(nome));
+            });
+            if (bancoPostgres()) {
+                jdbcTemplate.batchUpdate(INSERIR_POSTGRES,
+                        nomePorChave.values().stream().map(nome -> new Object[]{nome}).toList());
+            } else {
+                jdbcTemplate.batchUpdate(INSERIR_PORTAVEL, nomePorChave.entrySet().stream()
+                        .map(nome -> new Object[]{nome.getValue(), nome.getKey()}).toList());
+            }
+
+            Map<String, Long> criados = buscarPorChaves(faltantes);
+            encontrados.putAll(criados);
+            internarAposCommit(criados);
+        }
+
+        Map<String, Long> resultado = new LinkedHashMap<>();
+        chavePorNome.forEach((nome, chave) -> {
+            Long id = encontrados.get(chave);
+            if (id != null) resultado.put(nome, id);
+        });
+        return resultado;
+    }
+
+    private boolean bancoPostgres() {
+        if (bancoPostgres == null) bancoPostgres = MigracaoEsquema.bancoPostgres(jdbcTemplate);
+        return bancoPostgres;
+    }
+
+    private Map<String, Long> buscarPorChaves(Collection<String> chaves) {
+        Map<String, Long> porChave = new HashMap<>();
+        for (Topico topico : topicoRepository.findByNomeNormalizadoIn(chaves)) {
+            // Se houver variações só de maiúsculas, vale o tópico mais antigo (ordenado por id)
+            porChave.putIfAbsent(normalizar(topico.getNome()), topico.getId());
+        }
+        return porChave;
+    }
+
+    /** Tópicos criados na transação atual só entram no cache se ela for confirmada. */
+    private void internarAposCommit(Map<String, Long> criados) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            criados.forEach(internados::putIfAbsent);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                criados.forEach(internados::putIfAbsent);
+            }
+        });
+    }
+}
@@ -0,0 +1,5 @@
+package br.com.alura.literalura.service;
+
+/** Publicado quando a fila de tradução troca, num livro, o tópico original pelo traduzido; chega após o commit. */
+public record TopicoTrocadoEvento(Long livroId, Long topicoAnteriorId, Long topicoNovoId) {
+}
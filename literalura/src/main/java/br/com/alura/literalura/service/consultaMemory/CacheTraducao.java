@@ -0,0 +1,179 @@
+package br.com.alura.literalura.service.consultaMemory;
+
+import br.com.alura.literalura.model.Traducao;
+import br.com.alura.literalura.repository.TraducaoRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache de traduções em dois níveis: um LRU limitado em memória, apoiado pela tabela
+ * {@code traducoes}. Uma tradução conhecida nunca é buscada de novo, nem após reiniciar.
+ * Falhas ficam registradas por um curto período (cache negativo) para não insistir numa API instável.
+ */
+@Component
+public class CacheTraducao implements MeterBinder {
+
+    record Chave(String texto, String idioma) {}
+
+    private final TraducaoRepository traducaoRepository;
+    private final TransactionTemplate transacaoPropria;
+    private final Duration ttlNegativo;
+    private final Clock relogio;
+
+    private final Map<Chave, String> memoria;
+    private final Map<Chave, Instant> falhas = new ConcurrentHashMap<>();
+    // Falhas vencidas saem numa varredura feita no máximo uma vez por TTL negativo
+    private volatile Instant proximaLimpezaFalhas = Instant.MIN;
+
+    private final AtomicLong acertosMemoria = new AtomicLong();
+    private final AtomicLong acertosBanco = new AtomicLong();
+    private final AtomicLong faltas = new AtomicLong();
+    private final AtomicLong remocoes = new AtomicLong();
+    private final AtomicLong falhasEvitadas = new AtomicLong();
+
+    @Autowired
+    public CacheTraducao(TraducaoRepository traducaoRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${literalura.traducao.cache.capacidade:10000}") int capacidade,
+                         @Value("${literalura.traducao.cache.ttl-negativo:5m}") Duration ttlNegativo) {
+        this(traducaoRepository, transactionManager, capacidade, ttlNegativo, Clock.systemUTC());
+    }
+
+    CacheTraducao(TraducaoRepository traducaoRepository,
+                  PlatformTransactionManager transactionManager,
+                  int capacidade,
+                  Duration ttlNegativo,
+                  Clock relogio) {
+        this.traducaoRepository = traducaoRepository;
+        this.ttlNegativo = ttlNegativo;
+        this.relogio = relogio;
+
+        // Grava em transação própria: uma colisão na chave única não deve invalidar a transação do chamador
+        this.transacaoPropria = new TransactionTemplate(transactionManager);
+        this.transacaoPropria.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // LinkedHashMap em ordem de acesso: o mais antigo sem uso é descartado ao passar da capacidade
+        this.memoria = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Chave, String> maisAntiga) {
+                if (size() > capacidade) {
+                    remocoes.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** Procura a tradução primeiro em memória e depois no banco. */
+    public Optional<String> buscar(String texto, String idioma) {
+        Chave chave = new Chave(texto, idioma);
+        synchronized (memoria) {
+            String traducao = memoria.get(chave);
+            if (traducao != null) {
+                acertosMemoria.incrementAndGet();
+                return Optional.of(traducao);
+            }
+        }
+
+        Optional<String> doBanco = traducaoRepository.findByTextoAndIdioma(texto, idioma)
+                .map(Traducao::getTraducao);
+        if (doBanco.isPresent()) {
+            acertosBanco.incrementAndGet();
+            synchronized (memoria) {
+                memoria.put(chave, doBanco.get());
+            }
+        } else {
+            faltas.incrementAndGet();
+        }
+        return doBanco;
+    }
+
+    /**
+     * Guarda uma tradução obtida da API nos dois níveis. A gravação roda em transação própria
+     * (REQUIRES_NEW): chamado dentro de outra transação, segura uma segunda conexão até gravar.
+     * A fila de traduções chama fora de transação, com uma conexão só.
+     */
+    public void registrar(String texto, String idioma, String traducao) {
+        Chave chave = new Chave(texto, idioma);
+        synchronized (memoria) {
+            memoria.put(chave, traducao);
+        }
+        falhas.remove(chave);
+        try {
+            transacaoPropria.executeWithoutResult(status -> {
+                if (traducaoRepository.findByTextoAndIdioma(texto, idioma).isEmpty()) {
+                    traducaoRepository.save(new Traducao(texto, idioma, traducao));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Outra thread gravou a mesma tradução primeiro; o resultado é o mesmo
+        }
+    }
+
+    /** Marca a tradução como falha recente, para não repetir a chamada durante o TTL negativo. */
+    public void registrarFalha(String texto, String idioma) {
+        Instant agora = relogio.instant();
+        falhas.put(new Chave(texto, idioma), agora.plus(ttlNegativo));
+        limparFalhasVencidas(agora);
+    }
+
+    /** Descarta as falhas já vencidas, para o mapa guardar só as dos dois últimos TTLs. */
+    private void limparFalhasVencidas(Instant agora) {
+        if (agora.isBefore(proximaLimpezaFalhas)) return;
+        proximaLimpezaFalhas = agora.plus(ttlNegativo);
+        falhas.values().removeIf(agora::isAfter);
+    }
+
+    /** Indica se a tradução falhou há pouco tempo e ainda não deve ser tentada de novo. */
+    public boolean falhouRecentemente(String texto, String idioma) {
+        Chave chave = new Chave(texto, idioma);
+        Instant expiraEm = falhas.get(chave);
+        if (expiraEm == null) return false;
+        if (relogio.instant().isAfter(expiraEm)) {
+            falhas.remove(chave, expiraEm);
+            return false;
+        }
+        falhasEvitadas.incrementAndGet();
+        return true;
+    }
+
+    public EstatisticasCacheTraducao estatisticas() {
+        int tamanho;
+        synchronized (memoria) {
+            tamanho = memoria.size();
+        }
+        return new EstatisticasCacheTraducao(acertosMemoria.get(), acertosBanco.get(), faltas.get(),
+                remocoes.get(), falhasEvitadas.get(), tamanho);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registro) {
+        FunctionCounter.builder("literalura.traducao.cache.acertos", acertosMemoria, AtomicLong::get)
+                .tag("nivel", "memoria").register(registro);
+        FunctionCounter.builder("literalura.traducao.cache.acertos", acertosBanco, AtomicLong::get)
+                .tag("nivel", "banco").register(registro);
+        FunctionCounter.builder("literalura.traducao.cache.faltas", faltas, AtomicLong::get).register(registro);
+        FunctionCounter.builder("literalura.traducao.cache.remocoes", remocoes, AtomicLong::get).register(registro);
+        Gauge.builder("literalura.traducao.cache.tamanho", this, cache -> cache.estatisticas().tamanhoMemoria())
+                .register(registro);
+    }
+}
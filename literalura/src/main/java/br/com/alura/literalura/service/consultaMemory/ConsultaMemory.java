@@ -1,43 +1,236 @@
 package br.com.alura.literalura.service.consultaMemory;
 
+import br.com.alura.literalura.service.ChamadasEmVoo;
 import br.com.alura.literalura.service.ConsumoApi;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import br.com.alura.literalura.service.IConverteDados;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 public class ConsultaMemory {
 
     private final ConsumoApi consumoApi;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final CacheTraducao cache;
+    private final IConverteDados conversor;
+    private final MeterRegistry metricas;
 
-    public ConsultaMemory(ConsumoApi consumoApi) {
+    // Pedidos simultâneos do mesmo texto para o mesmo idioma compartilham uma chamada à API
+    private record ConsultaEmVoo(String texto, String idioma) {}
+    private final ChamadasEmVoo<ConsultaEmVoo, Optional<String>> consultasEmVoo;
+
+    // Separador entre os textos de um lote; quebras de linha dentro dos textos viram espaço
+    static final String SEPARADOR_LOTE = "\n";
+
+    // A MyMemory aceita no máximo 500 bytes (UTF-8) no parâmetro q
+    private final int maxBytesPorLote;
+
+    public ConsultaMemory(ConsumoApi consumoApi,
+                          CacheTraducao cache,
+                          IConverteDados conversor,
+                          MeterRegistry metricas,
+                          @Value("${literalura.traducao.lote.max-bytes:500}") int maxBytesPorLote) {
         this.consumoApi = consumoApi;
+        this.cache = cache;
+        this.conversor = conversor;
+        this.metricas = metricas;
+        this.maxBytesPorLote = maxBytesPorLote;
+        this.consultasEmVoo = new ChamadasEmVoo<>(metricas, "traducao");
     }
 
+    /**
+     * Traduz o texto do inglês para o idioma informado. Consulta o cache antes da API;
+     * em caso de falha devolve o próprio texto.
+     */
     public String obterTraducao(String text, String targetLang) {
+        Optional<String> emCache = cache.buscar(text, targetLang);
+        if (emCache.isPresent()) {
+            contarTextos("cache", 1);
+            return emCache.get();
+        }
+        if (cache.falhouRecentemente(text, targetLang)) {
+            contarTextos("falha_recente", 1);
+            return text;
+        }
+
+        return traduzirIndividualmente(text, targetLang).orElse(text);
+    }
+
+    /**
+     * Traduz vários textos de uma vez, agrupando os que não estão em cache em lotes
+     * que respeitam o limite de tamanho da API. Se a resposta de um lote não puder ser
+     * dividida de volta (quantidade de linhas diferente), cada texto é traduzido individualmente;
+     * se a chamada do lote falhar, os textos dele ficam marcados como falha, sem novas chamadas.
+     * Devolve um mapa texto original -> tradução (ou o próprio texto, em caso de falha).
+     */
+    public Map<String, String> obterTraducoes(Collection<String> textos, String targetLang) {
+        Map<String, String> traduzidos = traduzir(textos, targetLang, true);
+        Map<String, String> resultado = new LinkedHashMap<>();
+        for (String texto : textos) {
+            resultado.put(texto, traduzidos.getOrDefault(texto, texto));
+        }
+        return resultado;
+    }
+
+    /**
+     * Como {@link #obterTraducoes(Collection, String)}, mas devolve apenas os textos que
+     * realmente foram traduzidos; os que falharam ficam de fora do mapa. Para a fila de traduções:
+     * não pula os textos que falharam há pouco, porque a fila já espaça as novas tentativas.
+     */
+    public Map<String, String> obterTraducoesDisponiveis(Collection<String> textos, String targetLang) {
+        return traduzir(textos, targetLang, false);
+    }
+
+    private Map<String, String> traduzir(Collection<String> textos, String targetLang, boolean pularFalhasRecentes) {
+        Map<String, String> resultado = new LinkedHashMap<>();
+        List<String> pendentes = new ArrayList<>();
+
+        for (String texto : new LinkedHashSet<>(textos)) {
+            Optional<String> emCache = cache.buscar(texto, targetLang);
+            if (emCache.isPresent()) {
+                resultado.put(texto, emCache.get());
+                contarTextos("cache", 1);
+            } else if (!pularFalhasRecentes || !cache.falhouRecentemente(texto, targetLang)) {
+                pendentes.add(texto);
+            } else {
+                contarTextos("falha_recente", 1);
+            }
+        }
+
+        for (List<String> lote : montarLotes(pendentes)) {
+            if (lote.size() == 1) {
+                traduzirIndividualmente(lote.get(0), targetLang).ifPresent(t -> resultado.put(lote.get(0), t));
+                continue;
+            }
+            List<String> consulta = lote.stream().map(ConsultaMemory::normalizarParaLote).toList();
+            contarChamada("lote");
+            Optional<String> resposta = consultarApi(String.join(SEPARADOR_LOTE, consulta), targetLang);
+            if (resposta.isEmpty()) {
+                // API fora do ar ou sem cota: repetir texto a texto só multiplicaria as chamadas
+                lote.forEach(texto -> cache.registrarFalha(texto, targetLang));
+                contarTextos("falha", lote.size());
+                continue;
+            }
+            Optional<String[]> partes = resposta
+                    .map(traducao -> traducao.split(SEPARADOR_LOTE))
+                    .filter(traducoes -> traducoes.length == lote.size()
+                            && Arrays.stream(traducoes).noneMatch(String::isBlank));
+
+            if (partes.isPresent()) {
+                contarTextos("traduzido", lote.size());
+                for (int i = 0; i < lote.size(); i++) {
+                    String traducao = partes.get()[i].trim();
+                    cache.registrar(lote.get(i), targetLang, traducao);
+                    resultado.put(lote.get(i), traducao);
+                }
+            } else {
+                System.out.println("INFO: Lote de " + lote.size() + " traduções não pôde ser dividido; traduzindo um a um.");
+                for (String texto : lote) {
+                    traduzirIndividualmente(texto, targetLang).ifPresent(t -> resultado.put(texto, t));
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /** Agrupa os textos em lotes cujo tamanho (com separadores) não passa do limite da API. */
+    List<List<String>> montarLotes(List<String> textos) {
+        List<List<String>> lotes = new ArrayList<>();
+        List<String> atual = new ArrayList<>();
+        int bytesAtual = 0;
+
+        for (String texto : textos) {
+            int bytes = normalizarParaLote(texto).getBytes(StandardCharsets.UTF_8).length;
+            int bytesComSeparador = atual.isEmpty() ? bytes : bytes + SEPARADOR_LOTE.length();
+            if (!atual.isEmpty() && bytesAtual + bytesComSeparador > maxBytesPorLote) {
+                lotes.add(atual);
+                atual = new ArrayList<>();
+                bytesComSeparador = bytes;
+                bytesAtual = 0;
+            }
+            atual.add(texto);
+            bytesAtual += bytesComSeparador;
+        }
+        if (!atual.isEmpty()) lotes.add(atual);
+        return lotes;
+    }
+
+    private static String normalizarParaLote(String texto) {
+        return texto.replaceAll("[\\r\\n]+", " ").trim();
+    }
+
+    private Optional<String> traduzirIndividualmente(String texto, String targetLang) {
+        contarChamada("individual");
+        Optional<String> traducao = consultarApi(texto, targetLang);
+        if (traducao.isPresent()) {
+            cache.registrar(texto, targetLang, traducao.get());
+            contarTextos("traduzido", 1);
+        } else {
+            cache.registrarFalha(texto, targetLang);
+            contarTextos("falha", 1);
+        }
+        return traducao;
+    }
+
+    private void contarTextos(String resultado, int quantidade) {
+        Counter.builder("literalura.traducao.textos")
+                .description("Textos pedidos para tradução, por resultado")
+                .tag("resultado", resultado)
+                .register(metricas)
+                .increment(quantidade);
+    }
+
+    private void contarChamada(String tipo) {
+        Counter.builder("literalura.traducao.chamadas")
+                .description("Chamadas à API de tradução")
+                .tag("tipo", tipo)
+                .register(metricas)
+                .increment();
+    }
+
+    public EstatisticasCacheTraducao estatisticasCache() {
+        return cache.estatisticas();
+    }
+
+    /**
+     * Consulta a API de tradução. Se a mesma consulta (texto e idioma) já estiver em andamento
+     * em outra thread, espera e usa o resultado dela.
+     */
+    private Optional<String> consultarApi(String text, String targetLang) {
+        return consultasEmVoo.executar(new ConsultaEmVoo(text, targetLang),
+                () -> CompletableFuture.completedFuture(chamarApi(text, targetLang))).join();
+    }
+
+    private Optional<String> chamarApi(String text, String targetLang) {
         try {
             String textoCodificado = URLEncoder.encode(text, StandardCharsets.UTF_8);
             String langpair = URLEncoder.encode("en|" + targetLang, StandardCharsets.UTF_8);
 
             String url = "https://api.mymemory.translated.net/get?q=" + textoCodificado + "&langpair=" + langpair;
 
-            String json = consumoApi.obterDados(url);
-
-            if (json == null || json.isEmpty()) return text;
-
-            DadosTraducao traducao = mapper.readValue(json, DadosTraducao.class);
+            DadosTraducao traducao = consumoApi.obterDados(url,
+                    corpo -> conversor.obterDados(corpo, DadosTraducao.class));
+            if (traducao == null) return Optional.empty();
 
-            if (traducao.dadosResposta() != null && traducao.dadosResposta().textoTraduzido() != null) {
-                return traducao.dadosResposta().textoTraduzido();
-            } else {
-                return text;
+            // A API responde 200 mesmo quando a cota acaba; o status real vem no corpo
+            if (traducao.status() != null && traducao.status() != 200) {
+                System.err.println("Erro ao obter tradução para '" + text + "': status " + traducao.status());
+                return Optional.empty();
+            }
+            if (traducao.dadosResposta() != null && traducao.dadosResposta().textoTraduzido() != null
+                    && !traducao.dadosResposta().textoTraduzido().isBlank()) {
+                return Optional.of(traducao.dadosResposta().textoTraduzido());
             }
+            return Optional.empty();
         } catch (Exception e) {
             System.err.println("Erro ao obter tradução para '" + text + "': " + e.getMessage());
-            return text;
+            return Optional.empty();
         }
     }
 }
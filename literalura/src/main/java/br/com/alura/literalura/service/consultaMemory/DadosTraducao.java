@@ -6,5 +6,6 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 @JsonIgnoreProperties(ignoreUnknown = true)
 
 public record DadosTraducao(
-        @JsonAlias("responseData") DadosResposta dadosResposta) {
+        @JsonAlias("responseData") DadosResposta dadosResposta,
+        @JsonAlias("responseStatus") Integer status) {
 }
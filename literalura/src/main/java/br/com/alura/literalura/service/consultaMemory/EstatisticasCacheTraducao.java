@@ -0,0 +1,10 @@
+package br.com.alura.literalura.service.consultaMemory;
+
+public record EstatisticasCacheTraducao(
+        long acertosMemoria,
+        long acertosBanco,
+        long faltas,
+        long remocoes,
+        long falhasEvitadas,
+        int tamanhoMemoria) {
+}
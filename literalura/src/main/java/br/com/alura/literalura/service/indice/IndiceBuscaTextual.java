@@ -0,0 +1,71 @@
+package br.com.alura.literalura.service.indice;
+
+import br.com.alura.literalura.repository.AutorRepository;
+import br.com.alura.literalura.repository.LivroRepository;
+import br.com.alura.literalura.service.AutorCadastradoEvento;
+import br.com.alura.literalura.service.LivroCadastradoEvento;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Índices de trigramas sobre {@code Autor.nome} e {@code Livro.titulo}, usados nas buscas por trecho
+ * no lugar do {@code LIKE '%x%'}. Carregados em segundo plano ao iniciar e mantidos pelos eventos de
+ * cadastro; enquanto estão frios, as buscas vão para o banco.
+ */
+@Component
+public class IndiceBuscaTextual implements ApplicationRunner {
+
+    private final AutorRepository autorRepository;
+    private final LivroRepository livroRepository;
+
+    private final IndiceTrigramas autores = new IndiceTrigramas();
+    private final IndiceTrigramas livros = new IndiceTrigramas();
+    private volatile boolean pronto;
+
+    public IndiceBuscaTextual(AutorRepository autorRepository, LivroRepository livroRepository) {
+        this.autorRepository = autorRepository;
+        this.livroRepository = livroRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        CompletableFuture.runAsync(this::carregar).exceptionally(erro -> {
+            System.err.println("AVISO: Índice de busca textual não carregado; usando o banco. Erro: " + erro.getMessage());
+            return null;
+        });
+    }
+
+    public void carregar() {
+        autorRepository.findNomesDosAutores().forEach(autor -> autores.adicionar(autor.id(), autor.texto()));
+        livroRepository.findTitulosDosLivros().forEach(livro -> livros.adicionar(livro.id(), livro.texto()));
+        pronto = true;
+        System.out.println("INFO: Índice de busca textual carregado com " + autores.tamanho() + " autores e "
+                + livros.tamanho() + " livros.");
+    }
+
+    @TransactionalEventListener
+    public void aoCadastrarAutor(AutorCadastradoEvento evento) {
+        autores.adicionar(evento.id(), evento.nome());
+    }
+
+    @TransactionalEventListener
+    public void aoCadastrarLivro(LivroCadastradoEvento evento) {
+        livros.adicionar(evento.id(), evento.titulo());
+    }
+
+    /** Ids dos autores cujo nome contém o trecho, por relevância; vazio se o índice está frio. */
+    public Optional<List<Long>> buscarAutores(String trecho) {
+        return pronto ? Optional.of(autores.buscar(trecho)) : Optional.empty();
+    }
+
+    /** Ids dos livros cujo título contém o trecho, por relevância; vazio se o índice está frio. */
+    public Optional<List<Long>> buscarLivros(String trecho) {
+        return pronto ? Optional.of(livros.buscar(trecho)) : Optional.empty();
+    }
+}
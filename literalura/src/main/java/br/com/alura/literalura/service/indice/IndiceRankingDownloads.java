@@ -0,0 +1,238 @@
+package br.com.alura.literalura.service.indice;
+
+import br.com.alura.literalura.repository.LivroRepository;
+import br.com.alura.literalura.service.DownloadsAlteradosEvento;
+import br.com.alura.literalura.service.LivroCadastradoEvento;
+import br.com.alura.literalura.service.TopicoTrocadoEvento;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Rankings dos livros mais baixados (de todo o catálogo, por idioma e por tópico), cada um limitado aos
+ * {@code capacidade} primeiros, para responder "os N mais baixados" sem ordenar a tabela de livros.
+ * Carregado do banco em segundo plano ao iniciar e mantido pelos eventos de cadastro, de atualização de
+ * downloads e de troca de tópico. Um ranking que não garante mais a resposta (um livro que caiu pode
+ * ter sido ultrapassado por outro de fora) é recarregado do banco na consulta seguinte.
+ */
+@Component
+public class IndiceRankingDownloads implements ApplicationRunner {
+
+    private final LivroRepository livroRepository;
+    private final int capacidade;
+
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+    private Rankings rankings;
+    // Alterações recebidas durante a carga, reaplicadas sobre o que veio do banco
+    private final List<Consumer<Rankings>> durante = new ArrayList<>();
+    private boolean carregando;
+    private long versao;
+    private volatile boolean pronto;
+
+    public IndiceRankingDownloads(LivroRepository livroRepository,
+                                  @Value("${literalura.ranking.capacidade:100}") int capacidade) {
+        this.livroRepository = livroRepository;
+        this.capacidade = capacidade;
+        this.rankings = new Rankings();
+    }
+
+    /** O ranking geral e os de cada idioma e tópico. */
+    private final class Rankings {
+        RankingLimitado geral = new RankingLimitado(capacidade, RankingLimitado.COMPLETO);
+        final Map<String, RankingLimitado> porIdioma = new HashMap<>();
+        final Map<Long, RankingLimitado> porTopico = new HashMap<>();
+
+        /** Ranking de um recorte ainda sem livros: nenhum livro dele pode estar de fora. */
+        RankingLimitado idioma(String sigla) {
+            return porIdioma.computeIfAbsent(sigla, s -> new RankingLimitado(capacidade, RankingLimitado.COMPLETO));
+        }
+
+        RankingLimitado topico(Long id) {
+            return porTopico.computeIfAbsent(id, t -> new RankingLimitado(capacidade, RankingLimitado.COMPLETO));
+        }
+
+        void atualizar(long livroId, int downloads, Collection<String> idiomas, Collection<Long> topicos) {
+            geral.atualizar(livroId, downloads);
+            idiomas.forEach(sigla -> idioma(sigla).atualizar(livroId, downloads));
+            topicos.forEach(topico -> topico(topico).atualizar(livroId, downloads));
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        CompletableFuture.runAsync(this::carregar).exceptionally(erro -> {
+            System.err.println("AVISO: Ranking de downloads não carregado; usando o banco. Erro: " + erro.getMessage());
+            return null;
+        });
+    }
+
+    /** (Re)constrói todos os rankings a partir do banco. */
+    public synchronized void carregar() {
+        trava.writeLock().lock();
+        try {
+            carregando = true;
+            durante.clear();
+        } finally {
+            trava.writeLock().unlock();
+        }
+
+        Rankings novos = new Rankings();
+        try {
+            novos.geral = RankingLimitado.deLinhas(capacidade,
+                    linhas(livroRepository.findRankingDownloads(PageRequest.ofSize(capacidade + 1))));
+            porChave(livroRepository.findRankingsDownloadsPorIdioma(capacidade + 1), chave -> (String) chave)
+                    .forEach((sigla, linhas) -> novos.porIdioma.put(sigla, RankingLimitado.deLinhas(capacidade, linhas)));
+            porChave(livroRepository.findRankingsDownloadsPorTopico(capacidade + 1), chave -> ((Number) chave).longValue())
+                    .forEach((topico, linhas) -> novos.porTopico.put(topico, RankingLimitado.deLinhas(capacidade, linhas)));
+        } catch (RuntimeException e) {
+            trava.writeLock().lock();
+            try {
+                carregando = false;
+                durante.clear();
+            } finally {
+                trava.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        int recortes;
+        trava.writeLock().lock();
+        try {
+            // O que chegou durante a carga pode ou não estar no que foi lido; reaplicar dá o mesmo resultado
+            durante.forEach(alteracao -> alteracao.accept(novos));
+            durante.clear();
+            rankings = novos;
+            carregando = false;
+            versao++;
+            recortes = novos.porIdioma.size() + novos.porTopico.size();
+        } finally {
+            trava.writeLock().unlock();
+        }
+        pronto = true;
+        System.out.println("INFO: Ranking de downloads carregado com " + recortes + " idiomas e tópicos.");
+    }
+
+    @TransactionalEventListener
+    public void aoCadastrarLivro(LivroCadastradoEvento evento) {
+        if (evento.numeroDownloads() == null) return;
+        aplicar(r -> r.atualizar(evento.id(), evento.numeroDownloads(), evento.idiomas(), evento.topicos()));
+    }
+
+    @TransactionalEventListener
+    public void aoAlterarDownloads(DownloadsAlteradosEvento evento) {
+        Map<Long, Integer> downloads = evento.downloadsPorLivro();
+        if (downloads.isEmpty()) return;
+        // Idiomas e tópicos vêm no evento: depois do commit, nada de consultar o banco aqui
+        Map<Long, List<String>> idiomas = evento.idiomasPorLivro();
+        Map<Long, List<Long>> topicos = evento.topicosPorLivro();
+        aplicar(r -> downloads.forEach((livroId, valor) -> r.atualizar(livroId, valor,
+                idiomas.getOrDefault(livroId, List.of()), topicos.getOrDefault(livroId, List.of()))));
+    }
+
+    @TransactionalEventListener
+    public void aoTrocarTopico(TopicoTrocadoEvento evento) {
+        aplicar(r -> {
+            RankingLimitado anterior = r.porTopico.get(evento.topicoAnteriorId());
+            if (anterior != null) anterior.remover(evento.livroId());
+            Integer downloads = r.geral.downloads(evento.livroId());
+            if (downloads != null) {
+                r.topico(evento.topicoNovoId()).atualizar(evento.livroId(), downloads);
+            } else {
+                // Fora do ranking geral: tem no máximo o limite dele
+                r.topico(evento.topicoNovoId()).admitirFora(r.geral.limite());
+            }
+        });
+    }
+
+    private void aplicar(Consumer<Rankings> alteracao) {
+        trava.writeLock().lock();
+        try {
+            alteracao.accept(rankings);
+            if (carregando) durante.add(alteracao);
+            versao++;
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    /** Ids dos {@code n} livros mais baixados; vazio se o índice está frio ou {@code n} passa da capacidade. */
+    public Optional<List<Long>> maisBaixados(int n) {
+        return primeiros(n, r -> r.geral, ranking -> rankings.geral = ranking,
+                () -> livroRepository.findRankingDownloads(PageRequest.ofSize(capacidade + 1)));
+    }
+
+    /** Como {@link #maisBaixados}, só entre os livros do idioma. */
+    public Optional<List<Long>> maisBaixadosPorIdioma(String sigla, int n) {
+        return primeiros(n, r -> r.porIdioma.get(sigla), ranking -> rankings.porIdioma.put(sigla, ranking),
+                () -> livroRepository.findRankingDownloadsPorIdioma(sigla, PageRequest.ofSize(capacidade + 1)));
+    }
+
+    /** Como {@link #maisBaixados}, só entre os livros do tópico. */
+    public Optional<List<Long>> maisBaixadosPorTopico(Long topicoId, int n) {
+        return primeiros(n, r -> r.porTopico.get(topicoId), ranking -> rankings.porTopico.put(topicoId, ranking),
+                () -> livroRepository.findRankingDownloadsPorTopico(topicoId, PageRequest.ofSize(capacidade + 1)));
+    }
+
+    private Optional<List<Long>> primeiros(int n, Function<Rankings, RankingLimitado> recorte,
+                                           Consumer<RankingLimitado> substituir, Supplier<List<Object[]>> doBanco) {
+        if (!pronto || n > capacidade) return Optional.empty();
+        if (n <= 0) return Optional.of(List.of());
+
+        long versaoLida;
+        trava.readLock().lock();
+        try {
+            RankingLimitado ranking = recorte.apply(rankings);
+            // Recorte sem ranking não tem nenhum livro com downloads
+            if (ranking == null) return Optional.of(List.of());
+            Optional<List<Long>> ids = ranking.primeiros(n);
+            if (ids.isPresent()) return ids;
+            versaoLida = versao;
+        } finally {
+            trava.readLock().unlock();
+        }
+
+        // Ranking incerto: relê o recorte do banco e só o troca se nada mudou enquanto isso
+        List<long[]> linhas = linhas(doBanco.get());
+        RankingLimitado recarregado = RankingLimitado.deLinhas(capacidade, linhas);
+        trava.writeLock().lock();
+        try {
+            if (versao == versaoLida && !carregando) substituir.accept(recarregado);
+        } finally {
+            trava.writeLock().unlock();
+        }
+        return Optional.of(linhas.stream().limit(n).map(linha -> linha[0]).toList());
+    }
+
+    private static List<long[]> linhas(List<Object[]> resultado) {
+        List<long[]> linhas = new ArrayList<>(resultado.size());
+        for (Object[] linha : resultado) {
+            linhas.add(new long[]{((Number) linha[0]).longValue(), ((Number) linha[1]).longValue()});
+        }
+        return linhas;
+    }
+
+    /** Agrupa linhas (chave, id, downloads), já ordenadas por chave e posição, em linhas (id, downloads) por chave. */
+    private static <K> Map<K, List<long[]>> porChave(List<Object[]> resultado, Function<Object, K> chave) {
+        Map<K, List<long[]>> agrupadas = new HashMap<>();
+        for (Object[] linha : resultado) {
+            agrupadas.computeIfAbsent(chave.apply(linha[0]), k -> new ArrayList<>())
+                    .add(new long[]{((Number) linha[1]).longValue(), ((Number) linha[2]).longValue()});
+        }
+        return agrupadas;
+    }
+}
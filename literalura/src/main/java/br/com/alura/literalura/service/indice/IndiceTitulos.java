@@ -0,0 +1,87 @@
+package br.com.alura.literalura.service.indice;
+
+import br.com.alura.literalura.model.DTO.TextoIndexadoDTO;
+import br.com.alura.literalura.repository.LivroRepository;
+import br.com.alura.literalura.service.LivroCadastradoEvento;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Títulos já catalogados (normalizados como no {@link IndiceTrigramas}) e o id do livro de cada um,
+ * para responder a busca por título sem ir ao Gutendex.
+ * Carregado em segundo plano ao iniciar e mantido pelo evento de cadastro; enquanto está frio, não responde.
+ */
+@Component
+public class IndiceTitulos implements ApplicationRunner {
+
+    private final LivroRepository livroRepository;
+
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+    private final Map<String, Long> livroPorTitulo = new HashMap<>();
+    private volatile boolean pronto;
+
+    public IndiceTitulos(LivroRepository livroRepository) {
+        this.livroRepository = livroRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        CompletableFuture.runAsync(this::carregar).exceptionally(erro -> {
+            System.err.println("AVISO: Índice de títulos não carregado; buscas por título vão ao Gutendex. Erro: " + erro.getMessage());
+            return null;
+        });
+    }
+
+    public void carregar() {
+        List<TextoIndexadoDTO> titulos = livroRepository.findTitulosDosLivros();
+        int tamanho;
+        trava.writeLock().lock();
+        try {
+            // Soma ao que os eventos já trouxeram durante a carga
+            titulos.forEach(livro -> registrar(livro.id(), livro.texto()));
+            tamanho = livroPorTitulo.size();
+        } finally {
+            trava.writeLock().unlock();
+        }
+        pronto = true;
+        System.out.println("INFO: Índice de títulos carregado com " + tamanho + " títulos.");
+    }
+
+    @TransactionalEventListener
+    public void aoCadastrarLivro(LivroCadastradoEvento evento) {
+        trava.writeLock().lock();
+        try {
+            registrar(evento.id(), evento.titulo());
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /** Id do livro catalogado com o título informado; vazio se não há ou se o índice está frio. */
+    public Optional<Long> buscar(String titulo) {
+        if (!pronto || titulo == null) return Optional.empty();
+        String normalizado = IndiceTrigramas.normalizar(titulo);
+        trava.readLock().lock();
+        try {
+            return Optional.ofNullable(livroPorTitulo.get(normalizado));
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    // Chamado com a trava de escrita
+    private void registrar(Long id, String titulo) {
+        if (id == null || titulo == null) return;
+        livroPorTitulo.putIfAbsent(IndiceTrigramas.normalizar(titulo), id);
+    }
+}
@@ -0,0 +1,180 @@
+package br.com.alura.literalura.service.indice;
+
+import br.com.alura.literalura.model.TextoNormalizado;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido de trigramas para busca por trecho ("contém") em textos curtos, como nomes e títulos.
+ * Cada texto recebe um número interno crescente e cada trigrama aponta para a lista ordenada dos textos
+ * que o contêm; a busca intersecta as listas dos trigramas da consulta e confirma o trecho no texto.
+ * Comparações ignoram maiúsculas, acentos e espaços repetidos.
+ */
+public class IndiceTrigramas {
+
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+
+    // Documento interno -> id externo e texto normalizado
+    private long[] ids = new long[1024];
+    private final List<String> textos = new ArrayList<>();
+    private final Map<Long, Integer> documentoPorId = new HashMap<>();
+
+    // Trigrama (3 chars empacotados num long) -> documentos que o contêm, em ordem crescente
+    private final Map<Long, Postagens> postagens = new HashMap<>();
+
+    private static final class Postagens {
+        int[] documentos = new int[4];
+        int tamanho;
+
+        void adicionar(int documento) {
+            // Um texto com o mesmo trigrama repetido só entra uma vez
+            if (tamanho > 0 && documentos[tamanho - 1] == documento) return;
+            if (tamanho == documentos.length) documentos = Arrays.copyOf(documentos, tamanho * 2);
+            documentos[tamanho++] = documento;
+        }
+    }
+
+    public static String normalizar(String texto) {
+        return TextoNormalizado.normalizar(texto);
+    }
+
+    private static long[] trigramas(String normalizado) {
+        if (normalizado.length() < 3) return new long[0];
+        long[] resultado = new long[normalizado.length() - 2];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = ((long) normalizado.charAt(i) << 32)
+                    | ((long) normalizado.charAt(i + 1) << 16)
+                    | normalizado.charAt(i + 2);
+        }
+        return resultado;
+    }
+
+    /** Indexa o texto do id informado; ids já indexados são ignorados. */
+    public void adicionar(long id, String texto) {
+        if (texto == null) return;
+        String normalizado = normalizar(texto);
+        trava.writeLock().lock();
+        try {
+            if (documentoPorId.containsKey(id)) return;
+            int documento = textos.size();
+            if (documento == ids.length) ids = Arrays.copyOf(ids, documento * 2);
+            ids[documento] = id;
+            textos.add(normalizado);
+            documentoPorId.put(id, documento);
+            for (long trigrama : trigramas(normalizado)) {
+                postagens.computeIfAbsent(trigrama, t -> new Postagens()).adicionar(documento);
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        trava.readLock().lock();
+        try {
+            return textos.size();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids dos textos que contêm o trecho, do melhor para o pior: igual ao trecho, começando com ele,
+     * com uma palavra começando com ele e, por fim, contendo-o em qualquer posição. Dentro de cada grupo,
+     * textos mais curtos (em que o trecho cobre mais trigramas) vêm primeiro; o id desempata.
+     */
+    public List<Long> buscar(String trecho) {
+        String consulta = normalizar(trecho);
+        trava.readLock().lock();
+        try {
+            List<Integer> candidatos = consulta.length() < 3 ? todosOsDocumentos() : intersectar(trigramas(consulta));
+            List<long[]> encontrados = new ArrayList<>();
+            for (int documento : candidatos) classificar(consulta, ids[documento], textos.get(documento), encontrados);
+            return ordenados(encontrados);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Mesma seleção e ordem de {@link #buscar}, mas sobre textos avulsos (id -> texto), para quem
+     * ainda não tem o índice carregado responder na mesma ordem.
+     */
+    public static List<Long> buscarEm(String trecho, Map<Long, String> textosPorId) {
+        String consulta = normalizar(trecho);
+        List<long[]> encontrados = new ArrayList<>();
+        textosPorId.forEach((id, texto) -> {
+            if (texto != null) classificar(consulta, id, normalizar(texto), encontrados);
+        });
+        return ordenados(encontrados);
+    }
+
+    // Acrescenta (qualidade, tamanho, id) se o texto normalizado contém a consulta
+    private static void classificar(String consulta, long id, String texto, List<long[]> encontrados) {
+        int posicao = texto.indexOf(consulta);
+        if (posicao < 0) return;
+        int qualidade;
+        if (texto.length() == consulta.length()) qualidade = 0;
+        else if (posicao == 0) qualidade = 1;
+        else if (inicioDePalavra(texto, consulta)) qualidade = 2;
+        else qualidade = 3;
+        encontrados.add(new long[]{qualidade, texto.length(), id});
+    }
+
+    private static List<Long> ordenados(List<long[]> encontrados) {
+        encontrados.sort(Comparator.<long[]>comparingLong(e -> e[0])
+                .thenComparingLong(e -> e[1])
+                .thenComparingLong(e -> e[2]));
+        List<Long> resultado = new ArrayList<>(encontrados.size());
+        for (long[] encontrado : encontrados) resultado.add(encontrado[2]);
+        return resultado;
+    }
+
+    private static boolean inicioDePalavra(String texto, String consulta) {
+        for (int i = texto.indexOf(consulta); i >= 0; i = texto.indexOf(consulta, i + 1)) {
+            char anterior = texto.charAt(i - 1);
+            if (!Character.isLetterOrDigit(anterior)) return true;
+        }
+        return false;
+    }
+
+    private List<Integer> todosOsDocumentos() {
+        List<Integer> todos = new ArrayList<>(textos.size());
+        for (int i = 0; i < textos.size(); i++) todos.add(i);
+        return todos;
+    }
+
+    /** Intersecção das listas dos trigramas, começando pela menor. */
+    private List<Integer> intersectar(long[] trigramasConsulta) {
+        List<Postagens> listas = new ArrayList<>();
+        for (long trigrama : new LinkedHashSet<>(Arrays.stream(trigramasConsulta).boxed().toList())) {
+            Postagens lista = postagens.get(trigrama);
+            if (lista == null) return List.of();
+            listas.add(lista);
+        }
+        listas.sort(Comparator.comparingInt(lista -> lista.tamanho));
+
+        int[] atual = Arrays.copyOf(listas.get(0).documentos, listas.get(0).tamanho);
+        int tamanhoAtual = atual.length;
+        for (int i = 1; i < listas.size() && tamanhoAtual > 0; i++) {
+            Postagens outra = listas.get(i);
+            int a = 0, b = 0, k = 0;
+            while (a < tamanhoAtual && b < outra.tamanho) {
+                if (atual[a] < outra.documentos[b]) a++;
+                else if (atual[a] > outra.documentos[b]) b++;
+                else {
+                    atual[k++] = atual[a];
+                    a++;
+                    b++;
+                }
+            }
+            tamanhoAtual = k;
+        }
+
+        List<Integer> resultado = new ArrayList<>(tamanhoAtual);
+        for (int i = 0; i < tamanhoAtual; i++) resultado.add(atual[i]);
+        return resultado;
+    }
+}
@@ -0,0 +1,179 @@
+package br.com.alura.literalura.service.indice;
+
+import br.com.alura.literalura.model.DTO.VidaAutorDTO;
+import br.com.alura.literalura.repository.AutorRepository;
+import br.com.alura.literalura.service.AutorCadastradoEvento;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Árvore de intervalos (em arrays de int) sobre o período de vida dos autores, para responder
+ * "quem estava vivo no ano X" ou "entre os anos X e Y" em tempo logarítmico mais o tamanho da resposta.
+ * É carregada em segundo plano ao iniciar; enquanto estiver fria, os chamadores usam o banco.
+ */
+@Component
+public class IndiceVidaAutores implements ApplicationRunner {
+
+    // Autores sem ano de falecimento são tratados como vivos até hoje (sem limite superior)
+    private static final int SEM_FIM = Integer.MAX_VALUE;
+
+    // Quantidade de inserções acumuladas antes de reconstruir a árvore
+    private static final int LIMITE_RECENTES = 512;
+
+    private final AutorRepository autorRepository;
+
+    private volatile Arvore arvore = Arvore.construir(List.of());
+    private final List<VidaAutorDTO> recentes = new ArrayList<>();
+    private volatile boolean pronto;
+
+    public IndiceVidaAutores(AutorRepository autorRepository) {
+        this.autorRepository = autorRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        CompletableFuture.runAsync(this::carregar).exceptionally(erro -> {
+            System.err.println("AVISO: Índice de vida dos autores não carregado; usando o banco. Erro: " + erro.getMessage());
+            return null;
+        });
+    }
+
+    /** (Re)constrói o índice a partir do banco. */
+    public void carregar() {
+        List<VidaAutorDTO> vidas = autorRepository.findVidasDosAutores();
+        synchronized (recentes) {
+            List<VidaAutorDTO> todos = new ArrayList<>(vidas);
+            todos.addAll(recentes);
+            recentes.clear();
+            arvore = Arvore.construir(todos);
+        }
+        pronto = true;
+        System.out.println("INFO: Índice de vida dos autores carregado com " + arvore.tamanho() + " autores.");
+    }
+
+    @TransactionalEventListener
+    public void aoCadastrarAutor(AutorCadastradoEvento evento) {
+        registrar(new VidaAutorDTO(evento.id(), evento.anoNascimento(), evento.anoFalecimento()));
+    }
+
+    public void registrar(VidaAutorDTO vida) {
+        if (vida.anoNascimento() == null) return;
+        synchronized (recentes) {
+            recentes.add(vida);
+            if (pronto && recentes.size() >= LIMITE_RECENTES) {
+                List<VidaAutorDTO> todos = arvore.intervalos();
+                todos.addAll(recentes);
+                recentes.clear();
+                arvore = Arvore.construir(todos);
+            }
+        }
+    }
+
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    /** Ids dos autores vivos no ano; vazio se o índice ainda não foi carregado. */
+    public Optional<List<Long>> vivosNoAno(int ano) {
+        return vivosEntre(ano, ano);
+    }
+
+    /** Ids dos autores vivos em algum momento entre os anos informados (inclusive). */
+    public Optional<List<Long>> vivosEntre(int inicio, int fim) {
+        if (!pronto) return Optional.empty();
+
+        Arvore atual = arvore;
+        Set<Long> ids = new TreeSet<>();
+        atual.sobrepostos(inicio, fim, ids);
+        synchronized (recentes) {
+            for (VidaAutorDTO vida : recentes) {
+                int fimVida = vida.anoFalecimento() != null ? vida.anoFalecimento() : SEM_FIM;
+                if (vida.anoNascimento() <= fim && fimVida >= inicio) ids.add(vida.id());
+            }
+        }
+        return Optional.of(new ArrayList<>(ids));
+    }
+
+    /**
+     * Árvore de intervalos implícita: os intervalos ficam ordenados pelo início e o elemento do meio
+     * de cada faixa é a raiz da subárvore. {@code maxFim[i]} guarda o maior fim da subárvore com raiz em i.
+     */
+    static final class Arvore {
+        private final long[] ids;
+        private final int[] inicios;
+        private final int[] fins;
+        private final int[] maxFim;
+
+        private Arvore(long[] ids, int[] inicios, int[] fins) {
+            this.ids = ids;
+            this.inicios = inicios;
+            this.fins = fins;
+            this.maxFim = new int[ids.length];
+            calcularMaxFim(0, ids.length);
+        }
+
+        static Arvore construir(List<VidaAutorDTO> vidas) {
+            // Um intervalo por autor (o último recebido vence), ordenado por início e depois por id
+            Map<Long, VidaAutorDTO> porId = new HashMap<>();
+            for (VidaAutorDTO vida : vidas) {
+                if (vida.anoNascimento() != null) porId.put(vida.id(), vida);
+            }
+            List<VidaAutorDTO> ordenadas = new ArrayList<>(porId.values());
+            ordenadas.sort(Comparator.comparingInt(VidaAutorDTO::anoNascimento).thenComparing(VidaAutorDTO::id));
+
+            int n = ordenadas.size();
+            long[] ids = new long[n];
+            int[] inicios = new int[n];
+            int[] fins = new int[n];
+            for (int i = 0; i < n; i++) {
+                VidaAutorDTO vida = ordenadas.get(i);
+                ids[i] = vida.id();
+                inicios[i] = vida.anoNascimento();
+                fins[i] = vida.anoFalecimento() != null ? vida.anoFalecimento() : SEM_FIM;
+            }
+            return new Arvore(ids, inicios, fins);
+        }
+
+        private int calcularMaxFim(int de, int ate) {
+            if (de >= ate) return Integer.MIN_VALUE;
+            int meio = (de + ate) >>> 1;
+            int max = Math.max(fins[meio], Math.max(calcularMaxFim(de, meio), calcularMaxFim(meio + 1, ate)));
+            maxFim[meio] = max;
+            return max;
+        }
+
+        void sobrepostos(int inicio, int fim, Collection<Long> saida) {
+            sobrepostos(0, ids.length, inicio, fim, saida);
+        }
+
+        private void sobrepostos(int de, int ate, int inicio, int fim, Collection<Long> saida) {
+            if (de >= ate) return;
+            int meio = (de + ate) >>> 1;
+            // Nenhum intervalo desta subárvore chega até o início pedido
+            if (maxFim[meio] < inicio) return;
+
+            sobrepostos(de, meio, inicio, fim, saida);
+            // À direita os inícios só aumentam: se este já começa depois do fim pedido, os demais também
+            if (inicios[meio] > fim) return;
+            if (fins[meio] >= inicio) saida.add(ids[meio]);
+            sobrepostos(meio + 1, ate, inicio, fim, saida);
+        }
+
+        int tamanho() {
+            return ids.length;
+        }
+
+        List<VidaAutorDTO> intervalos() {
+            List<VidaAutorDTO> vidas = new ArrayList<>(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                vidas.add(new VidaAutorDTO(ids[i], inicios[i], fins[i] == SEM_FIM ? null : fins[i]));
+            }
+            return vidas;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package br.com.alura.literalura.service.indice;
+
+import java.util.*;
+
+/**
+ * Os livros mais baixados de um recorte do catálogo (todos, um idioma ou um tópico), ordenados por
+ * downloads decrescentes e id, com no máximo {@code capacidade} livros. Guarda também o maior número
+ * de downloads que um livro do recorte fora do ranking pode ter: só os primeiros acima desse limite
+ * são respostas garantidas. Não é thread-safe; quem usa cuida da sincronização.
+ */
+final class RankingLimitado {
+
+    // Sem nenhum livro do recorte fora do ranking
+    static final int COMPLETO = -1;
+
+    private record Entrada(long id, int downloads) {}
+
+    private static final Comparator<Entrada> ORDEM = Comparator.comparingInt(Entrada::downloads).reversed()
+            .thenComparingLong(Entrada::id);
+
+    private final int capacidade;
+    private final TreeSet<Entrada> entradas = new TreeSet<>(ORDEM);
+    private final Map<Long, Entrada> porLivro = new HashMap<>();
+    private int limite;
+
+    RankingLimitado(int capacidade, int limite) {
+        this.capacidade = capacidade;
+        this.limite = limite;
+    }
+
+    /**
+     * Monta o ranking a partir de até {@code capacidade + 1} linhas (id, downloads) já na ordem do ranking:
+     * a linha excedente, se houver, dá o limite dos que ficaram de fora.
+     */
+    static RankingLimitado deLinhas(int capacidade, List<long[]> linhas) {
+        RankingLimitado ranking = new RankingLimitado(capacidade,
+                linhas.size() > capacidade ? (int) linhas.get(capacidade)[1] : COMPLETO);
+        for (int i = 0; i < Math.min(capacidade, linhas.size()); i++) {
+            ranking.incluir(new Entrada(linhas.get(i)[0], (int) linhas.get(i)[1]));
+        }
+        return ranking;
+    }
+
+    /** Insere o livro do recorte ou atualiza seus downloads; o último sai se passar da capacidade. */
+    void atualizar(long id, int downloads) {
+        Entrada anterior = porLivro.remove(id);
+        if (anterior != null) entradas.remove(anterior);
+        incluir(new Entrada(id, downloads));
+        if (entradas.size() > capacidade) {
+            Entrada excedente = entradas.pollLast();
+            porLivro.remove(excedente.id());
+            limite = Math.max(limite, excedente.downloads());
+        }
+    }
+
+    private void incluir(Entrada entrada) {
+        entradas.add(entrada);
+        porLivro.put(entrada.id(), entrada);
+    }
+
+    /** O livro deixou o recorte. */
+    void remover(long id) {
+        Entrada anterior = porLivro.remove(id);
+        if (anterior != null) entradas.remove(anterior);
+    }
+
+    /** Um livro do recorte, com até {@code downloads}, ficou de fora do ranking. */
+    void admitirFora(int downloads) {
+        limite = Math.max(limite, downloads);
+    }
+
+    /** Downloads do livro, se ele está no ranking. */
+    Integer downloads(long id) {
+        Entrada entrada = porLivro.get(id);
+        return entrada != null ? entrada.downloads() : null;
+    }
+
+    int limite() {
+        return limite;
+    }
+
+    int tamanho() {
+        return entradas.size();
+    }
+
+    /**
+     * Ids dos {@code n} primeiros (menos, se o recorte tiver menos livros); vazio se algum livro de fora
+     * puder estar entre eles.
+     */
+    Optional<List<Long>> primeiros(int n) {
+        List<Long> ids = new ArrayList<>(Math.min(n, entradas.size()));
+        for (Entrada entrada : entradas) {
+            if (ids.size() == n) break;
+            // Empate com o limite não basta: o livro de fora pode ter id menor
+            if (entrada.downloads() <= limite) return Optional.empty();
+            ids.add(entrada.id());
+        }
+        if (ids.size() < n && limite != COMPLETO) return Optional.empty();
+        return Optional.of(ids);
+    }
+}
@@ -0,0 +1,110 @@
+package br.com.alura.literalura.benchmark;
+
+import br.com.alura.literalura.model.DTO.AutorComLivrosDTO;
+import br.com.alura.literalura.model.DTO.EstatisticasDTO;
+import br.com.alura.literalura.model.DTO.LivroResponseDTO;
+import br.com.alura.literalura.repository.AutorRepository;
+import br.com.alura.literalura.repository.LivroRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Principais consultas de leitura dos repositórios em catálogos de tamanhos diferentes. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsultasCatalogoBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int livros;
+
+    private ConfigurableApplicationContext contexto;
+    private TransactionTemplate leitura;
+    private LivroRepository livroRepository;
+    private AutorRepository autorRepository;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = ContextoBenchmark.iniciar("consultas" + livros);
+        leitura = new TransactionTemplate(contexto.getBean(TransactionTemplate.class).getTransactionManager());
+        leitura.setReadOnly(true);
+        livroRepository = contexto.getBean(LivroRepository.class);
+        autorRepository = contexto.getBean(AutorRepository.class);
+        popular(contexto.getBean(JdbcTemplate.class));
+    }
+
+    /** Um autor para cada dez livros, com anos de vida entre 1500 e 1950. */
+    private void popular(JdbcTemplate jdbc) {
+        int autores = Math.max(1, livros / 10);
+        List<Object[]> linhasAutores = new ArrayList<>(autores);
+        for (int i = 0; i < autores; i++) {
+            int nascimento = 1500 + (i * 37) % 400;
+            linhasAutores.add(new Object[]{"Autor " + i, nascimento, i % 7 == 0 ? null : nascimento + 30 + i % 50});
+        }
+        jdbc.batchUpdate("INSERT INTO autores (nome, ano_nascimento, ano_falecimento) VALUES (?, ?, ?)", linhasAutores);
+        List<Long> idsAutores = jdbc.queryForList("SELECT id FROM autores ORDER BY id", Long.class);
+
+        List<Object[]> linhasLivros = new ArrayList<>(livros);
+        for (int i = 0; i < livros; i++) {
+            linhasLivros.add(new Object[]{"Livro " + i, i % 5 == 0 ? "pt" : "en", (i * 7919) % 100_000, i, idsAutores.get(i % autores)});
+        }
+        jdbc.batchUpdate(
+                "INSERT INTO livros (titulo, idioma, numero_downloads, id_api, autor_id) VALUES (?, ?, ?, ?, ?)", linhasLivros);
+        jdbc.update("INSERT INTO livro_idioma (livro_id, idioma) SELECT id, idioma FROM livros");
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<LivroResponseDTO> top10MaisBaixados() {
+        return leitura.execute(status -> livroRepository.findMaisBaixados(PageRequest.ofSize(10)));
+    }
+
+    @Benchmark
+    public EstatisticasDTO estatisticasDownloads() {
+        return leitura.execute(status -> livroRepository.calcularEstatisticasDownloads());
+    }
+
+    @Benchmark
+    public Page<LivroResponseDTO> primeiraPaginaDeLivros() {
+        return leitura.execute(status -> livroRepository.findAllComAutores(PageRequest.of(0, 20)));
+    }
+
+    @Benchmark
+    public List<LivroResponseDTO> paginaDeLivrosPorCursor() {
+        return leitura.execute(status -> livroRepository.findComAutoresApos("Livro 5", 0L, PageRequest.ofSize(20)));
+    }
+
+    @Benchmark
+    public Page<LivroResponseDTO> livrosPorIdioma() {
+        return leitura.execute(status -> livroRepository.findByIdioma("pt", PageRequest.of(0, 20)));
+    }
+
+    @Benchmark
+    public List<LivroResponseDTO> livrosPorTrechoDoTitulo() {
+        return leitura.execute(status -> livroRepository.findAllByTituloContainingIgnoreCase("o 99"));
+    }
+
+    @Benchmark
+    public List<AutorComLivrosDTO> autoresVivosNoAno() {
+        return leitura.execute(status -> autorRepository.findAutoresVivosNoAno(1850));
+    }
+
+    @Benchmark
+    public List<AutorComLivrosDTO> autoresPorTrechoDoNome() {
+        return leitura.execute(status -> autorRepository.findAllByNomeContainingIgnoreCase("or 42"));
+    }
+}
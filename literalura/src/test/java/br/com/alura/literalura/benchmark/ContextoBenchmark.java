@@ -0,0 +1,49 @@
+package br.com.alura.literalura.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contexto Spring mínimo para os benchmarks de banco: entidades, repositórios e os componentes
+ * informados, sobre um H2 em memória no modo PostgreSQL. Sem o menu nem os índices em memória.
+ * Não é um {@code @Configuration}, para não ser encontrado pela varredura da aplicação.
+ */
+@EnableAutoConfiguration
+@EntityScan("br.com.alura.literalura.model")
+@EnableJpaRepositories("br.com.alura.literalura.repository")
+final class ContextoBenchmark {
+
+    private ContextoBenchmark() {}
+
+    static ConfigurableApplicationContext iniciar(String nomeBanco, Class<?>... componentes) {
+        return iniciar(nomeBanco, List.of(), componentes);
+    }
+
+    /** Como o anterior, com propriedades extras no formato {@code chave=valor}. */
+    static ConfigurableApplicationContext iniciar(String nomeBanco, List<String> propriedades, Class<?>... componentes) {
+        List<String> argumentos = new ArrayList<>(List.of("--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:" + nomeBanco
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        propriedades.forEach(propriedade -> argumentos.add("--" + propriedade));
+        return new SpringApplicationBuilder(ContextoBenchmark.class)
+                .sources(componentes)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                // Argumentos de linha de comando têm precedência sobre o application.properties (PostgreSQL)
+                .run(argumentos.toArray(String[]::new));
+    }
+}
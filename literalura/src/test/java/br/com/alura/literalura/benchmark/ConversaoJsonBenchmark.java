@@ -0,0 +1,51 @@
+package br.com.alura.literalura.benchmark;
+
+import br.com.alura.literalura.model.DTO.DadosLivro;
+import br.com.alura.literalura.model.DTO.DadosRespostaApi;
+import br.com.alura.literalura.service.ConverteDados;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Desserialização de uma página do Gutendex com 32 livros: a partir da String, direto dos bytes
+ * do corpo e item a item pela lista de resultados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversaoJsonBenchmark {
+
+    private ConverteDados conversor;
+    private String pagina;
+    private byte[] paginaBytes;
+
+    @Setup
+    public void preparar() {
+        conversor = new ConverteDados();
+        pagina = Fixtures.ler(Fixtures.PAGINA_32_RESULTADOS);
+        paginaBytes = pagina.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public DadosRespostaApi converterPagina() {
+        return conversor.obterDados(pagina, DadosRespostaApi.class);
+    }
+
+    @Benchmark
+    public DadosRespostaApi converterPaginaDoStream() {
+        return conversor.obterDados(new ByteArrayInputStream(paginaBytes), DadosRespostaApi.class);
+    }
+
+    @Benchmark
+    public DadosRespostaApi percorrerResultados(Blackhole bh) {
+        return conversor.percorrerLista(new ByteArrayInputStream(paginaBytes), "results", DadosLivro.class,
+                bh::consume, DadosRespostaApi.class);
+    }
+}
@@ -0,0 +1,26 @@
+package br.com.alura.literalura.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ponto de entrada dos benchmarks JMH, usado pelo profile {@code benchmark} (mvn verify -Pbenchmark).
+ * Argumentos: arquivo de resultados em JSON e, opcionalmente, a expressão dos benchmarks a executar.
+ */
+public class ExecutorBenchmarks {
+
+    public static void main(String[] args) throws RunnerException {
+        String arquivoResultados = args.length > 0 ? args[0] : "target/jmh-resultados.json";
+        String filtro = args.length > 1 ? args[1] : ExecutorBenchmarks.class.getPackageName() + "\\..*";
+
+        Options opcoes = new OptionsBuilder()
+                .include(filtro)
+                .resultFormat(ResultFormatType.JSON)
+                .result(arquivoResultados)
+                .build();
+        new Runner(opcoes).run();
+    }
+}
@@ -0,0 +1,24 @@
+package br.com.alura.literalura.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/** Respostas gravadas do Gutendex, para que os benchmarks rodem sem acesso à rede. */
+final class Fixtures {
+
+    /** Página de busca com 32 resultados, o tamanho de página do Gutendex. */
+    static final String PAGINA_32_RESULTADOS = "/fixtures/gutendex-pagina-32.json";
+
+    private Fixtures() {}
+
+    static String ler(String recurso) {
+        try (InputStream entrada = Fixtures.class.getResourceAsStream(recurso)) {
+            if (entrada == null) throw new IllegalStateException("Fixture não encontrada: " + recurso);
+            return new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
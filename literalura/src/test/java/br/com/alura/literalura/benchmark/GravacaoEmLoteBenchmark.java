@@ -0,0 +1,102 @@
+package br.com.alura.literalura.benchmark;
+
+import br.com.alura.literalura.config.GravacaoEmLoteConfig;
+import br.com.alura.literalura.model.Autor;
+import br.com.alura.literalura.model.DTO.DadosAutor;
+import br.com.alura.literalura.model.DTO.DadosLivro;
+import br.com.alura.literalura.model.Livro;
+import br.com.alura.literalura.model.Topico;
+import br.com.alura.literalura.repository.LivroRepository;
+import br.com.alura.literalura.repository.TopicoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gravação de uma página de 100 livros novos (cada um com autor novo, um idioma e três tópicos:
+ * 600 linhas), sem lote JDBC ({@code tamanhoLote=1}) e com lote de 50. Além das páginas por segundo,
+ * os contadores auxiliares mostram as linhas gravadas e as instruções enviadas ao banco por segundo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GravacaoEmLoteBenchmark {
+
+    private static final int LIVROS_POR_PAGINA = 100;
+    private static final int LINHAS_POR_PAGINA = LIVROS_POR_PAGINA * 6;
+
+    @Param({"1", "50"})
+    public int tamanhoLote;
+
+    private ConfigurableApplicationContext contexto;
+    private TransactionTemplate transacao;
+    private LivroRepository livroRepository;
+    private TopicoRepository topicoRepository;
+    private Statistics estatisticas;
+    private List<Long> topicos;
+    private long pagina;
+
+    /** Contadores reportados pelo JMH como taxa por segundo, ao lado da vazão de páginas. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Contadores {
+        public long linhas;
+        public long instrucoes;
+    }
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = ContextoBenchmark.iniciar("gravacaolote" + tamanhoLote,
+                List.of("literalura.jdbc.tamanho-lote=" + tamanhoLote,
+                        "spring.jpa.properties.hibernate.generate_statistics=true"),
+                GravacaoEmLoteConfig.class);
+        transacao = contexto.getBean(TransactionTemplate.class);
+        livroRepository = contexto.getBean(LivroRepository.class);
+        topicoRepository = contexto.getBean(TopicoRepository.class);
+        estatisticas = contexto.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        topicos = transacao.execute(status -> topicoRepository.saveAll(List.of(
+                        new Topico("Fiction"), new Topico("Short stories"), new Topico("Poetry")))
+                .stream().map(Topico::getId).toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<Livro> gravarPagina(Contadores contadores) {
+        long numero = pagina++;
+        long antes = estatisticas.getPrepareStatementCount();
+        List<Livro> salvos = transacao.execute(status -> {
+            List<Livro> livros = new ArrayList<>(LIVROS_POR_PAGINA);
+            for (int i = 0; i < LIVROS_POR_PAGINA; i++) {
+                String sufixo = numero + "-" + i;
+                DadosAutor autor = new DadosAutor("Autor " + sufixo, 1800, 1880);
+                Livro livro = new Livro(new DadosLivro((int) (numero * LIVROS_POR_PAGINA + i), "Livro " + sufixo,
+                        List.of(autor), List.of("en"), i, null, List.of()));
+                livro.setAutor(new Autor(autor));
+                Set<Topico> referencias = new HashSet<>();
+                topicos.forEach(id -> referencias.add(topicoRepository.getReferenceById(id)));
+                livro.setTopicos(referencias);
+                livros.add(livro);
+            }
+            return livroRepository.saveAll(livros);
+        });
+        contadores.linhas += LINHAS_POR_PAGINA;
+        contadores.instrucoes += estatisticas.getPrepareStatementCount() - antes;
+        return salvos;
+    }
+}
@@ -0,0 +1,58 @@
+package br.com.alura.literalura.benchmark;
+
+import br.com.alura.literalura.model.Autor;
+import br.com.alura.literalura.model.DTO.DadosLivro;
+import br.com.alura.literalura.model.DTO.DadosRespostaApi;
+import br.com.alura.literalura.model.DTO.LivroResponseDTO;
+import br.com.alura.literalura.model.Livro;
+import br.com.alura.literalura.model.Topico;
+import br.com.alura.literalura.service.ConverteDados;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/** Mapeamentos DadosLivro -> Livro e Livro -> LivroResponseDTO sobre os 32 livros da fixture. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapeamentoLivroBenchmark {
+
+    private List<DadosLivro> dados;
+    private List<Livro> livros;
+
+    @Setup
+    public void preparar() {
+        String pagina = Fixtures.ler(Fixtures.PAGINA_32_RESULTADOS);
+        dados = new ConverteDados().obterDados(pagina, DadosRespostaApi.class).livros();
+
+        livros = new ArrayList<>();
+        long id = 1;
+        for (DadosLivro dadosLivro : dados) {
+            Livro livro = new Livro(dadosLivro);
+            livro.setId(id++);
+            livro.setAutor(new Autor(dadosLivro.autores().get(0)));
+            Set<Topico> topicos = new HashSet<>();
+            for (String nome : dadosLivro.subjects()) topicos.add(new Topico(nome));
+            livro.setTopicos(topicos);
+            livros.add(livro);
+        }
+    }
+
+    @Benchmark
+    public void criarLivros(Blackhole bh) {
+        for (DadosLivro dadosLivro : dados) bh.consume(new Livro(dadosLivro));
+    }
+
+    @Benchmark
+    public void converterParaResposta(Blackhole bh) {
+        for (Livro livro : livros) bh.consume(new LivroResponseDTO(livro));
+    }
+}
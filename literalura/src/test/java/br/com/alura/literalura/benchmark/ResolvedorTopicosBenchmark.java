@@ -0,0 +1,79 @@
+package br.com.alura.literalura.benchmark;
+
+import br.com.alura.literalura.model.DTO.DadosLivro;
+import br.com.alura.literalura.model.DTO.DadosRespostaApi;
+import br.com.alura.literalura.repository.TopicoRepository;
+import br.com.alura.literalura.service.ConverteDados;
+import br.com.alura.literalura.service.ResolvedorTopicos;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolução dos tópicos de uma página inteira (32 livros), como no salvamento em lote:
+ * tópicos já cadastrados com o cache vazio, tópicos novos (com inserção) e cache já aquecido.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolvedorTopicosBenchmark {
+
+    private ConfigurableApplicationContext contexto;
+    private TransactionTemplate transacao;
+    private TopicoRepository topicoRepository;
+    private JdbcTemplate jdbcTemplate;
+    private ResolvedorTopicos resolvedorAquecido;
+    private List<String> topicosDaPagina;
+    private long rodada;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = ContextoBenchmark.iniciar("topicos", ResolvedorTopicos.class);
+        transacao = contexto.getBean(TransactionTemplate.class);
+        topicoRepository = contexto.getBean(TopicoRepository.class);
+        jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+
+        DadosRespostaApi pagina = new ConverteDados()
+                .obterDados(Fixtures.ler(Fixtures.PAGINA_32_RESULTADOS), DadosRespostaApi.class);
+        Set<String> nomes = new LinkedHashSet<>();
+        for (DadosLivro livro : pagina.livros()) nomes.addAll(livro.subjects());
+        topicosDaPagina = List.copyOf(nomes);
+
+        resolvedorAquecido = contexto.getBean(ResolvedorTopicos.class);
+        transacao.execute(status -> resolvedorAquecido.resolver(topicosDaPagina));
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Map<String, Long> existentesComCacheVazio() {
+        ResolvedorTopicos resolvedor = new ResolvedorTopicos(topicoRepository, jdbcTemplate, 10_000);
+        return transacao.execute(status -> resolvedor.resolver(topicosDaPagina));
+    }
+
+    @Benchmark
+    public Map<String, Long> novosComInsercao() {
+        long sufixo = rodada++;
+        List<String> novos = topicosDaPagina.stream().map(nome -> nome + " #" + sufixo).toList();
+        ResolvedorTopicos resolvedor = new ResolvedorTopicos(topicoRepository, jdbcTemplate, 10_000);
+        return transacao.execute(status -> resolvedor.resolver(novos));
+    }
+
+    @Benchmark
+    public Map<String, Long> existentesComCacheQuente() {
+        return transacao.execute(status -> resolvedorAquecido.resolver(topicosDaPagina));
+    }
+}
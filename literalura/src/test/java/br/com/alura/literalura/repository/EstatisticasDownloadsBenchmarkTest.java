@@ -0,0 +1,94 @@
+package br.com.alura.literalura.repository;
+
+import br.com.alura.literalura.model.DTO.EstatisticasDTO;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara a memória alocada pela consulta agregada de estatísticas com a abordagem antiga
+ * (findAll + stream) em 10 mil e 100 mil livros. Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false)
+class EstatisticasDownloadsBenchmarkTest {
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private int livrosInseridos;
+
+    private void inserirLivrosAte(int total) {
+        List<Object[]> linhas = new ArrayList<>();
+        for (int i = livrosInseridos; i < total; i++) {
+            linhas.add(new Object[]{"Livro " + i, "en", 1 + (i % 50_000), i});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO livros (titulo, idioma, numero_downloads, id_api) VALUES (?, ?, ?, ?)", linhas);
+        livrosInseridos = total;
+    }
+
+    private static long bytesAlocados(Supplier<?> acao) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long antes = threads.getCurrentThreadAllocatedBytes();
+        assertNotNull(acao.get());
+        return threads.getCurrentThreadAllocatedBytes() - antes;
+    }
+
+    private long medirAgregada() {
+        for (int i = 0; i < 5; i++) livroRepository.calcularEstatisticasDownloads(); // aquecimento
+        entityManager.clear();
+        return bytesAlocados(livroRepository::calcularEstatisticasDownloads);
+    }
+
+    private long medirFindAll() {
+        entityManager.clear();
+        long bytes = bytesAlocados(() -> livroRepository.findAll().stream()
+                .mapToDouble(livro -> livro.getNumeroDownloads())
+                .summaryStatistics());
+        entityManager.clear();
+        return bytes;
+    }
+
+    @Test
+    void consultaAgregadaUsaMemoriaConstanteComOTamanhoDoCatalogo() {
+        inserirLivrosAte(10_000);
+        long agregada10k = medirAgregada();
+        long findAll10k = medirFindAll();
+
+        inserirLivrosAte(100_000);
+        long agregada100k = medirAgregada();
+        long findAll100k = medirFindAll();
+
+        EstatisticasDTO estatisticas = livroRepository.calcularEstatisticasDownloads();
+        assertEquals(100_000, estatisticas.totalLivros());
+
+        System.out.printf("""
+                --- Estatísticas de downloads: bytes alocados por chamada ---
+                livros     consulta agregada     findAll + stream
+                10.000     %,17d     %,16d
+                100.000    %,17d     %,16d
+                """, agregada10k, findAll10k, agregada100k, findAll100k);
+
+        // A consulta agregada não pode crescer com o catálogo (folga para ruído do JIT/driver)
+        assertTrue(agregada100k < agregada10k * 2 + 256 * 1024,
+                "consulta agregada deveria alocar memória constante");
+        assertTrue(findAll100k > agregada100k * 100);
+    }
+}
@@ -0,0 +1,112 @@
+package br.com.alura.literalura.repository;
+
+import br.com.alura.literalura.model.DTO.LivroResponseDTO;
+import br.com.alura.literalura.service.CursorPaginacao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Percorre as consultas por keyset página a página e confere que o resultado é o mesmo
+ * da ordenação completa, sem itens repetidos nem perdidos entre as páginas.
+ */
+@DataJpaTest(showSql = false)
+class PaginacaoPorCursorTest {
+
+    private static final int TAMANHO_PAGINA = 7;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void popularBanco() {
+        List<Object[]> autores = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            // Nascimentos entre 1800 e 1878; metade ainda sem ano de falecimento
+            autores.add(new Object[]{"Autor " + (char) ('A' + i % 26) + i, 1800 + 2 * i, i % 2 == 0 ? null : 1850 + 2 * i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO autores (nome, ano_nascimento, ano_falecimento) VALUES (?, ?, ?)", autores);
+        // Ids da sequência avançam em blocos: não são contíguos
+        List<Long> idsAutores = jdbcTemplate.queryForList("SELECT id FROM autores ORDER BY id", Long.class);
+
+        List<Object[]> livros = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            livros.add(new Object[]{"Livro " + (char) ('Z' - i % 26) + i, "en", i, i, idsAutores.get(i % 40)});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO livros (titulo, idioma, numero_downloads, id_api, autor_id) VALUES (?, ?, ?, ?, ?)", livros);
+    }
+
+    @Test
+    void livrosPorCursorSeguemAOrdemDeTitulo() {
+        List<String> percorridos = new ArrayList<>();
+        List<LivroResponseDTO> pagina = livroRepository.findPrimeirosComAutores(PageRequest.ofSize(TAMANHO_PAGINA));
+        while (!pagina.isEmpty()) {
+            pagina.forEach(livro -> {
+                assertNotNull(livro.autor());
+                percorridos.add(livro.titulo());
+            });
+            LivroResponseDTO ultimo = pagina.get(pagina.size() - 1);
+            CursorPaginacao cursor = CursorPaginacao.decodificar(
+                    new CursorPaginacao(ultimo.titulo(), ultimo.id()).codificar());
+            pagina = livroRepository.findComAutoresApos(cursor.chave(), cursor.id(), PageRequest.ofSize(TAMANHO_PAGINA));
+        }
+
+        List<String> esperados = jdbcTemplate.queryForList("SELECT titulo FROM livros ORDER BY titulo, id", String.class);
+        assertEquals(esperados, percorridos);
+        assertEquals(50, livroRepository.countComAutores());
+    }
+
+    @Test
+    void autoresVivosPorCursorSeguemAOrdemDeNome() {
+        int ano = 1860;
+        List<Long> percorridos = new ArrayList<>();
+        String nome = null;
+        Long id = null;
+        List<Long> pagina;
+        do {
+            pagina = autorRepository.findIdsAutoresVivosNoAnoApos(ano, nome, id, PageRequest.ofSize(TAMANHO_PAGINA));
+            percorridos.addAll(pagina);
+            if (!pagina.isEmpty()) {
+                id = pagina.get(pagina.size() - 1);
+                nome = autorRepository.findById(id).orElseThrow().getNome();
+            }
+        } while (!pagina.isEmpty());
+
+        List<Long> esperados = jdbcTemplate.queryForList("""
+                SELECT id FROM autores
+                WHERE ano_nascimento <= ? AND (ano_falecimento IS NULL OR ano_falecimento >= ?)
+                ORDER BY nome, id
+                """, Long.class, ano, ano);
+        assertFalse(esperados.isEmpty());
+        assertEquals(esperados, percorridos);
+        assertEquals(esperados.size(), autorRepository.countAutoresVivosNoAno(ano));
+
+        // As páginas por OFFSET seguem a mesma ordem
+        List<Long> porOffset = new ArrayList<>();
+        for (int numero = 0; numero * TAMANHO_PAGINA < esperados.size(); numero++) {
+            porOffset.addAll(autorRepository.findIdsAutoresVivosNoAno(ano, PageRequest.of(numero, TAMANHO_PAGINA)).getContent());
+        }
+        assertEquals(esperados, porOffset);
+    }
+
+    @Test
+    void cursorInvalidoERejeitado() {
+        assertNull(CursorPaginacao.decodificar(null));
+        assertThrows(IllegalArgumentException.class, () -> CursorPaginacao.decodificar("não é base64"));
+    }
+}
@@ -0,0 +1,128 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.model.DTO.DadosLivro;
+import br.com.alura.literalura.model.DTO.DadosRespostaApi;
+import br.com.alura.literalura.model.DTO.RelatorioAtualizacaoDownloads;
+import br.com.alura.literalura.repository.CheckpointRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(showSql = false, properties = {
+        "literalura.downloads.agendada=false",
+        "literalura.downloads.url=https://gutendex.test/books/?ids=",
+        "literalura.downloads.ids-por-requisicao=3",
+        "literalura.downloads.max-em-voo=2"})
+@Import({AtualizacaoDownloadsService.class, AtualizacaoDownloadsServiceTest.Metricas.class})
+class AtualizacaoDownloadsServiceTest {
+
+    @TestConfiguration
+    static class Metricas {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean private ConsumoApi consumoApi;
+    @MockBean private IConverteDados conversor;
+
+    @Autowired private AtualizacaoDownloadsService atualizacao;
+    @Autowired private CheckpointRepository checkpointRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private MeterRegistry metricas;
+
+    // Ids pedidos em cada requisição, na ordem em que chegaram
+    private final List<List<Integer>> requisicoes = new CopyOnWriteArrayList<>();
+    private final Set<Integer> idsForaDoAr = Collections.synchronizedSet(new HashSet<>());
+
+    @BeforeEach
+    void popular() {
+        // Livros 1 a 10 no Gutendex, com 100 downloads cada; um livro sem id no Gutendex fica de fora
+        for (int idApi = 1; idApi <= 10; idApi++) {
+            jdbcTemplate.update("INSERT INTO livros (titulo, idioma, numero_downloads, id_api) VALUES (?, 'en', 100, ?)",
+                    "Livro " + idApi, idApi);
+        }
+        jdbcTemplate.update("INSERT INTO livros (titulo, idioma, numero_downloads) VALUES ('Sem id', 'en', 100)");
+
+        // Na API, os livros pares passaram a ter idApi * 1000 downloads; os ímpares continuam com 100
+        when(consumoApi.obterDadosSemCache(anyString(), any())).thenAnswer(chamada -> {
+            String url = chamada.getArgument(0);
+            List<Integer> ids = Arrays.stream(url.substring(url.indexOf("ids=") + 4).split(","))
+                    .map(Integer::valueOf).toList();
+            requisicoes.add(ids);
+            if (ids.stream().anyMatch(idsForaDoAr::contains)) return null;
+            List<DadosLivro> livros = ids.stream()
+                    .map(id -> new DadosLivro(id, "Livro " + id, List.of(), List.of("en"), id % 2 == 0 ? id * 1000 : 100, null, List.of()))
+                    .toList();
+            return new DadosRespostaApi(livros.size(), null, null, livros);
+        });
+    }
+
+    private int downloads(int idApi) {
+        return jdbcTemplate.queryForObject("SELECT numero_downloads FROM livros WHERE id_api = ?", Integer.class, idApi);
+    }
+
+    @Test
+    void gravaSoOsDownloadsQueMudaram() {
+        RelatorioAtualizacaoDownloads relatorio = atualizacao.atualizar().orElseThrow();
+
+        assertEquals(10, relatorio.livrosConsultados());
+        assertEquals(5, relatorio.livrosAlterados());
+        assertEquals(4, relatorio.requisicoes());
+        assertTrue(relatorio.concluida());
+        assertEquals(8000, downloads(8));
+        assertEquals(100, downloads(7));
+        // Blocos de 3 ids; o Gutendex recebe cada livro uma única vez
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10),
+                requisicoes.stream().flatMap(List::stream).sorted().toList());
+        assertTrue(requisicoes.stream().allMatch(ids -> ids.size() <= 3));
+        assertTrue(checkpointRepository.findById(AtualizacaoDownloadsService.CHECKPOINT_ATUALIZACAO).isEmpty());
+        assertEquals(5.0, metricas.get("literalura.downloads.atualizacao.alterados").summary().totalAmount());
+
+        // Nada mudou desde a última execução: nenhuma linha alterada
+        assertEquals(0, atualizacao.atualizar().orElseThrow().livrosAlterados());
+    }
+
+    @Test
+    void falhaNaApiGuardaCheckpointEAProximaExecucaoContinuaDali() {
+        // Primeira rodada: livros 1 a 6 (dois blocos); a segunda falha no bloco 7-9
+        idsForaDoAr.add(8);
+        RelatorioAtualizacaoDownloads interrompida = atualizacao.atualizar().orElseThrow();
+
+        assertFalse(interrompida.concluida());
+        assertEquals(6, interrompida.livrosConsultados());
+        assertEquals(3, interrompida.livrosAlterados());
+        assertEquals(6000, downloads(6));
+        assertEquals(100, downloads(10), "bloco depois da falha não é gravado");
+        Long ultimoGravado = jdbcTemplate.queryForObject("SELECT id FROM livros WHERE id_api = 6", Long.class);
+        assertEquals(String.valueOf(ultimoGravado), checkpointRepository
+                .findById(AtualizacaoDownloadsService.CHECKPOINT_ATUALIZACAO).orElseThrow().getValor());
+
+        idsForaDoAr.clear();
+        requisicoes.clear();
+        RelatorioAtualizacaoDownloads retomada = atualizacao.atualizar().orElseThrow();
+
+        assertTrue(retomada.concluida());
+        assertEquals(4, retomada.livrosConsultados());
+        assertEquals(2, retomada.livrosAlterados());
+        assertEquals(List.of(7, 8, 9, 10), requisicoes.stream().flatMap(List::stream).sorted().toList());
+        assertEquals(10000, downloads(10));
+    }
+}
@@ -0,0 +1,77 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.model.DTO.DadosAutor;
+import br.com.alura.literalura.model.DTO.DadosLivro;
+import br.com.alura.literalura.model.DTO.TextoIndexadoDTO;
+import br.com.alura.literalura.model.Livro;
+import br.com.alura.literalura.repository.AutorRepository;
+import br.com.alura.literalura.repository.LivroRepository;
+import br.com.alura.literalura.repository.TopicoRepository;
+import br.com.alura.literalura.service.indice.IndiceBuscaTextual;
+import br.com.alura.literalura.service.indice.IndiceRankingDownloads;
+import br.com.alura.literalura.service.indice.IndiceTitulos;
+import br.com.alura.literalura.service.indice.IndiceVidaAutores;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/** Títulos já catalogados são respondidos pelo banco local, sem chamar o Gutendex. */
+class BuscaNoCatalogoTest {
+
+    private final LivroRepository livroRepository = mock(LivroRepository.class);
+    private final ConsumoApi consumoApi = mock(ConsumoApi.class);
+    private final SimpleMeterRegistry metricas = new SimpleMeterRegistry();
+
+    private CatalogoService catalogo(IndiceTitulos indiceTitulos) {
+        return new CatalogoService(livroRepository, mock(AutorRepository.class), mock(TopicoRepository.class),
+                mock(ResolvedorTopicos.class), mock(ResolvedorAutores.class), consumoApi, mock(IConverteDados.class),
+                mock(FilaTraducaoTopicos.class), mock(IndiceVidaAutores.class), mock(IndiceBuscaTextual.class),
+                indiceTitulos, mock(IndiceRankingDownloads.class), mock(ApplicationEventPublisher.class), mock(PlatformTransactionManager.class), metricas);
+    }
+
+    @Test
+    void tituloCatalogadoNaoChamaAApi() {
+        Livro dracula = new Livro(new DadosLivro(345, "Dracula", List.of(new DadosAutor("Stoker, Bram", 1847, 1912)),
+                List.of("en"), 300, null, List.of()));
+        when(livroRepository.findTitulosDosLivros()).thenReturn(List.of(new TextoIndexadoDTO(7L, "Dracula")));
+        when(livroRepository.findById(7L)).thenReturn(Optional.of(dracula));
+        IndiceTitulos indiceTitulos = new IndiceTitulos(livroRepository);
+        indiceTitulos.carregar();
+        CatalogoService catalogoService = catalogo(indiceTitulos);
+
+        assertSame(dracula, catalogoService.buscarEsalvarLivroDaApiPorTitulo("  DRACULA ").orElseThrow());
+        verifyNoInteractions(consumoApi);
+
+        // Título desconhecido vai à API (que aqui não responde)
+        assertEquals(Optional.empty(), catalogoService.buscarEsalvarLivroDaApiPorTitulo("Carmilla"));
+        verify(consumoApi).obterDados(anyString(), any());
+
+        assertEquals(50.0, catalogoService.percentualChamadasEvitadas());
+        assertEquals(50.0, metricas.get("literalura.busca.titulo.remotas.evitadas").gauge().value());
+        assertEquals(1.0, metricas.get("literalura.busca.titulo").tag("origem", "catalogo").counter().count());
+
+        // Faltar no catálogo não conta como busca na API; só a chamada ao Gutendex conta
+        assertEquals(Optional.empty(), catalogoService.buscarNoCatalogo("Carmilla"));
+        assertEquals(1.0, metricas.get("literalura.busca.titulo").tag("origem", "api").counter().count());
+    }
+
+    @Test
+    void indiceFrioVaiAApi() {
+        CatalogoService catalogoService = catalogo(new IndiceTitulos(livroRepository));
+
+        catalogoService.buscarEsalvarLivroDaApiPorTitulo("Dracula");
+
+        verify(consumoApi).obterDados(anyString(), any());
+        verify(livroRepository, never()).findById(any());
+        assertEquals(0.0, catalogoService.percentualChamadasEvitadas());
+    }
+}
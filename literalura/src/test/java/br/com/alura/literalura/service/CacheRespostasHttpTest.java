@@ -0,0 +1,225 @@
+package br.com.alura.literalura.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheRespostasHttpTest {
+
+    private HttpServer servidor;
+    private String base;
+    private final SimpleMeterRegistry metricas = new SimpleMeterRegistry();
+
+    // Comportamento do servidor em cada teste
+    private final AtomicReference<String> corpoAtual = new AtomicReference<>("{\"versao\":1}");
+    private final AtomicReference<String> etagAtual = new AtomicReference<>("\"v1\"");
+    private final AtomicInteger statusForcado = new AtomicInteger(0);
+    private final AtomicInteger respostasCompletas = new AtomicInteger();
+    private final AtomicInteger respostasNaoModificadas = new AtomicInteger();
+
+    @TempDir
+    Path pasta;
+
+    @BeforeEach
+    void iniciarServidor() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/books", this::responder);
+        servidor.createContext("/data", troca -> {
+            // Só Last-Modified, sem ETag
+            String ultimaModificacao = "Wed, 01 Jan 2025 00:00:00 GMT";
+            troca.getResponseHeaders().add("Last-Modified", ultimaModificacao);
+            if (ultimaModificacao.equals(troca.getRequestHeaders().getFirst("If-Modified-Since"))) {
+                respostasNaoModificadas.incrementAndGet();
+                troca.sendResponseHeaders(304, -1);
+                troca.close();
+                return;
+            }
+            enviar(troca, 200, "{\"data\":true}");
+        });
+        servidor.start();
+        base = "http://127.0.0.1:" + servidor.getAddress().getPort();
+    }
+
+    @AfterEach
+    void pararServidor() {
+        servidor.stop(0);
+    }
+
+    private void responder(HttpExchange troca) throws IOException {
+        if (statusForcado.get() != 0) {
+            enviar(troca, statusForcado.get(), "indisponível");
+            return;
+        }
+        troca.getResponseHeaders().add("ETag", etagAtual.get());
+        if (etagAtual.get().equals(troca.getRequestHeaders().getFirst("If-None-Match"))) {
+            respostasNaoModificadas.incrementAndGet();
+            troca.sendResponseHeaders(304, -1);
+            troca.close();
+            return;
+        }
+        enviar(troca, 200, corpoAtual.get());
+    }
+
+    private void enviar(HttpExchange troca, int status, String corpo) throws IOException {
+        if (status == 200) respostasCompletas.incrementAndGet();
+        byte[] bytes = corpo.getBytes(StandardCharsets.UTF_8);
+        troca.sendResponseHeaders(status, bytes.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(bytes);
+        }
+    }
+
+    private CacheRespostasHttp novoCache(DataSize tamanhoMaximo) {
+        return new CacheRespostasHttp(pasta, tamanhoMaximo, List.of("127.0.0.1"), metricas);
+    }
+
+    private ConsumoApi novoConsumoApi(CacheRespostasHttp cache) {
+        return new ConsumoApi(Duration.ofSeconds(2), Duration.ofSeconds(5), metricas, cache, new LimitadorTaxaPorHost(0));
+    }
+
+    @Test
+    void revalidaComETagESoBaixaDeNovoQuandoMuda() {
+        CacheRespostasHttp cache = novoCache(DataSize.ofMegabytes(1));
+        ConsumoApi consumoApi = novoConsumoApi(cache);
+
+        assertEquals("{\"versao\":1}", consumoApi.obterDados(base + "/books/?search=dom&page=1"));
+        // Mesma URL com os parâmetros em outra ordem: mesma entrada
+        assertEquals("{\"versao\":1}", consumoApi.obterDados(base + "/books/?page=1&search=dom"));
+        assertEquals(1, respostasCompletas.get());
+        assertEquals(1, respostasNaoModificadas.get());
+
+        corpoAtual.set("{\"versao\":2}");
+        etagAtual.set("\"v2\"");
+        assertEquals("{\"versao\":2}", consumoApi.obterDados(base + "/books/?search=dom&page=1"));
+        assertEquals(2, respostasCompletas.get());
+        // falta, revalidação, falta
+        assertEquals(1.0 / 3, cache.taxaDeAcertos(), 1e-9);
+    }
+
+    @Test
+    void revalidaComLastModified() {
+        ConsumoApi consumoApi = novoConsumoApi(novoCache(DataSize.ofMegabytes(1)));
+
+        assertEquals("{\"data\":true}", consumoApi.obterDados(base + "/data"));
+        assertEquals("{\"data\":true}", consumoApi.obterDados(base + "/data"));
+
+        assertEquals(1, respostasCompletas.get());
+        assertEquals(1, respostasNaoModificadas.get());
+    }
+
+    @Test
+    void usaACopiaLocalQuandoAApiFalha() {
+        CacheRespostasHttp cache = novoCache(DataSize.ofMegabytes(1));
+        ConsumoApi consumoApi = novoConsumoApi(cache);
+        consumoApi.obterDados(base + "/books/?search=dom");
+
+        statusForcado.set(503);
+        assertEquals("{\"versao\":1}", consumoApi.obterDados(base + "/books/?search=dom"));
+        assertNull(consumoApi.obterDados(base + "/books/?search=outro"));
+
+        servidor.stop(0);
+        assertEquals("{\"versao\":1}", consumoApi.obterDados(base + "/books/?search=dom"));
+        assertEquals(2, metricas.get("literalura.http.cache").tag("resultado", "obsoleta").counter().count());
+    }
+
+    @Test
+    void consultaSemCacheNaoGuardaNemUsaACopiaLocal() {
+        CacheRespostasHttp cache = novoCache(DataSize.ofMegabytes(1));
+        ConsumoApi consumoApi = novoConsumoApi(cache);
+        ConsumoApi.LeitorCorpo<String> texto = corpo -> new String(corpo.readAllBytes(), StandardCharsets.UTF_8);
+        consumoApi.obterDados(base + "/books/?ids=1,2");
+        long guardados = cache.bytesEmDisco();
+
+        assertEquals("{\"versao\":1}", consumoApi.obterDadosSemCache(base + "/books/?ids=3,4", texto));
+        assertEquals(guardados, cache.bytesEmDisco());
+        assertTrue(cache.buscar(URI.create(base + "/books/?ids=3,4")).isEmpty());
+
+        statusForcado.set(503);
+        assertNull(consumoApi.obterDadosSemCache(base + "/books/?ids=1,2", texto));
+        assertEquals(0, metricas.get("literalura.http.cache").tag("resultado", "obsoleta").counter().count());
+    }
+
+    @Test
+    void removeAsEntradasMenosUsadasAoPassarDoLimite() throws IOException {
+        corpoAtual.set("x".repeat(400));
+        CacheRespostasHttp cache = novoCache(DataSize.ofBytes(1000));
+        ConsumoApi consumoApi = novoConsumoApi(cache);
+
+        consumoApi.obterDados(base + "/books/?page=1");
+        consumoApi.obterDados(base + "/books/?page=2");
+        consumoApi.obterDados(base + "/books/?page=1"); // página 1 passa a ser a mais recente
+        consumoApi.obterDados(base + "/books/?page=3");
+
+        assertEquals(800, cache.bytesEmDisco());
+        assertTrue(cache.buscar(URI.create(base + "/books/?page=1")).isPresent());
+        assertTrue(cache.buscar(URI.create(base + "/books/?page=2")).isEmpty());
+        try (var arquivos = Files.list(pasta)) {
+            assertEquals(4, arquivos.count(), "corpo e metadados das duas entradas restantes");
+        }
+
+        // Nova instância reconstrói o índice a partir do disco
+        CacheRespostasHttp recarregado = novoCache(DataSize.ofBytes(1000));
+        assertEquals(800, recarregado.bytesEmDisco());
+        assertTrue(recarregado.buscar(URI.create(base + "/books/?page=1")).isPresent());
+
+        // A página 3 veio do disco e não foi usada nesta execução: sai antes da página 1, mesmo sendo mais nova
+        novoConsumoApi(recarregado).obterDados(base + "/books/?page=4");
+        assertTrue(recarregado.buscar(URI.create(base + "/books/?page=1")).isPresent());
+        assertTrue(recarregado.buscar(URI.create(base + "/books/?page=3")).isEmpty());
+    }
+
+    @Test
+    void corpoRemovidoDepoisDaBuscaValeComoFalta() throws IOException {
+        CacheRespostasHttp cache = novoCache(DataSize.ofMegabytes(1));
+        ConsumoApi consumoApi = novoConsumoApi(cache);
+        consumoApi.obterDados(base + "/books/?search=dom");
+        apagarCorpos();
+
+        // O servidor confirma a cópia (304), mas ela não existe mais: a URL é pedida de novo
+        assertEquals("{\"versao\":1}", consumoApi.obterDados(base + "/books/?search=dom"));
+        assertEquals(2, respostasCompletas.get());
+        assertEquals(0, cache.bytesEmDisco());
+
+        consumoApi.obterDados(base + "/books/?search=dom");
+        apagarCorpos();
+        statusForcado.set(503);
+        assertNull(consumoApi.obterDados(base + "/books/?search=dom"));
+        assertEquals(0, metricas.get("literalura.http.cache").tag("resultado", "obsoleta").counter().count());
+    }
+
+    private void apagarCorpos() throws IOException {
+        try (var arquivos = Files.list(pasta)) {
+            for (Path arquivo : arquivos.filter(arquivo -> arquivo.toString().endsWith(".corpo")).toList()) {
+                Files.delete(arquivo);
+            }
+        }
+    }
+
+    @Test
+    void normalizaAUrl() {
+        assertEquals("https://gutendex.com/books/?page=2&search=dom",
+                CacheRespostasHttp.normalizar(URI.create("HTTPS://Gutendex.com:443/books/?search=dom&page=2#topo")));
+        assertEquals("http://gutendex.com/", CacheRespostasHttp.normalizar(URI.create("http://gutendex.com")));
+        assertEquals(CacheRespostasHttp.chave(URI.create("https://gutendex.com/books/?a=1&b=2")),
+                CacheRespostasHttp.chave(URI.create("https://GUTENDEX.com/books/?b=2&a=1")));
+    }
+}
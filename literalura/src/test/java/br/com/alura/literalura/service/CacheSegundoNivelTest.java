@@ -0,0 +1,197 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.config.CacheSegundoNivelConfig;
+import br.com.alura.literalura.model.Autor;
+import br.com.alura.literalura.model.DTO.AutorComLivrosDTO;
+import br.com.alura.literalura.model.DTO.DadosAutor;
+import br.com.alura.literalura.model.DTO.DadosLivro;
+import br.com.alura.literalura.model.Livro;
+import br.com.alura.literalura.model.Topico;
+import br.com.alura.literalura.repository.AutorRepository;
+import br.com.alura.literalura.repository.LivroRepository;
+import br.com.alura.literalura.repository.TopicoRepository;
+import br.com.alura.literalura.service.indice.IndiceBuscaTextual;
+import br.com.alura.literalura.service.indice.IndiceRankingDownloads;
+import br.com.alura.literalura.service.indice.IndiceTitulos;
+import br.com.alura.literalura.service.indice.IndiceVidaAutores;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Conta as instruções SQL com o cache de segundo nível ligado: autores e tópicos já vistos
+ * não devem voltar ao banco, nem na listagem nem na ingestão, e as alterações devem aparecer.
+ */
+@DataJpaTest(showSql = false, properties = {
+        // Banco próprio, no modo PostgreSQL como o de produção
+        "spring.datasource.url=jdbc:h2:mem:cache2n;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CacheSegundoNivelConfig.class, CatalogoService.class, ResolvedorTopicos.class, ResolvedorAutores.class, CacheSegundoNivelTest.Metricas.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CacheSegundoNivelTest {
+
+    @TestConfiguration
+    static class Metricas {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean private ConsumoApi consumoApi;
+    @MockBean private IConverteDados conversor;
+    @MockBean private FilaTraducaoTopicos filaTraducao;
+    @MockBean private IndiceVidaAutores indiceVidaAutores;
+    @MockBean private IndiceBuscaTextual indiceBuscaTextual;
+    @MockBean private IndiceTitulos indiceTitulos;
+    @MockBean private IndiceRankingDownloads indiceRanking;
+
+    @Autowired private CatalogoService catalogoService;
+    @Autowired private AutorRepository autorRepository;
+    @Autowired private LivroRepository livroRepository;
+    @Autowired private TopicoRepository topicoRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void ligarEstatisticas() {
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+    }
+
+    @AfterEach
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM livro_topico");
+        jdbcTemplate.update("DELETE FROM livro_idioma");
+        jdbcTemplate.update("DELETE FROM livros");
+        jdbcTemplate.update("DELETE FROM autores");
+        // Os tópicos ficam: o ResolvedorTopicos guarda os ids dos que já viu
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    private static DadosLivro livro(int idApi, String titulo, int downloads, String... topicos) {
+        return new DadosLivro(idApi, titulo, List.of(new DadosAutor("Stoker, Bram", 1847, 1912)),
+                List.of("en"), downloads, null, List.of(topicos));
+    }
+
+    /** Instruções preparadas pelo Hibernate durante a ação. */
+    private long instrucoes(Runnable acao) {
+        long antes = estatisticas.getPrepareStatementCount();
+        acao.run();
+        return estatisticas.getPrepareStatementCount() - antes;
+    }
+
+    private <T> T emTransacao(Supplier<T> acao) {
+        return new TransactionTemplate(transactionManager).execute(status -> acao.get());
+    }
+
+    @Test
+    void leituraRepetidaNaoRelêAutoresNemTopicos() {
+        catalogoService.salvarLivroDaApi(livro(345, "Dracula", 300, "Horror tales", "Vampires -- Fiction"));
+        catalogoService.salvarLivroDaApi(livro(3781, "The Jewel of Seven Stars", 200, "Horror tales", "Mummies -- Fiction"));
+        catalogoService.salvarLivroDaApi(livro(2160, "The Lair of the White Worm", 100, "Horror tales"));
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM livros", Long.class);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+        Runnable ler = () -> {
+            emTransacao(() -> {
+                List<Livro> livros = livroRepository.findAllById(ids);
+                assertEquals(3, livros.size());
+                livros.forEach(l -> {
+                    assertEquals("Stoker, Bram", l.getAutor().getNome());
+                    assertFalse(l.getTopicos().isEmpty());
+                });
+                return livros;
+            });
+            Page<AutorComLivrosDTO> autores = catalogoService.listarTodosOsAutores(PageRequest.of(0, 10));
+            assertEquals(1, autores.getTotalElements());
+            assertEquals(3, autores.getContent().get(0).livros().size());
+        };
+
+        // Cache frio: livros, autor, tópicos de cada livro, ids dos autores, autores e títulos
+        long primeira = instrucoes(ler);
+        // Cache quente: só os livros, os autores e os títulos; ids, autor e tópicos vêm do cache
+        long segunda = instrucoes(ler);
+
+        assertTrue(primeira >= 8, "primeira leitura: " + primeira);
+        assertEquals(3, segunda);
+        assertTrue(estatisticas.getSecondLevelCacheHitCount() > 0);
+        assertTrue(estatisticas.getQueryCacheHitCount() > 0);
+    }
+
+    @Test
+    void autorJaVistoNaIngestaoSaiDoCache() {
+        long primeira = instrucoes(() -> catalogoService.salvarLivroDaApi(livro(345, "Dracula", 300, "Horror tales")));
+        long buscasPeloNome = estatisticas.getNaturalIdQueryExecutionCount();
+
+        long segunda = instrucoes(() -> catalogoService.salvarLivroDaApi(
+                livro(3781, "The Jewel of Seven Stars", 200, "Horror tales")));
+
+        // Na segunda gravação o ResolvedorAutores já conhece o id e o autor vem do cache de entidades:
+        // nenhuma consulta pela chave natural
+        assertEquals(buscasPeloNome, estatisticas.getNaturalIdQueryExecutionCount());
+        assertTrue(estatisticas.getDomainDataRegionStatistics(CacheSegundoNivelConfig.AUTORES).getHitCount() > 0);
+        assertTrue(segunda < primeira, "primeira: " + primeira + ", segunda: " + segunda);
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM autores", Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT autor_id) + 1 FROM livros", Integer.class));
+    }
+
+    @Test
+    void alteracoesInvalidamEntidadesEConsultasEmCache() {
+        catalogoService.salvarLivroDaApi(livro(345, "Dracula", 300, "Horror tales"));
+        Long autorId = jdbcTemplate.queryForObject("SELECT id FROM autores", Long.class);
+        assertEquals(1, emTransacao(() -> autorRepository.findIdsPaginados(PageRequest.of(0, 10))).getTotalElements());
+        assertEquals(1912, emTransacao(() -> autorRepository.findById(autorId).orElseThrow()).getAnoFalecimento());
+
+        emTransacao(() -> {
+            autorRepository.findById(autorId).orElseThrow().setAnoFalecimento(1913);
+            return autorRepository.save(new Autor(new DadosAutor("Shelley, Mary Wollstonecraft", 1797, 1851)));
+        });
+
+        // A entidade em cache foi atualizada no commit; a consulta em cache foi descartada
+        long leitura = instrucoes(() ->
+                assertEquals(1913, emTransacao(() -> autorRepository.findById(autorId).orElseThrow()).getAnoFalecimento()));
+        assertEquals(0, leitura);
+        assertEquals(2, emTransacao(() -> autorRepository.findIdsPaginados(PageRequest.of(0, 10))).getTotalElements());
+
+        // Vínculo gravado por SQL nativo invalida os tópicos e a coleção dos livros, mas não os autores
+        Long livroId = jdbcTemplate.queryForObject("SELECT id FROM livros", Long.class);
+        Long topicoId = emTransacao(() -> topicoRepository.save(new Topico("Whitby (England) -- Fiction"))).getId();
+        assertEquals(1, emTransacao(() -> livroRepository.findById(livroId).orElseThrow().getTopicos().size()));
+        emTransacao(() -> topicoRepository.vincularAoLivro(livroId, topicoId));
+        assertEquals(2, emTransacao(() -> livroRepository.findById(livroId).orElseThrow().getTopicos().size()));
+        assertEquals(0, instrucoes(() -> emTransacao(() -> autorRepository.findById(autorId))));
+    }
+}
@@ -0,0 +1,118 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.model.DTO.AutorComLivrosDTO;
+import br.com.alura.literalura.model.DTO.LivroResponseDTO;
+import br.com.alura.literalura.service.indice.IndiceBuscaTextual;
+import br.com.alura.literalura.service.indice.IndiceRankingDownloads;
+import br.com.alura.literalura.service.indice.IndiceTitulos;
+import br.com.alura.literalura.service.indice.IndiceVidaAutores;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * As leituras do catálogo vêm de projeções: nenhuma entidade é carregada e o número de
+ * consultas não cresce com a quantidade de livros ou autores.
+ */
+@DataJpaTest(showSql = false, properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({CatalogoService.class, ResolvedorTopicos.class, ResolvedorAutores.class, ConsultasPorProjecaoTest.Metricas.class})
+class ConsultasPorProjecaoTest {
+
+    @TestConfiguration
+    static class Metricas {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean private ConsumoApi consumoApi;
+    @MockBean private IConverteDados conversor;
+    @MockBean private FilaTraducaoTopicos filaTraducao;
+    @MockBean private IndiceVidaAutores indiceVidaAutores;
+    @MockBean private IndiceBuscaTextual indiceBuscaTextual;
+    @MockBean private IndiceTitulos indiceTitulos;
+    @MockBean private IndiceRankingDownloads indiceRanking;
+
+    @Autowired private CatalogoService catalogoService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void popular() {
+        jdbcTemplate.update("INSERT INTO autores (id, nome, ano_nascimento, ano_falecimento) VALUES (1, 'Austen, Jane', 1775, 1817)");
+        jdbcTemplate.update("INSERT INTO autores (id, nome, ano_nascimento, ano_falecimento) VALUES (2, 'Shelley, Mary Wollstonecraft', 1797, 1851)");
+        jdbcTemplate.update("INSERT INTO livros (id, titulo, idioma, numero_downloads, id_api, autor_id) VALUES (1, 'Pride and Prejudice', 'en', 500, 1342, 1)");
+        jdbcTemplate.update("INSERT INTO livros (id, titulo, idioma, numero_downloads, id_api, autor_id) VALUES (2, 'Emma', 'en', 300, 158, 1)");
+        jdbcTemplate.update("INSERT INTO livros (id, titulo, idioma, numero_downloads, id_api, autor_id) VALUES (3, 'Frankenstein', 'en', 400, 84, 2)");
+        jdbcTemplate.update("INSERT INTO livro_idioma (livro_id, idioma) SELECT id, idioma FROM livros");
+        jdbcTemplate.update("INSERT INTO topicos (id, nome) VALUES (1, 'Love stories'), (2, 'England -- Fiction'), (3, 'Monsters -- Fiction')");
+        jdbcTemplate.update("INSERT INTO livro_topico (livro_id, topico_id) VALUES (1, 1), (1, 2), (2, 2), (3, 3)");
+
+        // Índices frios: o serviço cai nas consultas ao banco
+        when(indiceBuscaTextual.buscarAutores(anyString())).thenReturn(Optional.empty());
+        when(indiceVidaAutores.vivosNoAno(anyInt())).thenReturn(Optional.empty());
+
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+    }
+
+    @Test
+    void livrosVemComAutorETopicosSemCarregarEntidades() {
+        List<LivroResponseDTO> livros = catalogoService.listarTodosOsLivros().stream()
+                .sorted(Comparator.comparing(LivroResponseDTO::id)).toList();
+
+        assertEquals(3, livros.size());
+        assertEquals("Austen, Jane", livros.get(0).autor().nome());
+        assertEquals(List.of("England -- Fiction", "Love stories"), livros.get(0).topicos());
+        assertEquals(List.of("Monsters -- Fiction"), livros.get(2).topicos());
+        // Livros com autor numa consulta, os tópicos de todos em outra
+        assertEquals(2, estatisticas.getPrepareStatementCount());
+        assertEquals(0, estatisticas.getEntityLoadCount());
+        assertEquals(0, estatisticas.getCollectionLoadCount());
+
+        List<LivroResponseDTO> top = catalogoService.buscarTop10LivrosMaisBaixados();
+        assertEquals(List.of("Pride and Prejudice", "Frankenstein", "Emma"),
+                top.stream().map(LivroResponseDTO::titulo).toList());
+        assertEquals(0, estatisticas.getEntityLoadCount());
+    }
+
+    @Test
+    void autoresVemComOsTitulosSemCarregarEntidades() {
+        List<AutorComLivrosDTO> autores = catalogoService.buscarAutoresPorNome("e");
+        List<AutorComLivrosDTO> vivos = catalogoService.listarAutoresVivosEmDeterminadoAno(1800);
+        List<AutorComLivrosDTO> nascidos = catalogoService.listarAutoresPorAnoNascimento(1797);
+
+        assertEquals(2, autores.size());
+        assertEquals(2, vivos.size());
+        AutorComLivrosDTO austen = vivos.stream().filter(a -> a.id() == 1L).findFirst().orElseThrow();
+        assertEquals(List.of("Pride and Prejudice", "Emma"), austen.livros());
+        assertEquals(List.of("Frankenstein"), nascidos.get(0).livros());
+        // Duas consultas por leitura (autores e títulos), qualquer que seja o número de autores
+        assertEquals(6, estatisticas.getPrepareStatementCount());
+        assertEquals(0, estatisticas.getEntityLoadCount());
+        assertEquals(0, estatisticas.getCollectionLoadCount());
+    }
+}
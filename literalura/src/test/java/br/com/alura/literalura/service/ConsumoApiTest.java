@@ -0,0 +1,145 @@
+package br.com.alura.literalura.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import br.com.alura.literalura.model.DTO.DadosRespostaApi;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsumoApiTest {
+
+    private HttpServer servidor;
+    private final Set<Integer> portasClientes = ConcurrentHashMap.newKeySet();
+    private String base;
+    private final SimpleMeterRegistry metricas = new SimpleMeterRegistry();
+
+    @TempDir
+    Path pastaCache;
+
+    /** Sem hosts configurados o cache em disco fica desligado; ele tem testes próprios. */
+    private ConsumoApi novoConsumoApi() {
+        CacheRespostasHttp semCache = new CacheRespostasHttp(pastaCache, DataSize.ofMegabytes(1), List.of(), metricas);
+        return new ConsumoApi(Duration.ofSeconds(2), Duration.ofSeconds(5), metricas, semCache, new LimitadorTaxaPorHost(0));
+    }
+
+    @BeforeEach
+    void iniciarServidor() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/livros", troca -> responder(troca, 200, "{\"count\":1}", false));
+        servidor.createContext("/gzip", troca -> responder(troca, 200, "{\"count\":2}", true));
+        servidor.createContext("/erro", troca -> responder(troca, 500, "falhou", false));
+        servidor.start();
+        base = "http://127.0.0.1:" + servidor.getAddress().getPort();
+    }
+
+    @AfterEach
+    void pararServidor() {
+        servidor.stop(0);
+    }
+
+    private void responder(HttpExchange troca, int status, String corpo, boolean gzip) throws IOException {
+        portasClientes.add(troca.getRemoteAddress().getPort());
+        byte[] bytes = corpo.getBytes(StandardCharsets.UTF_8);
+        if (gzip) {
+            assertEquals("gzip", troca.getRequestHeaders().getFirst("Accept-Encoding"));
+            ByteArrayOutputStream compactado = new ByteArrayOutputStream();
+            try (GZIPOutputStream saida = new GZIPOutputStream(compactado)) {
+                saida.write(bytes);
+            }
+            bytes = compactado.toByteArray();
+            troca.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        troca.sendResponseHeaders(status, bytes.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(bytes);
+        }
+    }
+
+    @Test
+    void reaproveitaConexaoEntreRequisicoesSequenciais() {
+        ConsumoApi consumoApi = novoConsumoApi();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("{\"count\":1}", consumoApi.obterDados(base + "/livros"));
+        }
+
+        assertEquals(1, portasClientes.size(), "todas as requisições deveriam usar a mesma conexão");
+    }
+
+    @Test
+    void descompactaRespostaGzip() {
+        ConsumoApi consumoApi = novoConsumoApi();
+
+        assertEquals("{\"count\":2}", consumoApi.obterDados(base + "/gzip"));
+    }
+
+    @Test
+    void converteDiretoDoCorpoCompactado() {
+        ConsumoApi consumoApi = novoConsumoApi();
+        ConverteDados conversor = new ConverteDados();
+
+        DadosRespostaApi resposta = consumoApi.obterDados(base + "/gzip",
+                corpo -> conversor.obterDados(corpo, DadosRespostaApi.class));
+
+        assertEquals(2, resposta.total());
+        assertNull(consumoApi.obterDados(base + "/erro", corpo -> fail("o leitor não deveria ser chamado")));
+    }
+
+    @Test
+    void retornaNuloQuandoStatusNaoEhSucesso() {
+        ConsumoApi consumoApi = novoConsumoApi();
+
+        assertNull(consumoApi.obterDados(base + "/erro"));
+        assertEquals(1, metricas.get("literalura.http.requisicao")
+                .tags("host", "127.0.0.1", "status", "500").timer().count());
+    }
+
+    @Test
+    void executaChamadasAssincronasEmParalelo() {
+        ConsumoApi consumoApi = novoConsumoApi();
+
+        List<CompletableFuture<String>> chamadas = IntStream.range(0, 8)
+                .mapToObj(i -> consumoApi.obterDadosAsync(base + "/livros"))
+                .toList();
+
+        chamadas.forEach(chamada -> assertEquals("{\"count\":1}", chamada.join()));
+    }
+
+    @Test
+    void espacaAsChamadasAoMesmoHostSemBloquearQuemChama() {
+        CacheRespostasHttp semCache = new CacheRespostasHttp(pastaCache, DataSize.ofMegabytes(1), List.of(), metricas);
+        ConsumoApi consumoApi = new ConsumoApi(Duration.ofSeconds(2), Duration.ofSeconds(5), metricas, semCache,
+                new LimitadorTaxaPorHost(20));
+
+        long inicio = System.nanoTime();
+        List<CompletableFuture<String>> chamadas = IntStream.range(0, 5)
+                .mapToObj(i -> consumoApi.obterDadosAsync(base + "/livros"))
+                .toList();
+        long disparo = System.nanoTime() - inicio;
+        chamadas.forEach(chamada -> assertEquals("{\"count\":1}", chamada.join()));
+
+        // 5 chamadas a 20/s: a última sai ~200 ms depois da primeira
+        assertTrue(Duration.ofNanos(System.nanoTime() - inicio).toMillis() >= 190);
+        assertTrue(Duration.ofNanos(disparo).toMillis() < 100, "o disparo não deve esperar o limitador");
+    }
+}
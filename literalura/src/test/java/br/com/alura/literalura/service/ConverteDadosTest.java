@@ -0,0 +1,70 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.model.DTO.DadosLivro;
+import br.com.alura.literalura.model.DTO.DadosRespostaApi;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConverteDadosTest {
+
+    private final ConverteDados conversor = new ConverteDados();
+
+    private static InputStream pagina() {
+        return ConverteDadosTest.class.getResourceAsStream("/fixtures/gutendex-pagina-32.json");
+    }
+
+    @Test
+    void converteDoStreamComoDaString() throws IOException {
+        String json;
+        try (InputStream entrada = pagina()) {
+            json = new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        DadosRespostaApi daString = conversor.obterDados(json, DadosRespostaApi.class);
+        DadosRespostaApi doStream = conversor.obterDados(pagina(), DadosRespostaApi.class);
+
+        assertEquals(32, doStream.livros().size());
+        assertEquals(daString, doStream);
+    }
+
+    @Test
+    void percorreOsResultadosUmAUmEConverteOsDemaisCampos() {
+        List<DadosLivro> recebidos = new ArrayList<>();
+
+        DadosRespostaApi envelope = conversor.percorrerLista(pagina(), "results", DadosLivro.class,
+                recebidos::add, DadosRespostaApi.class);
+
+        assertEquals(conversor.obterDados(pagina(), DadosRespostaApi.class).livros(), recebidos);
+        assertEquals(74620, envelope.total());
+        assertEquals("https://gutendex.com/books/?page=2", envelope.proximaPagina());
+        assertNull(envelope.livros());
+    }
+
+    @Test
+    void converteSoOsItensDentroDoLimite() {
+        List<DadosLivro> recebidos = new ArrayList<>();
+
+        DadosRespostaApi envelope = conversor.percorrerLista(pagina(), "results", DadosLivro.class, 1,
+                recebidos::add, DadosRespostaApi.class);
+
+        assertEquals(List.of(conversor.obterDados(pagina(), DadosRespostaApi.class).livros().get(0)), recebidos);
+        assertEquals(74620, envelope.total());
+        assertEquals("https://gutendex.com/books/?page=2", envelope.proximaPagina());
+    }
+
+    @Test
+    void retornaNuloParaJsonInvalido() {
+        var json = new ByteArrayInputStream("{\"results\": [ {\"id\": ".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(conversor.percorrerLista(json, "results", DadosLivro.class, livro -> {}, DadosRespostaApi.class));
+        assertNull(conversor.obterDados(new ByteArrayInputStream("[1,".getBytes(StandardCharsets.UTF_8)), DadosRespostaApi.class));
+    }
+}
@@ -0,0 +1,107 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.model.DTO.RelatorioExportacao;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(showSql = false, properties = "literalura.exportacao.fetch-size=100")
+@Import(ExportacaoCatalogoService.class)
+class ExportacaoCatalogoServiceTest {
+
+    private static final int TOTAL_LIVROS = 250;
+
+    @Autowired
+    private ExportacaoCatalogoService exportacao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path pasta;
+
+    @BeforeEach
+    void popularBanco() {
+        jdbcTemplate.update("INSERT INTO autores (nome, ano_nascimento, ano_falecimento) VALUES ('Austen, Jane', 1775, 1817)");
+        Long autorId = jdbcTemplate.queryForObject("SELECT id FROM autores", Long.class);
+        List<Object[]> livros = new ArrayList<>();
+        for (int i = 0; i < TOTAL_LIVROS; i++) {
+            livros.add(new Object[]{"Livro " + i + (i == 0 ? ", \"com aspas\"" : ""), "en", i, i, autorId});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO livros (titulo, idioma, numero_downloads, id_api, autor_id) VALUES (?, ?, ?, ?, ?)", livros);
+
+        jdbcTemplate.update("INSERT INTO topicos (nome) VALUES ('Fiction'), ('Romance')");
+        jdbcTemplate.update("""
+                INSERT INTO livro_topico (livro_id, topico_id)
+                SELECT l.id, t.id FROM livros l CROSS JOIN topicos t WHERE l.id_api = 0
+                """);
+    }
+
+    @Test
+    void exportaNdjsonCompactadoComTodosOsLivros() throws IOException {
+        Path arquivo = pasta.resolve("catalogo.ndjson.gz");
+
+        RelatorioExportacao relatorio = exportacao.exportarLivros(arquivo, FormatoExportacao.NDJSON, true);
+
+        List<String> linhas = lerLinhas(arquivo, true);
+        assertEquals(TOTAL_LIVROS, relatorio.livrosExportados());
+        assertEquals(TOTAL_LIVROS, linhas.size());
+        assertEquals(Files.size(arquivo), relatorio.bytesGravados());
+
+        JsonNode primeiro = new ObjectMapper().readTree(linhas.get(0));
+        assertEquals("Livro 0, \"com aspas\"", primeiro.get("titulo").asText());
+        assertEquals("Austen, Jane", primeiro.get("autor").asText());
+        assertEquals(2, primeiro.get("topicos").size());
+        assertEquals(0, new ObjectMapper().readTree(linhas.get(1)).get("topicos").size());
+    }
+
+    @Test
+    void exportacaoNdjsonVaziaGeraArquivoVazio() throws IOException {
+        jdbcTemplate.update("DELETE FROM livro_topico");
+        jdbcTemplate.update("DELETE FROM livros");
+        Path arquivo = pasta.resolve("vazio.ndjson");
+
+        RelatorioExportacao relatorio = exportacao.exportarLivros(arquivo, FormatoExportacao.NDJSON, false);
+
+        assertEquals(0, relatorio.livrosExportados());
+        assertEquals(0, Files.size(arquivo));
+    }
+
+    @Test
+    void exportaCsvComCabecalhoECamposEscapados() throws IOException {
+        Path arquivo = pasta.resolve("catalogo.csv");
+
+        exportacao.exportarLivros(arquivo, FormatoExportacao.CSV, false);
+
+        List<String> linhas = lerLinhas(arquivo, false);
+        assertEquals(TOTAL_LIVROS + 1, linhas.size());
+        assertTrue(linhas.get(0).startsWith("id,titulo,"));
+        assertTrue(linhas.get(1).contains(",\"Livro 0, \"\"com aspas\"\"\",en,0,0,\"Austen, Jane\",1775,1817,Fiction; Romance"));
+    }
+
+    private static List<String> lerLinhas(Path arquivo, boolean compactado) throws IOException {
+        var entrada = compactado ? new GZIPInputStream(Files.newInputStream(arquivo)) : Files.newInputStream(arquivo);
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            return leitor.lines().toList();
+        }
+    }
+}
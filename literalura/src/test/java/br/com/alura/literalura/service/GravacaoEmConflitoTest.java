@@ -0,0 +1,142 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.model.Autor;
+import br.com.alura.literalura.model.DTO.DadosAutor;
+import br.com.alura.literalura.model.DTO.DadosLivro;
+import br.com.alura.literalura.repository.LivroRepository;
+import br.com.alura.literalura.service.indice.IndiceBuscaTextual;
+import br.com.alura.literalura.service.indice.IndiceRankingDownloads;
+import br.com.alura.literalura.service.indice.IndiceTitulos;
+import br.com.alura.literalura.service.indice.IndiceVidaAutores;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Simula a gravação que perde a corrida: a verificação de existência não enxerga o registro
+ * que outra transação acabou de gravar, a chave única rejeita o INSERT e a gravação refeita
+ * deve resolver para o registro vencedor.
+ */
+@DataJpaTest(showSql = false, properties = {
+        // Banco próprio, no modo PostgreSQL como o de produção
+        "spring.datasource.url=jdbc:h2:mem:conflito;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CatalogoService.class, ResolvedorTopicos.class, ResolvedorAutores.class, GravacaoEmConflitoTest.Metricas.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GravacaoEmConflitoTest {
+
+    @TestConfiguration
+    static class Metricas {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean private ConsumoApi consumoApi;
+    @MockBean private IConverteDados conversor;
+    @MockBean private FilaTraducaoTopicos filaTraducao;
+    @MockBean private IndiceVidaAutores indiceVidaAutores;
+    @MockBean private IndiceBuscaTextual indiceBuscaTextual;
+    @MockBean private IndiceTitulos indiceTitulos;
+    @MockBean private IndiceRankingDownloads indiceRanking;
+
+    @SpyBean private LivroRepository livroRepository;
+    @SpyBean private ResolvedorAutores resolvedorAutores;
+
+    @Autowired private CatalogoService catalogoService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private static DadosLivro dracula() {
+        return new DadosLivro(345, "Dracula", List.of(new DadosAutor("Stoker, Bram", 1847, 1912)),
+                List.of("en"), 100, null, List.of("Horror tales"));
+    }
+
+    @AfterEach
+    void limparBanco() {
+        jdbcTemplate.update("DELETE FROM livro_topico");
+        jdbcTemplate.update("DELETE FROM livro_idioma");
+        jdbcTemplate.update("DELETE FROM livros");
+        jdbcTemplate.update("DELETE FROM autores");
+        jdbcTemplate.update("DELETE FROM topicos");
+    }
+
+    private long inserirAutorVencedor() {
+        jdbcTemplate.update("INSERT INTO autores (nome, chave, ano_nascimento, ano_falecimento) VALUES ('Stoker, Bram', 'stoker, bram', 1847, 1912)");
+        return jdbcTemplate.queryForObject("SELECT id FROM autores WHERE nome = 'Stoker, Bram'", Long.class);
+    }
+
+    @Test
+    void livroGravadoPorOutraTransacaoViraDuplicado() {
+        long autorId = inserirAutorVencedor();
+        jdbcTemplate.update("INSERT INTO livros (titulo, idioma, numero_downloads, id_api, autor_id) VALUES ('Dracula', 'en', 100, 345, ?)", autorId);
+        Long livroId = jdbcTemplate.queryForObject("SELECT id FROM livros", Long.class);
+        // A primeira verificação chega antes do commit do vencedor; a segunda já o enxerga
+        doReturn(Optional.empty())
+                .doAnswer(chamada -> livroRepository.findById(livroId))
+                .when(livroRepository).findByTituloIgnoreCase(anyString());
+
+        CatalogoService.ResultadoCadastro resultado = catalogoService.salvarLivroDaApi(dracula());
+
+        assertFalse(resultado.novo());
+        assertEquals("Dracula", resultado.livro().getTitulo());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM livros", Integer.class));
+        verify(livroRepository, times(2)).findByTituloIgnoreCase("Dracula");
+    }
+
+    @Test
+    void autorGravadoPorOutraTransacaoEReaproveitado() {
+        // O autor ainda não existe na busca pela chave natural; o vencedor grava (em outra conexão)
+        // logo depois, antes do nosso INSERT
+        long[] autorId = new long[1];
+        doAnswer(chamada -> {
+            autorId[0] = CompletableFuture.supplyAsync(this::inserirAutorVencedor).join();
+            return new Autor(chamada.<DadosAutor>getArgument(0));
+        }).doCallRealMethod().when(resolvedorAutores).resolver(any());
+
+        CatalogoService.ResultadoCadastro resultado = catalogoService.salvarLivroDaApi(dracula());
+
+        assertTrue(resultado.novo());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM autores", Integer.class));
+        assertEquals(autorId[0], jdbcTemplate.queryForObject("SELECT autor_id FROM livros WHERE titulo = 'Dracula'", Long.class));
+        // Os eventos da tentativa desfeita não chegam aos índices; o tópico criado nela também não ficou
+        verify(filaTraducao, never()).enfileirar(any(), any(), any());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM livro_topico", Integer.class));
+    }
+
+    @Test
+    void violacaoQueNaoEDeChaveUnicaNaoERefeita() {
+        DataIntegrityViolationException nulo = new DataIntegrityViolationException("coluna nula",
+                new SQLException("NULL not allowed", "23502"));
+        doThrow(nulo).when(livroRepository).saveAndFlush(any());
+
+        assertThrows(DataIntegrityViolationException.class, () -> catalogoService.salvarLivroDaApi(dracula()));
+        verify(livroRepository, times(1)).saveAndFlush(any());
+    }
+}
@@ -0,0 +1,126 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.config.GravacaoEmLoteConfig;
+import br.com.alura.literalura.model.DTO.DadosAutor;
+import br.com.alura.literalura.model.DTO.DadosLivro;
+import br.com.alura.literalura.service.indice.IndiceBuscaTextual;
+import br.com.alura.literalura.service.indice.IndiceRankingDownloads;
+import br.com.alura.literalura.service.indice.IndiceTitulos;
+import br.com.alura.literalura.service.indice.IndiceVidaAutores;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Com ids de sequência e lote JDBC, gravar uma página de livros manda os INSERTs de cada tabela
+ * (inclusive as de junção) em poucos lotes, em vez de uma instrução por linha.
+ */
+@DataJpaTest(showSql = false, properties = {
+        // Banco próprio, no modo PostgreSQL como o de produção
+        "spring.datasource.url=jdbc:h2:mem:lote;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=br.com.alura.literalura.service.GravacaoEmLoteTest$ContadorInserts"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({GravacaoEmLoteConfig.class, CatalogoService.class, ResolvedorTopicos.class, ResolvedorAutores.class, GravacaoEmLoteTest.Metricas.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GravacaoEmLoteTest {
+
+    @TestConfiguration
+    static class Metricas {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    /** Conta os INSERTs preparados pelo Hibernate: um por lote, ou um por linha sem lote. */
+    public static class ContadorInserts implements StatementInspector {
+        static final AtomicInteger INSERTS = new AtomicInteger();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("insert")) INSERTS.incrementAndGet();
+            return sql;
+        }
+    }
+
+    @MockBean private ConsumoApi consumoApi;
+    @MockBean private IConverteDados conversor;
+    @MockBean private FilaTraducaoTopicos filaTraducao;
+    @MockBean private IndiceVidaAutores indiceVidaAutores;
+    @MockBean private IndiceBuscaTextual indiceBuscaTextual;
+    @MockBean private IndiceTitulos indiceTitulos;
+    @MockBean private IndiceRankingDownloads indiceRanking;
+
+    @Autowired private CatalogoService catalogoService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transacao;
+
+    @AfterEach
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM livro_topico");
+        jdbcTemplate.update("DELETE FROM livro_idioma");
+        jdbcTemplate.update("DELETE FROM livros");
+        jdbcTemplate.update("DELETE FROM autores");
+        jdbcTemplate.update("DELETE FROM topicos");
+    }
+
+    @Test
+    void paginaDeLivrosVaiAoBancoEmLotes() {
+        List<DadosLivro> pagina = IntStream.range(0, 60)
+                .mapToObj(i -> new DadosLivro(1000 + i, "Livro " + i, List.of(new DadosAutor("Autor " + i, 1800, 1880)),
+                        List.of("en"), i, null, List.of("Fiction", "Tema " + i % 3)))
+                .toList();
+
+        ContadorInserts.INSERTS.set(0);
+        transacao.execute(status -> catalogoService.salvarNovosLivros(pagina));
+
+        assertEquals(60, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM livros", Integer.class));
+        assertEquals(60, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM autores", Integer.class));
+        assertEquals(120, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM livro_topico", Integer.class));
+        assertEquals(60, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM livro_idioma", Integer.class));
+        // 300 linhas em 4 tabelas, lotes de 50: dois lotes por tabela, três em livro_topico
+        assertTrue(ContadorInserts.INSERTS.get() <= 9, "INSERTs preparados: " + ContadorInserts.INSERTS.get());
+        // INSERT por SQL direto pega o próximo id da mesma sequência, sem colidir com os já alocados
+        jdbcTemplate.update("INSERT INTO autores (nome) VALUES ('Autor avulso')");
+        assertEquals(61, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT id) FROM autores", Integer.class));
+    }
+
+    @Test
+    void tituloLongoJaCatalogadoNaoEGravadoDeNovo() {
+        String longo = "A".repeat(200) + " Ï".repeat(50);
+        DadosLivro livro = new DadosLivro(1, longo, List.of(), List.of("en"), 10, null, List.of());
+        transacao.execute(status -> catalogoService.salvarNovosLivros(List.of(livro)));
+
+        // Mesmo título em outra caixa e com outro final depois do caractere 255: gravado, vira o mesmo
+        DadosLivro repetido = new DadosLivro(2, longo.toLowerCase(Locale.ROOT) + " (edição revista)", List.of(),
+                List.of("en"), 20, null, List.of());
+        List<?> salvos = transacao.execute(status -> catalogoService.salvarNovosLivros(List.of(repetido)));
+
+        assertTrue(salvos.isEmpty());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM livros", Integer.class));
+        assertFalse(catalogoService.salvarLivroDaApi(repetido).novo());
+    }
+}
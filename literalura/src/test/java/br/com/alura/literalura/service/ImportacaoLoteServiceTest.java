@@ -0,0 +1,75 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.model.DTO.DadosLivro;
+import br.com.alura.literalura.model.DTO.RelatorioImportacaoLote;
+import br.com.alura.literalura.model.DTO.ResultadoImportacaoTitulo;
+import br.com.alura.literalura.model.DTO.ResultadoImportacaoTitulo.Situacao;
+import br.com.alura.literalura.model.Livro;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ImportacaoLoteServiceTest {
+
+    private final CatalogoService catalogoService = mock(CatalogoService.class);
+
+    private static DadosLivro dados(String titulo) {
+        return new DadosLivro(1, titulo, List.of(), List.of("en"), 0, null, List.of());
+    }
+
+    @Test
+    void classificaCadaTituloNaOrdemDeEntrada() {
+        when(catalogoService.buscarLivroNaApi(anyString())).thenAnswer(chamada -> {
+            String titulo = chamada.getArgument(0);
+            return switch (titulo) {
+                case "inexistente" -> Optional.empty();
+                case "fora do ar" -> throw new IllegalStateException("Sem resposta da API");
+                default -> Optional.of(dados(titulo));
+            };
+        });
+        when(catalogoService.salvarLivroDaApi(any())).thenAnswer(chamada -> {
+            DadosLivro dados = chamada.getArgument(0);
+            return new CatalogoService.ResultadoCadastro(new Livro(dados), !dados.titulo().equals("Emma"));
+        });
+
+        RelatorioImportacaoLote relatorio = new ImportacaoLoteService(catalogoService, 4)
+                .importarTitulos(List.of("Dracula", "inexistente", " ", "Emma", "fora do ar", "DRACULA "));
+
+        assertEquals(List.of("Dracula", "inexistente", "Emma", "fora do ar"),
+                relatorio.resultados().stream().map(ResultadoImportacaoTitulo::tituloPesquisado).toList());
+        assertEquals(List.of(Situacao.SALVO, Situacao.NAO_ENCONTRADO, Situacao.DUPLICADO, Situacao.FALHA),
+                relatorio.resultados().stream().map(ResultadoImportacaoTitulo::situacao).toList());
+        assertEquals("Sem resposta da API", relatorio.resultados().get(3).erro());
+        assertEquals(1, relatorio.contar(Situacao.SALVO));
+    }
+
+    @Test
+    void respeitaOLimiteDeBuscasSimultaneas() {
+        AtomicInteger buscando = new AtomicInteger();
+        AtomicInteger maxBuscando = new AtomicInteger();
+        when(catalogoService.buscarLivroNaApi(anyString())).thenAnswer(chamada -> {
+            maxBuscando.accumulateAndGet(buscando.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            buscando.decrementAndGet();
+            return Optional.of(dados(chamada.getArgument(0)));
+        });
+        when(catalogoService.salvarLivroDaApi(any())).thenAnswer(chamada ->
+                new CatalogoService.ResultadoCadastro(new Livro(chamada.getArgument(0)), true));
+
+        List<String> titulos = IntStream.range(0, 24).mapToObj(i -> "Livro " + i).toList();
+        RelatorioImportacaoLote relatorio = new ImportacaoLoteService(catalogoService, 3).importarTitulos(titulos);
+
+        assertEquals(24, relatorio.contar(Situacao.SALVO));
+        assertEquals(3, maxBuscando.get());
+        assertTrue(relatorio.tempoTotalBusca().toMillis() >= 24 * 20);
+        verify(catalogoService, times(24)).salvarLivroDaApi(any());
+    }
+}
@@ -0,0 +1,110 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.model.DTO.AutorComLivrosDTO;
+import br.com.alura.literalura.repository.AutorRepository;
+import br.com.alura.literalura.repository.LivroRepository;
+import br.com.alura.literalura.service.indice.IndiceBuscaTextual;
+import br.com.alura.literalura.service.indice.IndiceRankingDownloads;
+import br.com.alura.literalura.service.indice.IndiceTitulos;
+import br.com.alura.literalura.service.indice.IndiceVidaAutores;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/** A mesma página é devolvida com os índices em memória frios ou aquecidos. */
+@DataJpaTest(showSql = false)
+@Import({CatalogoService.class, ResolvedorTopicos.class, ResolvedorAutores.class, PaginacaoComIndicesTest.Metricas.class})
+class PaginacaoComIndicesTest {
+
+    @TestConfiguration
+    static class Metricas {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean private ConsumoApi consumoApi;
+    @MockBean private IConverteDados conversor;
+    @MockBean private FilaTraducaoTopicos filaTraducao;
+    @MockBean private IndiceVidaAutores indiceVidaAutores;
+    @MockBean private IndiceBuscaTextual indiceBuscaTextual;
+    @MockBean private IndiceTitulos indiceTitulos;
+    @MockBean private IndiceRankingDownloads indiceRanking;
+
+    @Autowired private CatalogoService catalogoService;
+    @Autowired private AutorRepository autorRepository;
+    @Autowired private LivroRepository livroRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void popular() {
+        // Nomes fora da ordem dos ids: o índice guarda ids, a página sai ordenada por nome
+        String[] nomes = {"Twain, Mark", "Austen, Jane", "Dickens, Charles", "Austen, Cassandra", "Brontë, Emily",
+                "Shelley, Mary", "Collins, Wilkie", "Eliot, George", "Alcott, Louisa May", "Hardy, Thomas", "Brontë, Anne"};
+        List<Object[]> linhas = new ArrayList<>();
+        for (String nome : nomes) linhas.add(new Object[]{nome, 1800, 1880});
+        jdbcTemplate.batchUpdate("INSERT INTO autores (nome, ano_nascimento, ano_falecimento) VALUES (?, ?, ?)", linhas);
+    }
+
+    @Test
+    void autoresVivosTemAMesmaOrdemComIndiceFrioOuAquecido() {
+        when(indiceVidaAutores.vivosNoAno(anyInt())).thenReturn(Optional.empty());
+        List<List<AutorComLivrosDTO>> frias = paginas(p -> catalogoService.listarAutoresVivosEmDeterminadoAno(1850, p).getContent());
+
+        IndiceVidaAutores aquecido = new IndiceVidaAutores(autorRepository);
+        aquecido.carregar();
+        when(indiceVidaAutores.vivosNoAno(anyInt())).thenAnswer(chamada -> aquecido.vivosNoAno(chamada.getArgument(0)));
+        List<List<AutorComLivrosDTO>> quentes = paginas(p -> catalogoService.listarAutoresVivosEmDeterminadoAno(1850, p).getContent());
+
+        assertEquals(frias, quentes);
+        assertEquals(11, frias.stream().mapToInt(List::size).sum());
+        assertEquals("Alcott, Louisa May", frias.get(0).get(0).nome());
+    }
+
+    @Test
+    void buscaPorNomeTemAMesmaOrdemComIndiceFrioOuAquecido() {
+        when(indiceBuscaTextual.buscarAutores(anyString())).thenReturn(Optional.empty());
+        List<List<AutorComLivrosDTO>> frias = paginas(p -> catalogoService.buscarAutoresPorNome("e", p).getContent());
+        List<List<AutorComLivrosDTO>> friasBronte = paginas(p -> catalogoService.buscarAutoresPorNome("bront", p).getContent());
+
+        IndiceBuscaTextual aquecido = new IndiceBuscaTextual(autorRepository, livroRepository);
+        aquecido.carregar();
+        when(indiceBuscaTextual.buscarAutores(anyString())).thenAnswer(chamada -> aquecido.buscarAutores(chamada.getArgument(0)));
+
+        assertEquals(frias, paginas(p -> catalogoService.buscarAutoresPorNome("e", p).getContent()));
+        assertEquals(friasBronte, paginas(p -> catalogoService.buscarAutoresPorNome("bront", p).getContent()));
+        // Acentos ignorados também no índice frio; o nome mais curto vem primeiro
+        assertEquals(List.of("Brontë, Anne", "Brontë, Emily"), friasBronte.get(0).stream().map(AutorComLivrosDTO::nome).toList());
+    }
+
+    // Percorre as páginas de 4 até a primeira vazia
+    private List<List<AutorComLivrosDTO>> paginas(Function<Pageable, List<AutorComLivrosDTO>> consulta) {
+        List<List<AutorComLivrosDTO>> paginas = new ArrayList<>();
+        for (int numero = 0; ; numero++) {
+            List<AutorComLivrosDTO> pagina = consulta.apply(PageRequest.of(numero, 4));
+            if (pagina.isEmpty()) return paginas;
+            paginas.add(pagina);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package br.com.alura.literalura.service;
+
+import br.com.alura.literalura.config.CacheSegundoNivelConfig;
+import br.com.alura.literalura.config.MigracaoEsquema;
+import br.com.alura.literalura.model.Autor;
+import br.com.alura.literalura.model.DTO.DadosAutor;
+import br.com.alura.literalura.model.DTO.DadosLivro;
+import br.com.alura.literalura.service.indice.IndiceBuscaTextual;
+import br.com.alura.literalura.service.indice.IndiceRankingDownloads;
+import br.com.alura.literalura.service.indice.IndiceTitulos;
+import br.com.alura.literalura.service.indice.IndiceVidaAutores;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(showSql = false, properties = {
+        // Banco próprio, no modo PostgreSQL como o de produção
+        "spring.datasource.url=jdbc:h2:mem:autores;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CacheSegundoNivelConfig.class, MigracaoEsquema.class, CatalogoService.class, ResolvedorTopicos.class,
+        ResolvedorAutores.class, ResolvedorAutoresTest.Metricas.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ResolvedorAutoresTest {
+
+    @TestConfiguration
+    static class Metricas {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean private ConsumoApi consumoApi;
+    @MockBean private IConverteDados conversor;
+    @MockBean private FilaTraducaoTopicos filaTraducao;
+    @MockBean private IndiceVidaAutores indiceVidaAutores;
+    @MockBean private IndiceBuscaTextual indiceBuscaTextual;
+    @MockBean private IndiceTitulos indiceTitulos;
+    @MockBean private IndiceRankingDownloads indiceRanking;
+
+    @Autowired private CatalogoService catalogoService;
+    @Autowired private ResolvedorAutores resolvedorAutores;
+    @Autowired private MigracaoEsquema migracaoEsquema;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transacao;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM livro_topico");
+        jdbcTemplate.update("DELETE FROM livro_idioma");
+        jdbcTemplate.update("DELETE FROM livros");
+        jdbcTemplate.update("DELETE FROM autores");
+        jdbcTemplate.update("DELETE FROM topicos");
+        // O ResolvedorAutores pode guardar ids removidos acima; sem o cache, ele os confere no banco e os descarta
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    private static DadosLivro livro(int idApi, String titulo, String autor) {
+        return new DadosLivro(idApi, titulo, List.of(new DadosAutor(autor, 1797, 1851)), List.of("en"), 100, null, List.of());
+    }
+
+    private Long autorDoLivro(String titulo) {
+        return jdbcTemplate.queryForObject("SELECT autor_id FROM livros WHERE titulo = ?", Long.class, titulo);
+    }
+
+    @Test
+    void nomesParecidosSaoAutoresDiferentesEVariacoesDoMesmoNomeNao() {
+        catalogoService.salvarLivroDaApi(livro(84, "Frankenstein", "Shelley, Mary Wollstonecraft"));
+        catalogoService.salvarLivroDaApi(livro(4800, "Ozymandias", "Shelley, Percy Bysshe"));
+        // Antes, a busca por trecho do nome casava com "Shelley, Mary Wollstonecraft"
+        catalogoService.salvarLivroDaApi(livro(9001, "Mathilda", "Shelley, Mary"));
+        catalogoService.salvarLivroDaApi(livro(18247, "The Last Man", "  SHELLEY,  Mary   Wollstonecraft "));
+        catalogoService.salvarLivroDaApi(livro(1260, "Jane Eyre", "Brontë, Charlotte"));
+        catalogoService.salvarLivroDaApi(livro(9182, "Villette", "Bronte, Charlotte"));
+
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM autores", Integer.class));
+        assertEquals(autorDoLivro("Frankenstein"), autorDoLivro("The Last Man"));
+        assertNotEquals(autorDoLivro("Frankenstein"), autorDoLivro("Mathilda"));
+        assertEquals(autorDoLivro("Jane Eyre"), autorDoLivro("Villette"));
+        assertEquals("bronte, charlotte",
+                jdbcTemplate.queryForObject("SELECT chave FROM autores WHERE id = ?", String.class, autorDoLivro("Villette")));
+    }
+
+    @Test
+    void autorJaVistoResolveSemIrAoBanco() {
+        catalogoService.salvarLivroDaApi(livro(84, "Frankenstein", "Shelley, Mary Wollstonecraft"));
+        Long autorId = autorDoLivro("Frankenstein");
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        estatisticas.clear();
+        Autor autor = transacao.execute(status ->
+                resolvedorAutores.resolver(new DadosAutor("shelley, mary wollstonecraft", 1797, 1851)));
+
+        assertEquals(autorId, autor.getId());
+        assertEquals(0, estatisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void migracaoPreencheAChaveDosAutoresAntigos() {
+        jdbcTemplate.update("INSERT INTO autores (nome) VALUES ('Austen, Jane')");
+        jdbcTemplate.update("INSERT INTO autores (nome) VALUES ('Dumas,  Alexandre')");
+        // Mesma chave que o anterior: o mais antigo fica com ela
+        jdbcTemplate.update("INSERT INTO autores (nome) VALUES ('DUMAS, Alexandre')");
+
+        migracaoEsquema.aplicar();
+
+        assertEquals("austen, jane", jdbcTemplate.queryForObject(
+                "SELECT chave FROM autores WHERE nome = 'Austen, Jane'", String.class));
+        assertEquals("dumas, alexandre", jdbcTemplate.queryForObject(
+                "SELECT chave FROM autores WHERE nome = 'Dumas,  Alexandre'", String.class));
+        assertNull(jdbcTemplate.queryForObject(
+                "SELECT chave FROM autores WHERE nome = 'DUMAS, Alexandre'", String.class));
+
+        catalogoService.salvarLivroDaApi(livro(105, "Persuasion", "Austen, Jane"));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM autores", Integer.class));
+    }
+}
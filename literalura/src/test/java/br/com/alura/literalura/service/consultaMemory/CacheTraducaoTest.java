@@ -0,0 +1,58 @@
+package br.com.alura.literalura.service.consultaMemory;
+
+import br.com.alura.literalura.model.Traducao;
+import br.com.alura.literalura.repository.TraducaoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** A tabela {@code traducoes} é única por (hash do texto, idioma), aceitando textos longos. */
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CacheTraducaoTest {
+
+    @Autowired private TraducaoRepository traducaoRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM traducoes");
+    }
+
+    @Test
+    void textoLongoEhGravadoUmaVezEEncontradoPeloHash() {
+        // 2000 caracteres de 2 bytes: maior que uma entrada de índice B-tree do PostgreSQL
+        String longo = "ã".repeat(2000);
+        CacheTraducao cache = new CacheTraducao(traducaoRepository, transactionManager, 10, Duration.ofMinutes(5));
+        cache.registrar(longo, "en", "a");
+        cache.registrar(longo, "en", "a");
+        cache.registrar(longo, "fr", "b");
+
+        assertEquals(2, traducaoRepository.count());
+        assertEquals(Traducao.hashDoTexto(longo), jdbcTemplate.queryForObject(
+                "SELECT hash_texto FROM traducoes WHERE idioma = 'en'", String.class));
+
+        // Cache novo, memória vazia: vem do banco
+        CacheTraducao reiniciado = new CacheTraducao(traducaoRepository, transactionManager, 10, Duration.ofMinutes(5));
+        assertEquals(Optional.of("b"), reiniciado.buscar(longo, "fr"));
+        assertEquals(Optional.empty(), reiniciado.buscar(longo + "!", "fr"));
+    }
+
+    @Test
+    void hashIgualAoMd5DoPostgres() {
+        // Valores de SELECT md5('abc') e md5('Ficção') num banco UTF-8
+        assertEquals("900150983cd24fb0d6963f7d28e17f72", Traducao.hashDoTexto("abc"));
+        assertEquals("38104347c76afd7f9e730cd08ff62c6d", Traducao.hashDoTexto("Ficção"));
+    }
+}
@@ -0,0 +1,182 @@
+package br.com.alura.literalura.service.consultaMemory;
+
+import br.com.alura.literalura.repository.TraducaoRepository;
+import br.com.alura.literalura.service.ConsumoApi;
+import br.com.alura.literalura.service.ConverteDados;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ConsultaMemoryTest {
+
+    private ConsumoApi consumoApi;
+    private CacheTraducao cache;
+    private ConsultaMemory consultaMemory;
+    private SimpleMeterRegistry metricas;
+
+    @BeforeEach
+    void configurar() {
+        consumoApi = mock(ConsumoApi.class);
+        cache = mock(CacheTraducao.class);
+        when(cache.buscar(anyString(), anyString())).thenReturn(Optional.empty());
+        metricas = new SimpleMeterRegistry();
+        consultaMemory = new ConsultaMemory(consumoApi, cache, new ConverteDados(), metricas, 60);
+    }
+
+    private static String resposta(String traducao) {
+        return "{\"responseData\":{\"translatedText\":\"" + traducao.replace("\n", "\\n") + "\"},\"responseStatus\":200}";
+    }
+
+    /** Simula a API: o JSON devolvido para cada URL é entregue ao leitor como stream. */
+    private void responderCom(Function<String, String> respostaPorUrl) {
+        when(consumoApi.obterDados(anyString(), any())).thenAnswer(chamada -> {
+            String json = respostaPorUrl.apply(chamada.getArgument(0));
+            if (json == null) return null;
+            ConsumoApi.LeitorCorpo<?> leitor = chamada.getArgument(1);
+            return leitor.ler(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        });
+    }
+
+    private static String consulta(String url) {
+        String q = url.substring(url.indexOf("q=") + 2, url.indexOf("&langpair"));
+        return URLDecoder.decode(q, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void agrupaTextosRespeitandoOLimiteDeBytes() {
+        List<List<String>> lotes = consultaMemory.montarLotes(List.of(
+                "Fiction", "Love stories", "Adventure stories", "Humorous stories", "Short stories", "Poetry"));
+
+        assertTrue(lotes.size() > 1);
+        for (List<String> lote : lotes) {
+            assertTrue(String.join(ConsultaMemory.SEPARADOR_LOTE, lote).getBytes(StandardCharsets.UTF_8).length <= 60);
+        }
+        assertEquals(6, lotes.stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    void divideARespostaDoLotePorTexto() {
+        responderCom(url -> resposta("Ficção\nHistórias de amor"));
+
+        Map<String, String> traducoes = consultaMemory.obterTraducoes(List.of("Fiction", "Love stories"), "pt");
+
+        assertEquals(Map.of("Fiction", "Ficção", "Love stories", "Histórias de amor"), traducoes);
+        verify(consumoApi, times(1)).obterDados(anyString(), any());
+        verify(cache).registrar("Fiction", "pt", "Ficção");
+        assertEquals(1, metricas.get("literalura.traducao.chamadas").tag("tipo", "lote").counter().count());
+        assertEquals(2, metricas.get("literalura.traducao.textos").tag("resultado", "traduzido").counter().count());
+    }
+
+    @Test
+    void traduzUmAUmQuandoOLoteVoltaComQuantidadeDiferente() {
+        responderCom(url -> switch (consulta(url)) {
+            case "Fiction\nLove stories" -> resposta("Ficção e histórias de amor");
+            case "Fiction" -> resposta("Ficção");
+            case "Love stories" -> resposta("Histórias de amor");
+            default -> null;
+        });
+
+        Map<String, String> traducoes = consultaMemory.obterTraducoes(List.of("Fiction", "Love stories"), "pt");
+
+        assertEquals(Map.of("Fiction", "Ficção", "Love stories", "Histórias de amor"), traducoes);
+        verify(consumoApi, times(3)).obterDados(anyString(), any());
+    }
+
+    @Test
+    void loteQueFalhaNaoViraUmaChamadaPorTexto() {
+        responderCom(url -> null);
+
+        Map<String, String> traducoes = consultaMemory.obterTraducoes(List.of("Fiction", "Love stories"), "pt");
+
+        assertEquals(Map.of("Fiction", "Fiction", "Love stories", "Love stories"), traducoes);
+        verify(consumoApi, times(1)).obterDados(anyString(), any());
+        verify(cache).registrarFalha("Fiction", "pt");
+        verify(cache).registrarFalha("Love stories", "pt");
+    }
+
+    @Test
+    void filaTentaDeNovoUmTextoQueFalhouHaPouco() {
+        CacheTraducao cacheReal = new CacheTraducao(mock(TraducaoRepository.class), mock(PlatformTransactionManager.class),
+                100, Duration.ofMinutes(5), Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC));
+        ConsultaMemory consulta = new ConsultaMemory(consumoApi, cacheReal, new ConverteDados(), metricas, 60);
+        AtomicBoolean apiNoAr = new AtomicBoolean(false);
+        responderCom(url -> apiNoAr.get() ? resposta("Ficção") : null);
+
+        assertEquals(Map.of(), consulta.obterTraducoesDisponiveis(List.of("Fiction"), "pt"));
+        apiNoAr.set(true);
+
+        // Ainda dentro do TTL negativo: a consulta direta respeita a falha, a da fila tenta de novo
+        assertEquals(Map.of("Fiction", "Fiction"), consulta.obterTraducoes(List.of("Fiction"), "pt"));
+        assertEquals(Map.of("Fiction", "Ficção"), consulta.obterTraducoesDisponiveis(List.of("Fiction"), "pt"));
+        verify(consumoApi, times(2)).obterDados(anyString(), any());
+    }
+
+    @Test
+    void usaOCacheEMantemOTextoOriginalQuandoATraducaoFalha() {
+        when(cache.buscar("Fiction", "pt")).thenReturn(Optional.of("Ficção"));
+        responderCom(url -> null);
+
+        Map<String, String> traducoes = consultaMemory.obterTraducoes(List.of("Fiction", "Poetry"), "pt");
+
+        assertEquals(Map.of("Fiction", "Ficção", "Poetry", "Poetry"), traducoes);
+        verify(cache).registrarFalha("Poetry", "pt");
+    }
+
+    @Test
+    void pedidosSimultaneosDoMesmoTextoFazemUmaSoChamada() throws Exception {
+        CountDownLatch chamadaIniciada = new CountDownLatch(1);
+        CountDownLatch liberarResposta = new CountDownLatch(1);
+        responderCom(url -> {
+            chamadaIniciada.countDown();
+            try {
+                liberarResposta.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return resposta("Ficção");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> primeiro = executor.submit(() -> consultaMemory.obterTraducao("Fiction", "pt"));
+            assertTrue(chamadaIniciada.await(5, TimeUnit.SECONDS));
+            List<Future<String>> demais = List.of(
+                    executor.submit(() -> consultaMemory.obterTraducao("Fiction", "pt")),
+                    executor.submit(() -> consultaMemory.obterTraducao("Fiction", "pt")));
+            // Dá tempo para as outras threads encontrarem a chamada em andamento
+            while (metricas.counter("literalura.chamadas.compartilhadas", "origem", "traducao").count() < 2) {
+                Thread.sleep(5);
+            }
+            liberarResposta.countDown();
+
+            assertEquals("Ficção", primeiro.get(5, TimeUnit.SECONDS));
+            for (Future<String> outro : demais) assertEquals("Ficção", outro.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(consumoApi, times(1)).obterDados(anyString(), any());
+    }
+}
@@ -0,0 +1,103 @@
+package br.com.alura.literalura.service.indice;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara a busca por trecho via {@code upper(x) LIKE '%x%'} (varredura completa) com o índice de
+ * trigramas, em 50 mil e 500 mil autores e livros. Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false)
+class BuscaTrigramasBenchmarkTest {
+
+    private static final String[] NOMES = {"Mary", "Percy", "William", "Jane", "Charles", "Emily", "Herman",
+            "Louisa", "Mark", "Virginia", "Arthur", "Bram", "Oscar", "Edgar", "Lewis", "Machado", "José", "Clarice"};
+    private static final String[] SOBRENOMES = {"Shelley", "Austen", "Dickens", "Brontë", "Melville", "Alcott",
+            "Twain", "Woolf", "Doyle", "Stoker", "Wilde", "Poe", "Carroll", "Assis", "Alencar", "Lispector"};
+    private static final String[] PALAVRAS = {"Pride", "Prejudice", "Frankenstein", "Modern", "Prometheus", "Moby",
+            "Whale", "Little", "Women", "Adventures", "Sawyer", "Dracula", "Picture", "Gray", "Raven", "Alice",
+            "Wonderland", "Memórias", "Póstumas", "Cubas", "Iracema", "Estrela"};
+    private static final String[] CONSULTAS = {"shel", "mary", "ley, per", "twain", "wonder", "póst", "xyzw"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Random aleatorio = new Random(7);
+    private final IndiceTrigramas indiceAutores = new IndiceTrigramas();
+    private final IndiceTrigramas indiceLivros = new IndiceTrigramas();
+    private int inseridos;
+
+    private void inserirAte(int total) {
+        List<Object[]> autores = new ArrayList<>();
+        List<Object[]> livros = new ArrayList<>();
+        for (int i = inseridos; i < total; i++) {
+            String nome = SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)] + ", "
+                    + NOMES[aleatorio.nextInt(NOMES.length)] + " " + i;
+            String titulo = PALAVRAS[aleatorio.nextInt(PALAVRAS.length)] + " "
+                    + PALAVRAS[aleatorio.nextInt(PALAVRAS.length)] + " " + i;
+            autores.add(new Object[]{i + 1L, nome});
+            livros.add(new Object[]{i + 1L, titulo});
+            indiceAutores.adicionar(i + 1L, nome);
+            indiceLivros.adicionar(i + 1L, titulo);
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO autores (id, nome) VALUES (?, ?)", autores);
+        jdbcTemplate.batchUpdate("INSERT INTO livros (id, titulo) VALUES (?, ?)", livros);
+        inseridos = total;
+    }
+
+    private double microsPorConsultaLike(String tabela, String coluna) {
+        String sql = "SELECT id FROM " + tabela + " WHERE upper(" + coluna + ") LIKE upper(?)";
+        for (String consulta : CONSULTAS) jdbcTemplate.queryForList(sql, Long.class, "%" + consulta + "%");
+        long inicio = System.nanoTime();
+        int repeticoes = 3;
+        for (int r = 0; r < repeticoes; r++) {
+            for (String consulta : CONSULTAS) jdbcTemplate.queryForList(sql, Long.class, "%" + consulta + "%");
+        }
+        return (System.nanoTime() - inicio) / 1000.0 / (repeticoes * CONSULTAS.length);
+    }
+
+    private static double microsPorConsultaIndice(IndiceTrigramas indice) {
+        for (int r = 0; r < 5; r++) for (String consulta : CONSULTAS) indice.buscar(consulta);
+        long inicio = System.nanoTime();
+        int repeticoes = 20;
+        for (int r = 0; r < repeticoes; r++) {
+            for (String consulta : CONSULTAS) indice.buscar(consulta);
+        }
+        return (System.nanoTime() - inicio) / 1000.0 / (repeticoes * CONSULTAS.length);
+    }
+
+    private void conferirResultados() {
+        for (String consulta : new String[]{"shel", "ley, per", "twain", "wonder"}) {
+            Set<Long> viaLike = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT id FROM autores WHERE upper(nome) LIKE upper(?)", Long.class, "%" + consulta + "%"));
+            assertEquals(viaLike, new HashSet<>(indiceAutores.buscar(consulta)), consulta);
+        }
+    }
+
+    @Test
+    void indiceDeTrigramasSuperaOLikeEmCatalogosGrandes() {
+        StringBuilder relatorio = new StringBuilder("""
+                --- Busca por trecho: microssegundos por consulta ---
+                linhas     LIKE autores   índice autores   LIKE livros   índice livros
+                """);
+        for (int total : new int[]{50_000, 500_000}) {
+            inserirAte(total);
+            conferirResultados();
+            double likeAutores = microsPorConsultaLike("autores", "nome");
+            double indiceAutor = microsPorConsultaIndice(indiceAutores);
+            double likeLivros = microsPorConsultaLike("livros", "titulo");
+            double indiceLivro = microsPorConsultaIndice(indiceLivros);
+            relatorio.append(String.format("%,-10d %,13.0f %,16.0f %,13.0f %,15.0f%n",
+                    total, likeAutores, indiceAutor, likeLivros, indiceLivro));
+        }
+        System.out.print(relatorio);
+    }
+}
@@ -0,0 +1,172 @@
+package br.com.alura.literalura.service.indice;
+
+import br.com.alura.literalura.model.DTO.LivroResponseDTO;
+import br.com.alura.literalura.repository.LivroRepository;
+import br.com.alura.literalura.service.DownloadsAlteradosEvento;
+import br.com.alura.literalura.service.LivroCadastradoEvento;
+import br.com.alura.literalura.service.TopicoTrocadoEvento;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Confere o ranking em memória contra as consultas de ranking no banco, depois da carga e depois de
+ * rodadas de cadastros, alterações de downloads (com muitos empates) e trocas de tópico.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "literalura.ranking.capacidade=20",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import(IndiceRankingDownloads.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IndiceRankingDownloadsTest {
+
+    private static final List<String> IDIOMAS = List.of("en", "fr", "pt", "de");
+    private static final int[] QUANTIDADES = {1, 7, 20};
+
+    @Autowired private IndiceRankingDownloads indice;
+    @Autowired private LivroRepository livroRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transacao;
+    @Autowired private ApplicationEventPublisher eventos;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private final Random aleatorio = new Random(42);
+    private final List<Long> topicos = new ArrayList<>();
+    private final List<Long> livros = new ArrayList<>();
+
+    @BeforeEach
+    void popular() {
+        for (int i = 0; i < 8; i++) {
+            jdbcTemplate.update("INSERT INTO topicos (nome) VALUES (?)", "Tópico " + i);
+        }
+        topicos.addAll(jdbcTemplate.queryForList("SELECT id FROM topicos ORDER BY id", Long.class));
+        for (int i = 0; i < 300; i++) {
+            Livro livro = novoLivro("Livro " + i);
+            gravar(livro);
+        }
+    }
+
+    @AfterEach
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM livro_topico");
+        jdbcTemplate.update("DELETE FROM livro_idioma");
+        jdbcTemplate.update("DELETE FROM livros");
+        jdbcTemplate.update("DELETE FROM topicos");
+    }
+
+    /** Livro sorteado: poucos valores de downloads (para haver empates), às vezes sem downloads. */
+    private record Livro(String titulo, Integer downloads, Set<String> idiomas, Set<Long> topicos) {}
+
+    private Livro novoLivro(String titulo) {
+        Integer downloads = aleatorio.nextInt(20) == 0 ? null : aleatorio.nextInt(60);
+        Set<String> idiomas = new HashSet<>(List.of(IDIOMAS.get(aleatorio.nextInt(IDIOMAS.size()))));
+        if (aleatorio.nextInt(4) == 0) idiomas.add(IDIOMAS.get(aleatorio.nextInt(IDIOMAS.size())));
+        Set<Long> doLivro = new HashSet<>();
+        for (int i = 0; i <= aleatorio.nextInt(3); i++) doLivro.add(topicos.get(aleatorio.nextInt(topicos.size())));
+        return new Livro(titulo, downloads, idiomas, doLivro);
+    }
+
+    private long gravar(Livro livro) {
+        jdbcTemplate.update("INSERT INTO livros (titulo, idioma, numero_downloads) VALUES (?, ?, ?)",
+                livro.titulo(), String.join(",", livro.idiomas()), livro.downloads());
+        long id = jdbcTemplate.queryForObject("SELECT id FROM livros WHERE titulo = ?", Long.class, livro.titulo());
+        livro.idiomas().forEach(sigla -> jdbcTemplate.update("INSERT INTO livro_idioma (livro_id, idioma) VALUES (?, ?)", id, sigla));
+        livro.topicos().forEach(topico -> jdbcTemplate.update("INSERT INTO livro_topico (livro_id, topico_id) VALUES (?, ?)", id, topico));
+        livros.add(id);
+        return id;
+    }
+
+    private static List<Long> ids(List<LivroResponseDTO> livros) {
+        return livros.stream().map(LivroResponseDTO::id).toList();
+    }
+
+    private void conferirComOBanco() {
+        for (int n : QUANTIDADES) {
+            assertEquals(ids(livroRepository.findMaisBaixados(PageRequest.ofSize(n))),
+                    indice.maisBaixados(n).orElseThrow(), "geral, n=" + n);
+            for (String sigla : IDIOMAS) {
+                assertEquals(ids(livroRepository.findMaisBaixadosPorIdioma(sigla, PageRequest.ofSize(n))),
+                        indice.maisBaixadosPorIdioma(sigla, n).orElseThrow(), sigla + ", n=" + n);
+            }
+            for (Long topico : topicos) {
+                assertEquals(ids(livroRepository.findMaisBaixadosPorTopico(topico, PageRequest.ofSize(n))),
+                        indice.maisBaixadosPorTopico(topico, n).orElseThrow(), "tópico " + topico + ", n=" + n);
+            }
+        }
+    }
+
+    @Test
+    void rankingCarregadoRespondeComoOBancoSemConsultar() {
+        indice.carregar();
+        conferirComOBanco();
+
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+        assertEquals(10, indice.maisBaixados(10).orElseThrow().size());
+        assertEquals(0, estatisticas.getPrepareStatementCount());
+        // Além da capacidade o índice não responde; o chamador usa o banco
+        assertTrue(indice.maisBaixados(21).isEmpty());
+        assertEquals(List.of(), indice.maisBaixadosPorIdioma("la", 5).orElseThrow());
+    }
+
+    @Test
+    void continuaIgualAoBancoComCadastrosAlteracoesETrocasDeTopico() {
+        indice.carregar();
+
+        for (int rodada = 0; rodada < 6; rodada++) {
+            // Downloads alterados: sobem, descem e empatam
+            Map<Long, Integer> alterados = new HashMap<>();
+            for (int i = 0; i < 40; i++) alterados.put(livros.get(aleatorio.nextInt(livros.size())), aleatorio.nextInt(60));
+            transacao.executeWithoutResult(status -> {
+                alterados.forEach((id, downloads) ->
+                        jdbcTemplate.update("UPDATE livros SET numero_downloads = ? WHERE id = ?", downloads, id));
+                eventos.publishEvent(new DownloadsAlteradosEvento(alterados,
+                        livroRepository.idiomasPorLivro(alterados.keySet()),
+                        livroRepository.topicosPorLivro(alterados.keySet())));
+            });
+
+            for (int i = 0; i < 5; i++) {
+                Livro livro = novoLivro("Novo " + rodada + "-" + i);
+                transacao.executeWithoutResult(status -> {
+                    long id = gravar(livro);
+                    eventos.publishEvent(new LivroCadastradoEvento(id, livro.titulo(), livro.downloads(),
+                            livro.idiomas(), livro.topicos()));
+                });
+            }
+
+            for (int i = 0; i < 5; i++) {
+                Map<String, Object> vinculo = jdbcTemplate.queryForList("SELECT livro_id, topico_id FROM livro_topico")
+                        .get(aleatorio.nextInt(100));
+                long livroId = ((Number) vinculo.get("livro_id")).longValue();
+                long anterior = ((Number) vinculo.get("topico_id")).longValue();
+                long novo = topicos.get(aleatorio.nextInt(topicos.size()));
+                transacao.executeWithoutResult(status -> {
+                    jdbcTemplate.update("DELETE FROM livro_topico WHERE livro_id = ? AND topico_id = ?", livroId, anterior);
+                    jdbcTemplate.update("""
+                            INSERT INTO livro_topico (livro_id, topico_id) SELECT ?, ?
+                            WHERE NOT EXISTS (SELECT 1 FROM livro_topico WHERE livro_id = ? AND topico_id = ?)
+                            """, livroId, novo, livroId, novo);
+                    eventos.publishEvent(new TopicoTrocadoEvento(livroId, anterior, novo));
+                });
+            }
+
+            conferirComOBanco();
+        }
+    }
+}
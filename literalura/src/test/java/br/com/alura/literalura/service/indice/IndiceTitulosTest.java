@@ -0,0 +1,36 @@
+package br.com.alura.literalura.service.indice;
+
+import br.com.alura.literalura.model.DTO.TextoIndexadoDTO;
+import br.com.alura.literalura.repository.LivroRepository;
+import br.com.alura.literalura.service.LivroCadastradoEvento;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IndiceTitulosTest {
+
+    @Test
+    void encontraTitulosCatalogadosIgnorandoMaiusculasAcentosEEspacos() {
+        LivroRepository repositorio = mock(LivroRepository.class);
+        when(repositorio.findTitulosDosLivros()).thenReturn(List.of(
+                new TextoIndexadoDTO(1L, "Pride and Prejudice"),
+                new TextoIndexadoDTO(2L, "Os Lusíadas")));
+
+        IndiceTitulos indice = new IndiceTitulos(repositorio);
+        assertEquals(Optional.empty(), indice.buscar("Pride and Prejudice"), "índice frio não deve responder");
+
+        indice.carregar();
+        indice.aoCadastrarLivro(new LivroCadastradoEvento(3L, "Frankenstein; Or, The Modern Prometheus"));
+
+        assertEquals(Optional.of(1L), indice.buscar("  pride AND   prejudice "));
+        assertEquals(Optional.of(2L), indice.buscar("os lusiadas"));
+        assertEquals(Optional.of(3L), indice.buscar("frankenstein; or, the modern prometheus"));
+        // Só o título inteiro conta: trechos e títulos desconhecidos vão para a API
+        assertEquals(Optional.empty(), indice.buscar("Pride"));
+        assertEquals(Optional.empty(), indice.buscar("Dracula"));
+    }
+}
@@ -0,0 +1,50 @@
+package br.com.alura.literalura.service.indice;
+
+import br.com.alura.literalura.model.DTO.VidaAutorDTO;
+import br.com.alura.literalura.repository.AutorRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IndiceVidaAutoresTest {
+
+    private static List<Long> forcaBruta(List<VidaAutorDTO> vidas, int inicio, int fim) {
+        return vidas.stream()
+                .filter(v -> v.anoNascimento() != null && v.anoNascimento() <= fim
+                        && (v.anoFalecimento() == null || v.anoFalecimento() >= inicio))
+                .map(VidaAutorDTO::id)
+                .sorted()
+                .toList();
+    }
+
+    @Test
+    void respondeComoAConsultaNoBancoParaAnosEFaixas() {
+        Random aleatorio = new Random(42);
+        List<VidaAutorDTO> vidas = new ArrayList<>();
+        for (long id = 1; id <= 3_000; id++) {
+            Integer nascimento = aleatorio.nextInt(20) == 0 ? null : 1400 + aleatorio.nextInt(600);
+            Integer falecimento = nascimento == null || aleatorio.nextInt(10) == 0 ? null : nascimento + aleatorio.nextInt(100);
+            vidas.add(new VidaAutorDTO(id, nascimento, falecimento));
+        }
+        AutorRepository repositorio = mock(AutorRepository.class);
+        when(repositorio.findVidasDosAutores()).thenReturn(vidas.subList(0, 2_000));
+
+        IndiceVidaAutores indice = new IndiceVidaAutores(repositorio);
+        assertEquals(Optional.empty(), indice.vivosNoAno(1800), "índice frio não deve responder");
+
+        indice.carregar();
+        // Inserções após a carga passam pelo buffer e pelas reconstruções
+        vidas.subList(2_000, 3_000).forEach(indice::registrar);
+
+        for (int ano = 1390; ano <= 2030; ano += 7) {
+            assertEquals(forcaBruta(vidas, ano, ano), indice.vivosNoAno(ano).orElseThrow(), "ano " + ano);
+            assertEquals(forcaBruta(vidas, ano, ano + 25), indice.vivosEntre(ano, ano + 25).orElseThrow(), "faixa " + ano);
+        }
+    }
+}